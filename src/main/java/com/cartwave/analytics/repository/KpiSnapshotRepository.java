@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +13,6 @@ import java.util.UUID;
 public interface KpiSnapshotRepository extends JpaRepository<KpiSnapshot, UUID> {
 
     Optional<KpiSnapshot> findByStoreIdAndSnapshotDateAndDeletedFalse(UUID storeId, LocalDate snapshotDate);
+
+    List<KpiSnapshot> findBySnapshotDateAndDeletedFalse(LocalDate snapshotDate);
 }
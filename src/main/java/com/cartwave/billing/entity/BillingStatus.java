@@ -7,5 +7,7 @@ public enum BillingStatus {
     COMPLETED,
     FAILED,
     PROCESSING,
+    /** Paid, but there is nothing left to fulfil it with; the money is owed back to the customer. */
+    REFUND_PENDING,
     REFUNDED
 }
@@ -4,11 +4,14 @@ import com.cartwave.billing.entity.BillingTransaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +31,19 @@ public interface BillingTransactionRepository extends JpaRepository<BillingTrans
     @Query("SELECT b FROM BillingTransaction b WHERE b.orderId = :orderId AND b.storeId = :storeId AND b.deleted = false ORDER BY b.createdAt DESC")
     Optional<BillingTransaction> findFirstByOrderIdAndStoreId(@Param("orderId") UUID orderId, @Param("storeId") UUID storeId);
 
+    @Query("SELECT b FROM BillingTransaction b WHERE b.orderId IN :orderIds AND b.deleted = false ORDER BY b.createdAt DESC")
+    List<BillingTransaction> findByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingTransaction b SET b.releaseAt = :releaseAt, b.updatedAt = :now
+            WHERE b.orderId IN :orderIds AND b.storeId = :storeId AND b.status = 'HOLD' AND b.deleted = false
+            """)
+    int scheduleHeldRelease(@Param("orderIds") Collection<UUID> orderIds,
+                            @Param("storeId") UUID storeId,
+                            @Param("releaseAt") long releaseAt,
+                            @Param("now") Instant now);
+
     @Query("SELECT b FROM BillingTransaction b WHERE b.status = :status AND b.releaseAt IS NOT NULL AND b.releaseAt <= :releaseAt AND b.deleted = false")
     List<BillingTransaction> findReleasable(
             @Param("status") com.cartwave.billing.entity.BillingStatus status,
@@ -1,5 +1,6 @@
 package com.cartwave.cart.controller;
 
+import com.cartwave.cart.dto.CartBatchRequest;
 import com.cartwave.cart.dto.CartDTO;
 import com.cartwave.cart.dto.CartItemRequest;
 import com.cartwave.cart.service.CartService;
@@ -35,6 +36,11 @@ public class CartController {
         return ResponseEntity.ok(ApiResponse.success("Cart item added successfully", cartService.addItem(request)));
     }
 
+    @PostMapping("/items/batch")
+    public ResponseEntity<ApiResponse<CartDTO>> applyBatch(@Valid @RequestBody CartBatchRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Cart updated successfully", cartService.applyBatch(request)));
+    }
+
     @PatchMapping("/items/{itemId}")
     public ResponseEntity<ApiResponse<CartDTO>> updateItem(
             @PathVariable UUID itemId,
@@ -0,0 +1,45 @@
+package com.cartwave.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Several cart changes applied in order as one unit. Lines are addressed by {@code itemId} or,
+ * when the client only knows the product (restoring a saved cart, reordering), by {@code productId}.
+ */
+@Data
+public class CartBatchRequest {
+
+    @Valid
+    @NotEmpty
+    @Size(max = 100)
+    private List<Operation> operations;
+
+    @Data
+    public static class Operation {
+
+        @NotNull
+        private Action action;
+
+        private UUID itemId;
+
+        private UUID productId;
+
+        /** Quantity to add (ADD) or the new quantity (UPDATE); ignored for REMOVE. */
+        @Min(1)
+        private Integer quantity;
+    }
+
+    public enum Action {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
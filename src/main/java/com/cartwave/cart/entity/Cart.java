@@ -20,7 +20,8 @@ import java.util.UUID;
 @Table(name = "carts", indexes = {
         @Index(name = "idx_carts_store_customer", columnList = "store_id,customer_id"),
         @Index(name = "idx_carts_status", columnList = "status"),
-        @Index(name = "idx_carts_deleted", columnList = "deleted")
+        @Index(name = "idx_carts_deleted", columnList = "deleted"),
+        @Index(name = "idx_carts_active_updated", columnList = "updated_at")
 })
 @Data
 @Builder
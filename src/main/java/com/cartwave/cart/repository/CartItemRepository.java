@@ -2,10 +2,14 @@ package com.cartwave.cart.repository;
 
 import com.cartwave.cart.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,9 +20,68 @@ public interface CartItemRepository extends JpaRepository<CartItem, UUID> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cartId = :cartId AND ci.deleted = false ORDER BY ci.createdAt ASC")
     List<CartItem> findByCartId(@Param("cartId") UUID cartId);
 
+    @Query("""
+            SELECT new com.cartwave.cart.repository.CartLine(ci, p.name)
+            FROM CartItem ci LEFT JOIN Product p ON p.id = ci.productId
+            WHERE ci.cartId = :cartId AND ci.deleted = false
+            ORDER BY ci.createdAt ASC
+            """)
+    List<CartLine> findLinesByCartId(@Param("cartId") UUID cartId);
+
     @Query("SELECT ci FROM CartItem ci WHERE ci.cartId = :cartId AND ci.productId = :productId AND ci.deleted = false")
     Optional<CartItem> findByCartIdAndProductId(@Param("cartId") UUID cartId, @Param("productId") UUID productId);
 
     @Query("SELECT ci FROM CartItem ci WHERE ci.id = :id AND ci.cartId = :cartId AND ci.deleted = false")
     Optional<CartItem> findByIdAndCartId(@Param("id") UUID id, @Param("cartId") UUID cartId);
+
+    // ── write-behind flush ───
+
+    @Query("SELECT ci.id FROM CartItem ci WHERE ci.cartId = :cartId AND ci.deleted = false")
+    List<UUID> findIdsByCartId(@Param("cartId") UUID cartId);
+
+    /** Lines as detached values, so a write-behind flush never leaves stale entities in the caller's context. */
+    @Query("""
+            SELECT new com.cartwave.cart.repository.StoredCartLine(ci.id, ci.productId, ci.quantity, ci.unitPrice,
+                ci.lineTotal, ci.createdAt, p.name)
+            FROM CartItem ci LEFT JOIN Product p ON p.id = ci.productId
+            WHERE ci.cartId = :cartId AND ci.deleted = false
+            ORDER BY ci.createdAt ASC
+            """)
+    List<StoredCartLine> findStoredLinesByCartId(@Param("cartId") UUID cartId);
+
+    @Modifying
+    @Query("""
+            UPDATE CartItem ci SET ci.quantity = :quantity, ci.unitPrice = :unitPrice, ci.lineTotal = :lineTotal, ci.updatedAt = :now
+            WHERE ci.id = :id
+            """)
+    int updateLine(
+            @Param("id") UUID id,
+            @Param("quantity") Integer quantity,
+            @Param("unitPrice") BigDecimal unitPrice,
+            @Param("lineTotal") BigDecimal lineTotal,
+            @Param("now") Instant now
+    );
+
+    @Modifying
+    @Query("""
+            INSERT INTO CartItem (id, cartId, productId, quantity, unitPrice, lineTotal, createdAt, updatedAt, deleted)
+            VALUES (:id, :cartId, :productId, :quantity, :unitPrice, :lineTotal, :createdAt, :createdAt, false)
+            """)
+    int insertWithId(
+            @Param("id") UUID id,
+            @Param("cartId") UUID cartId,
+            @Param("productId") UUID productId,
+            @Param("quantity") Integer quantity,
+            @Param("unitPrice") BigDecimal unitPrice,
+            @Param("lineTotal") BigDecimal lineTotal,
+            @Param("createdAt") Instant createdAt
+    );
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.deleted = true, ci.updatedAt = :now WHERE ci.id IN :ids")
+    int softDeleteByIdIn(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.deleted = true, ci.updatedAt = :now WHERE ci.cartId = :cartId AND ci.deleted = false")
+    int softDeleteByCartId(@Param("cartId") UUID cartId, @Param("now") Instant now);
 }
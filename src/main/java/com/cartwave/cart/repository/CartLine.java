@@ -0,0 +1,10 @@
+package com.cartwave.cart.repository;
+
+import com.cartwave.cart.entity.CartItem;
+
+/**
+ * A cart item together with the product summary the cart response needs, loaded by a single
+ * joined query. The item is a managed entity, so mutations on it are flushed as usual.
+ */
+public record CartLine(CartItem item, String productName) {
+}
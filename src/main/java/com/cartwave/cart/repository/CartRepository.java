@@ -3,10 +3,14 @@ package com.cartwave.cart.repository;
 import com.cartwave.cart.entity.Cart;
 import com.cartwave.cart.entity.CartStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,4 +23,58 @@ public interface CartRepository extends JpaRepository<Cart, UUID> {
             @Param("storeId") UUID storeId,
             @Param("status") CartStatus status
     );
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.subtotal = c.subtotal + :delta, c.total = c.total + :delta, c.updatedAt = :now WHERE c.id = :id")
+    int addToTotals(@Param("id") UUID id, @Param("delta") BigDecimal delta, @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+            UPDATE Cart c SET
+                c.subtotal = (SELECT COALESCE(SUM(ci.lineTotal), 0) FROM CartItem ci WHERE ci.cartId = c.id AND ci.deleted = false),
+                c.total = (SELECT COALESCE(SUM(ci.lineTotal), 0) FROM CartItem ci WHERE ci.cartId = c.id AND ci.deleted = false),
+                c.updatedAt = :now
+            WHERE c.status = :status AND c.deleted = false AND c.updatedAt >= :since
+              AND c.subtotal <> (SELECT COALESCE(SUM(ci.lineTotal), 0) FROM CartItem ci WHERE ci.cartId = c.id AND ci.deleted = false)
+            """)
+    int reconcileTotals(@Param("status") CartStatus status, @Param("since") Instant since, @Param("now") Instant now);
+
+    // ── write-behind flush (ids are assigned in memory, so rows are written with explicit statements) ───
+
+    /** Only while the cart is still ACTIVE: a cart checked out elsewhere is left as it is. */
+    @Modifying
+    @Query("""
+            UPDATE Cart c SET c.subtotal = :subtotal, c.total = :total, c.updatedAt = :now
+            WHERE c.id = :id AND c.status = com.cartwave.cart.entity.CartStatus.ACTIVE AND c.deleted = false
+            """)
+    int updateActiveTotals(
+            @Param("id") UUID id,
+            @Param("subtotal") BigDecimal subtotal,
+            @Param("total") BigDecimal total,
+            @Param("now") Instant now
+    );
+
+    @Query("""
+            SELECT c.id FROM Cart c
+            WHERE c.customerId = :customerId AND c.storeId = :storeId
+              AND c.status = com.cartwave.cart.entity.CartStatus.ACTIVE AND c.deleted = false
+            ORDER BY c.createdAt ASC
+            """)
+    List<UUID> findActiveIds(@Param("customerId") UUID customerId, @Param("storeId") UUID storeId);
+
+    @Modifying
+    @Query("""
+            INSERT INTO Cart (id, storeId, customerId, status, subtotal, total, currency, createdAt, updatedAt, deleted)
+            VALUES (:id, :storeId, :customerId, :status, :subtotal, :total, :currency, :createdAt, :createdAt, false)
+            """)
+    int insertWithId(
+            @Param("id") UUID id,
+            @Param("storeId") UUID storeId,
+            @Param("customerId") UUID customerId,
+            @Param("status") CartStatus status,
+            @Param("subtotal") BigDecimal subtotal,
+            @Param("total") BigDecimal total,
+            @Param("currency") String currency,
+            @Param("createdAt") Instant createdAt
+    );
 }
@@ -0,0 +1,10 @@
+package com.cartwave.cart.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** A persisted cart line read as plain values, for merging into a cart held in memory. */
+public record StoredCartLine(UUID id, UUID productId, Integer quantity, BigDecimal unitPrice,
+                             BigDecimal lineTotal, Instant createdAt, String productName) {
+}
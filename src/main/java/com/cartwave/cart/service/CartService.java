@@ -1,5 +1,6 @@
 package com.cartwave.cart.service;
 
+import com.cartwave.cart.dto.CartBatchRequest;
 import com.cartwave.cart.dto.CartDTO;
 import com.cartwave.cart.dto.CartItemDTO;
 import com.cartwave.cart.dto.CartItemRequest;
@@ -7,6 +8,7 @@ import com.cartwave.cart.entity.Cart;
 import com.cartwave.cart.entity.CartItem;
 import com.cartwave.cart.entity.CartStatus;
 import com.cartwave.cart.repository.CartItemRepository;
+import com.cartwave.cart.repository.CartLine;
 import com.cartwave.cart.repository.CartRepository;
 import com.cartwave.customer.entity.Customer;
 import com.cartwave.customer.service.CustomerService;
@@ -15,7 +17,6 @@ import com.cartwave.exception.ResourceNotFoundException;
 import com.cartwave.product.entity.Product;
 import com.cartwave.product.entity.ProductStatus;
 import com.cartwave.product.repository.ProductRepository;
-import com.cartwave.store.entity.Store;
 import com.cartwave.store.repository.StoreRepository;
 import com.cartwave.tenant.TenantContext;
 import lombok.RequiredArgsConstructor;
@@ -23,8 +24,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,64 +44,96 @@ public class CartService {
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
     private final CustomerService customerService;
+    private final CartStore cartStore;
 
-    @Transactional(readOnly = true)
     public CartDTO getCurrentCart() {
-        return toDto(getOrCreateActiveCart(), cartItemRepository.findByCartId(getOrCreateActiveCart().getId()));
+        return toDto(loadCurrentCart());
     }
 
     public CartDTO addItem(CartItemRequest request) {
-        Cart cart = getOrCreateActiveCart();
-        Product product = getActiveProduct(request.getProductId(), cart.getStoreId());
-
-        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), product.getId())
-                .orElseGet(() -> CartItem.builder()
-                        .cartId(cart.getId())
-                        .productId(product.getId())
-                        .quantity(0)
-                        .unitPrice(product.getPrice())
-                        .lineTotal(BigDecimal.ZERO)
-                        .build());
-
-        item.setQuantity(item.getQuantity() + request.getQuantity());
-        item.setUnitPrice(product.getPrice());
-        item.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-        cartItemRepository.save(item);
-        recalculate(cart);
-        return getCurrentCart();
+        CartState state = loadCurrentCart();
+        Product product = getActiveProduct(request.getProductId(), state.cart().getStoreId());
+
+        CartItem item = lineFor(state, product);
+        BigDecimal before = item.getLineTotal();
+        price(item, product, item.getQuantity() + request.getQuantity());
+        cartStore.save(state, List.of(item), applyDelta(state, item.getLineTotal().subtract(before)));
+        return toDto(state);
     }
 
     public CartDTO updateItem(UUID itemId, CartItemRequest request) {
-        Cart cart = getOrCreateActiveCart();
-        CartItem item = cartItemRepository.findByIdAndCartId(itemId, cart.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", itemId));
-        Product product = getActiveProduct(item.getProductId(), cart.getStoreId());
+        CartState state = loadCurrentCart();
+        CartItem item = findLine(state, itemId);
+        Product product = getActiveProduct(item.getProductId(), state.cart().getStoreId());
 
-        item.setQuantity(request.getQuantity());
-        item.setUnitPrice(product.getPrice());
-        item.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(request.getQuantity())));
-        cartItemRepository.save(item);
-        recalculate(cart);
-        return getCurrentCart();
+        BigDecimal before = item.getLineTotal();
+        price(item, product, request.getQuantity());
+        cartStore.save(state, List.of(item), applyDelta(state, item.getLineTotal().subtract(before)));
+        return toDto(state);
     }
 
     public void removeItem(UUID itemId) {
-        Cart cart = getOrCreateActiveCart();
-        CartItem item = cartItemRepository.findByIdAndCartId(itemId, cart.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", itemId));
-        item.setDeleted(true);
-        cartItemRepository.save(item);
-        recalculate(cart);
+        CartState state = loadCurrentCart();
+        CartItem item = findLine(state, itemId);
+        remove(state, item);
+        cartStore.save(state, List.of(item), applyDelta(state, item.getLineTotal().negate()));
+    }
+
+    /**
+     * Apply a list of add/update/remove operations in order and save the cart once. All referenced
+     * products are fetched with one query; any invalid operation rejects the whole batch.
+     */
+    public CartDTO applyBatch(CartBatchRequest request) {
+        CartState state = loadCurrentCart();
+        Map<UUID, Product> products = loadProducts(state, request.getOperations());
+        // line total of each touched line before the batch, to derive the net total delta
+        Map<CartItem, BigDecimal> touched = new IdentityHashMap<>();
+
+        for (CartBatchRequest.Operation operation : request.getOperations()) {
+            switch (operation.getAction()) {
+                case ADD -> {
+                    Product product = availableProduct(products, operation.getProductId());
+                    CartItem item = lineFor(state, product);
+                    touched.putIfAbsent(item, item.getLineTotal());
+                    price(item, product, item.getQuantity() + requireQuantity(operation));
+                }
+                case UPDATE -> {
+                    CartItem item = resolveLine(state, operation);
+                    touched.putIfAbsent(item, item.getLineTotal());
+                    price(item, availableProduct(products, item.getProductId()), requireQuantity(operation));
+                }
+                case REMOVE -> {
+                    CartItem item = resolveLine(state, operation);
+                    touched.putIfAbsent(item, item.getLineTotal());
+                    remove(state, item);
+                }
+            }
+        }
+
+        BigDecimal delta = touched.entrySet().stream()
+                .map(entry -> (Boolean.TRUE.equals(entry.getKey().getDeleted()) ? BigDecimal.ZERO : entry.getKey().getLineTotal())
+                        .subtract(entry.getValue()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // a line both added and removed within the batch never needs writing
+        List<CartItem> changed = touched.keySet().stream()
+                .filter(item -> item.getId() != null || !Boolean.TRUE.equals(item.getDeleted()))
+                .toList();
+        cartStore.save(state, changed, applyDelta(state, delta));
+        return toDto(state);
+    }
+
+    /** Write the customer's cart to the database if it is held elsewhere; called before checkout. */
+    public void flush(Customer customer) {
+        cartStore.flush(TenantContext.getTenantId(), customer.getId());
     }
 
     public void markCheckedOut(Cart cart) {
-        List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
-        items.forEach(item -> item.setDeleted(true));
-        cartItemRepository.saveAll(items);
+        cartItemRepository.softDeleteByCartId(cart.getId(), Instant.now());
         cart.setStatus(CartStatus.CHECKED_OUT);
         cart.setSubtotal(BigDecimal.ZERO);
         cart.setTotal(BigDecimal.ZERO);
         cartRepository.save(cart);
+        cartStore.evictAfterCommit(cart.getStoreId(), cart.getCustomerId());
     }
 
     @Transactional(readOnly = true)
@@ -106,41 +146,138 @@ public class CartService {
         Customer customer = customerService.requireCurrentCustomer();
         UUID storeId = TenantContext.getTenantId();
         return cartRepository.findByCustomerIdAndStoreIdAndStatus(customer.getId(), storeId, CartStatus.ACTIVE)
+                .orElseGet(() -> cartRepository.save(DatabaseCartStore.newCart(storeRepository, storeId, customer.getId())));
+    }
+
+    private CartState loadCurrentCart() {
+        Customer customer = customerService.requireCurrentCustomer();
+        return cartStore.load(TenantContext.getTenantId(), customer.getId());
+    }
+
+    /**
+     * Re-derive subtotal/total from the live lines of ACTIVE carts changed since {@code since},
+     * correcting any drift left by the incremental updates. Returns the number of carts fixed.
+     */
+    public int reconcileTotals(Instant since) {
+        return cartRepository.reconcileTotals(CartStatus.ACTIVE, since, Instant.now());
+    }
+
+    /**
+     * Shift the cart totals by the change in one line's total instead of re-summing every line.
+     * Returns the delta so the store can apply the same change to the persisted row.
+     */
+    private BigDecimal applyDelta(CartState state, BigDecimal delta) {
+        Cart cart = state.cart();
+        cart.setSubtotal(cart.getSubtotal().add(delta));
+        cart.setTotal(cart.getTotal().add(delta));
+        return delta;
+    }
+
+    /** The cart's line for a product, appending an empty one if the product is not in the cart yet. */
+    private CartItem lineFor(CartState state, Product product) {
+        return state.lines().stream()
+                .map(CartLine::item)
+                .filter(item -> item.getProductId().equals(product.getId()))
+                .findFirst()
                 .orElseGet(() -> {
-                    Store store = storeRepository.findById(storeId)
-                            .orElseThrow(() -> new ResourceNotFoundException("Store", "id", storeId));
-                    Cart cart = Cart.builder()
-                            .customerId(customer.getId())
-                            .storeId(storeId)
-                            .status(CartStatus.ACTIVE)
-                            .subtotal(BigDecimal.ZERO)
-                            .total(BigDecimal.ZERO)
-                            .currency(store.getCurrency() == null ? "USD" : store.getCurrency())
+                    CartItem created = CartItem.builder()
+                            .cartId(state.cart().getId())
+                            .productId(product.getId())
+                            .quantity(0)
+                            .unitPrice(product.getPrice())
+                            .lineTotal(BigDecimal.ZERO)
                             .build();
-                    return cartRepository.save(cart);
+                    state.lines().add(new CartLine(created, product.getName()));
+                    return created;
                 });
     }
 
-    private void recalculate(Cart cart) {
-        List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
-        BigDecimal subtotal = items.stream()
-                .map(CartItem::getLineTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        cart.setSubtotal(subtotal);
-        cart.setTotal(subtotal);
-        cartRepository.save(cart);
+    private void price(CartItem item, Product product, int quantity) {
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    private void remove(CartState state, CartItem item) {
+        item.setDeleted(true);
+        state.lines().removeIf(line -> line.item() == item);
+    }
+
+    private CartItem findLine(CartState state, UUID itemId) {
+        return state.lines().stream()
+                .map(CartLine::item)
+                .filter(item -> itemId.equals(item.getId()))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", itemId));
+    }
+
+    /** Batch operations address a line by item id, or by product id when the client only knows that. */
+    private CartItem resolveLine(CartState state, CartBatchRequest.Operation operation) {
+        if (operation.getItemId() != null) {
+            return findLine(state, operation.getItemId());
+        }
+        if (operation.getProductId() == null) {
+            throw new BusinessException("INVALID_CART_OPERATION", operation.getAction() + " needs an itemId or a productId.");
+        }
+        return state.lines().stream()
+                .map(CartLine::item)
+                .filter(item -> item.getProductId().equals(operation.getProductId()))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "productId", operation.getProductId()));
+    }
+
+    private int requireQuantity(CartBatchRequest.Operation operation) {
+        if (operation.getQuantity() == null) {
+            throw new BusinessException("INVALID_CART_OPERATION", operation.getAction() + " needs a quantity.");
+        }
+        return operation.getQuantity();
+    }
+
+    /** Every product a batch refers to, directly or through an existing line, in one query. */
+    private Map<UUID, Product> loadProducts(CartState state, List<CartBatchRequest.Operation> operations) {
+        Set<UUID> ids = new HashSet<>();
+        for (CartBatchRequest.Operation operation : operations) {
+            if (operation.getProductId() != null) {
+                ids.add(operation.getProductId());
+            } else if (operation.getItemId() != null) {
+                state.lines().stream()
+                        .filter(line -> operation.getItemId().equals(line.item().getId()))
+                        .findFirst()
+                        .ifPresent(line -> ids.add(line.item().getProductId()));
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findAllByIdInAndStoreId(ids, state.cart().getStoreId()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private Product availableProduct(Map<UUID, Product> products, UUID productId) {
+        if (productId == null) {
+            throw new BusinessException("INVALID_CART_OPERATION", "ADD needs a productId.");
+        }
+        Product product = products.get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return requireAvailable(product);
     }
 
     private Product getActiveProduct(UUID productId, UUID storeId) {
-        Product product = productRepository.findByIdAndStoreId(productId, storeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        return requireAvailable(productRepository.findByIdAndStoreId(productId, storeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId)));
+    }
+
+    private Product requireAvailable(Product product) {
         if (product.getStatus() != ProductStatus.ACTIVE || Boolean.TRUE.equals(product.getDeleted())) {
             throw new BusinessException("PRODUCT_UNAVAILABLE", "Product is not available for cart operations.");
         }
         return product;
     }
 
-    private CartDTO toDto(Cart cart, List<CartItem> items) {
+    private CartDTO toDto(CartState state) {
+        Cart cart = state.cart();
         return CartDTO.builder()
                 .id(cart.getId())
                 .storeId(cart.getStoreId())
@@ -149,17 +286,14 @@ public class CartService {
                 .subtotal(cart.getSubtotal())
                 .total(cart.getTotal())
                 .currency(cart.getCurrency())
-                .items(items.stream().map(item -> {
-                    Product product = productRepository.findById(item.getProductId()).orElse(null);
-                    return CartItemDTO.builder()
-                            .id(item.getId())
-                            .productId(item.getProductId())
-                            .productName(product == null ? null : product.getName())
-                            .quantity(item.getQuantity())
-                            .unitPrice(item.getUnitPrice())
-                            .lineTotal(item.getLineTotal())
-                            .build();
-                }).toList())
+                .items(state.lines().stream().map(line -> CartItemDTO.builder()
+                        .id(line.item().getId())
+                        .productId(line.item().getProductId())
+                        .productName(line.productName())
+                        .quantity(line.item().getQuantity())
+                        .unitPrice(line.item().getUnitPrice())
+                        .lineTotal(line.item().getLineTotal())
+                        .build()).toList())
                 .build();
     }
 }
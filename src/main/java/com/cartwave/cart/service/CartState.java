@@ -0,0 +1,13 @@
+package com.cartwave.cart.service;
+
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.repository.CartLine;
+
+import java.util.List;
+
+/**
+ * A customer's active cart and its live lines as handed out by a {@link CartStore}. The line
+ * list is mutable; callers change it in place and pass the state back to {@link CartStore#save}.
+ */
+public record CartState(Cart cart, List<CartLine> lines) {
+}
@@ -0,0 +1,34 @@
+package com.cartwave.cart.service;
+
+import com.cartwave.cart.entity.CartItem;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Where active carts live between requests. Selected with {@code cartwave.cart.storage}:
+ * {@code database} (default) writes every mutation through, {@code memory} keeps carts on the
+ * node and writes them behind.
+ */
+public interface CartStore {
+
+    /** The customer's active cart, created if there is none yet. */
+    CartState load(UUID storeId, UUID customerId);
+
+    /**
+     * Record a mutated cart. {@code changed} are the lines that were added, updated or soft-deleted;
+     * they have already been applied to (or removed from) {@code state.lines()}, and {@code totalDelta}
+     * (the net change in their line totals) to the cart's subtotal and total.
+     */
+    void save(CartState state, Collection<CartItem> changed, BigDecimal totalDelta);
+
+    /** Make the customer's cart durable in the current transaction, e.g. before checkout. */
+    void flush(UUID storeId, UUID customerId);
+
+    /** Forget the customer's cart once the current transaction commits, e.g. after checkout. */
+    void evictAfterCommit(UUID storeId, UUID customerId);
+
+    /** Write every cart changed since its last flush; returns how many carts were written. */
+    int flushPending();
+}
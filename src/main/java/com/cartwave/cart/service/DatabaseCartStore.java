@@ -0,0 +1,81 @@
+package com.cartwave.cart.service;
+
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.entity.CartItem;
+import com.cartwave.cart.entity.CartStatus;
+import com.cartwave.cart.repository.CartItemRepository;
+import com.cartwave.cart.repository.CartRepository;
+import com.cartwave.exception.ResourceNotFoundException;
+import com.cartwave.store.entity.Store;
+import com.cartwave.store.repository.StoreRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Write-through cart storage: every mutation is persisted in the caller's transaction.
+ * <p>
+ * The cart row is handed out detached and its totals are moved with a single relative
+ * {@code UPDATE}, so concurrent mutations of one cart add up instead of overwriting each other.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cartwave.cart.storage", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final StoreRepository storeRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    public CartState load(UUID storeId, UUID customerId) {
+        Cart cart = cartRepository.findByCustomerIdAndStoreIdAndStatus(customerId, storeId, CartStatus.ACTIVE)
+                .orElseGet(() -> cartRepository.saveAndFlush(newCart(storeRepository, storeId, customerId)));
+        entityManager.detach(cart);
+        return new CartState(cart, new ArrayList<>(cartItemRepository.findLinesByCartId(cart.getId())));
+    }
+
+    @Override
+    public void save(CartState state, Collection<CartItem> changed, BigDecimal totalDelta) {
+        cartItemRepository.saveAll(changed);
+        if (totalDelta.signum() != 0) {
+            cartRepository.addToTotals(state.cart().getId(), totalDelta, Instant.now());
+        }
+    }
+
+    @Override
+    public void flush(UUID storeId, UUID customerId) {
+        // already durable
+    }
+
+    @Override
+    public void evictAfterCommit(UUID storeId, UUID customerId) {
+        // nothing cached
+    }
+
+    @Override
+    public int flushPending() {
+        return 0;
+    }
+
+    static Cart newCart(StoreRepository storeRepository, UUID storeId, UUID customerId) {
+        Store store = storeRepository.findById(storeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Store", "id", storeId));
+        return Cart.builder()
+                .customerId(customerId)
+                .storeId(storeId)
+                .status(CartStatus.ACTIVE)
+                .subtotal(BigDecimal.ZERO)
+                .total(BigDecimal.ZERO)
+                .currency(store.getCurrency() == null ? "USD" : store.getCurrency())
+                .build();
+    }
+}
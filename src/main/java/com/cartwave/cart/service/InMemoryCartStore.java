@@ -0,0 +1,453 @@
+package com.cartwave.cart.service;
+
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.entity.CartItem;
+import com.cartwave.cart.entity.CartStatus;
+import com.cartwave.cart.repository.CartItemRepository;
+import com.cartwave.cart.repository.CartLine;
+import com.cartwave.cart.repository.CartRepository;
+import com.cartwave.cart.repository.StoredCartLine;
+import com.cartwave.common.id.UuidV7Generator;
+import com.cartwave.store.repository.StoreRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node-local cart storage for high-churn cart traffic.
+ * <p>
+ * Active carts are held in memory, partitioned by store, and mutations only touch memory.
+ * Changed carts are written behind by {@code CartFlushJob}, synchronously before checkout, and
+ * before a changed cart is evicted to stay within {@code cartwave.cart.memory.max-carts}
+ * (overall) and {@code max-carts-per-store} (per tenant, so one busy store cannot push out
+ * everybody else). Carts that are never changed, or whose lines were never added, are never
+ * written at all. Unchanged carts idle for longer than {@code idle-ttl-ms} are dropped.
+ * <p>
+ * Ids are assigned in memory so responses can reference lines before they are written; rows
+ * are therefore written with explicit insert/update statements rather than {@code save}. A write
+ * only lands on the customer's ACTIVE cart for the store: if the cart was checked out or abandoned
+ * in the meantime the pending changes are dropped, and if another ACTIVE cart was created for the
+ * customer the held cart is merged into that one instead of inserting a second.
+ * A cart lives on one node, so this mode needs customer-sticky routing; changes not yet
+ * flushed are lost if the node dies.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cartwave.cart.storage", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final StoreRepository storeRepository;
+    private final TransactionTemplate flushTransaction;
+
+    @Value("${cartwave.cart.memory.max-carts:50000}")
+    private int maxCarts;
+
+    @Value("${cartwave.cart.memory.max-carts-per-store:5000}")
+    private int maxCartsPerStore;
+
+    @Value("${cartwave.cart.memory.idle-ttl-ms:1800000}")
+    private long idleTtlMs;
+
+    private final Map<UUID, Map<UUID, Entry>> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public InMemoryCartStore(CartRepository cartRepository,
+                             CartItemRepository cartItemRepository,
+                             StoreRepository storeRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.storeRepository = storeRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public CartState load(UUID storeId, UUID customerId) {
+        Entry entry = partition(storeId).get(customerId);
+        if (entry == null) {
+            entry = install(storeId, customerId, loadFromDatabase(storeId, customerId));
+        }
+        return entry.snapshot();
+    }
+
+    @Override
+    public void save(CartState state, Collection<CartItem> changed, BigDecimal totalDelta) {
+        for (CartItem item : changed) {
+            if (item.getId() == null) {
+                item.setId(UuidV7Generator.next());
+                item.setCreatedAt(Instant.now());
+            }
+        }
+        Cart cart = state.cart();
+        Entry entry = partition(cart.getStoreId()).get(cart.getCustomerId());
+        while (entry == null || !entry.update(state)) {
+            // evicted between load and save: reinstall, the new entry starts out dirty
+            entry = install(cart.getStoreId(), cart.getCustomerId(), state);
+        }
+    }
+
+    @Override
+    public void flush(UUID storeId, UUID customerId) {
+        Entry entry = partition(storeId).get(customerId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry.flushLock) {
+            Pending pending = entry.pending();
+            while (pending != null) {
+                pending = write(entry, pending);
+            }
+        }
+    }
+
+    @Override
+    public void evictAfterCommit(UUID storeId, UUID customerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(storeId, customerId);
+                }
+            });
+        } else {
+            remove(storeId, customerId);
+        }
+    }
+
+    @Override
+    public int flushPending() {
+        long now = System.currentTimeMillis();
+        int written = 0;
+        for (Map<UUID, Entry> partition : partitions.values()) {
+            for (Entry entry : partition.values()) {
+                if (entry.retireIfIdle(now - idleTtlMs)) {
+                    drop(partition, entry);
+                } else if (flushInNewTransaction(entry)) {
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        int written = flushPending();
+        log.info("Flushed {} in-memory carts on shutdown", written);
+    }
+
+    /** Number of carts currently held on this node. */
+    public int size() {
+        return size.get();
+    }
+
+    private boolean flushInNewTransaction(Entry entry) {
+        synchronized (entry.flushLock) {
+            Pending pending = entry.pending();
+            if (pending == null) {
+                return false;
+            }
+            try {
+                return Boolean.TRUE.equals(flushTransaction.execute(status -> {
+                    Pending next = pending;
+                    while (next != null) {
+                        next = write(entry, next);
+                    }
+                    return !entry.isRetired();
+                }));
+            } catch (RuntimeException e) {
+                log.warn("Write-behind flush of cart {} failed, will retry: {}", entry.customerId, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Upsert the cart row and its lines and soft-delete lines no longer in memory. The entry is
+     * marked clean only once the surrounding transaction commits.
+     *
+     * @return the entry's state re-pointed at another ACTIVE cart that must be written instead,
+     * or {@code null} once done
+     */
+    private Pending write(Entry entry, Pending pending) {
+        Cart cart = pending.state().cart();
+        Instant now = Instant.now();
+        if (cartRepository.updateActiveTotals(cart.getId(), cart.getSubtotal(), cart.getTotal(), now) == 0) {
+            if (cartRepository.existsById(cart.getId())) {
+                // Checked out or abandoned since it was loaded: the row is no longer ours to change
+                log.info("Dropping unwritten changes to cart {}: it is no longer active", cart.getId());
+                entry.retire();
+                drop(partition(cart.getStoreId()), entry);
+                return null;
+            }
+            List<UUID> active = cartRepository.findActiveIds(cart.getCustomerId(), cart.getStoreId());
+            if (!active.isEmpty()) {
+                UUID target = active.get(0);
+                log.info("Merging in-memory cart {} into active cart {} created elsewhere", cart.getId(), target);
+                return entry.adopt(target, cartItemRepository.findStoredLinesByCartId(target));
+            }
+            cartRepository.insertWithId(cart.getId(), cart.getStoreId(), cart.getCustomerId(), cart.getStatus(),
+                    cart.getSubtotal(), cart.getTotal(), cart.getCurrency(), cart.getCreatedAt());
+        }
+
+        Set<UUID> stale = new HashSet<>(cartItemRepository.findIdsByCartId(cart.getId()));
+        for (CartLine line : pending.state().lines()) {
+            CartItem item = line.item();
+            if (stale.remove(item.getId())) {
+                cartItemRepository.updateLine(item.getId(), item.getQuantity(), item.getUnitPrice(), item.getLineTotal(), now);
+            } else {
+                cartItemRepository.insertWithId(item.getId(), cart.getId(), item.getProductId(), item.getQuantity(),
+                        item.getUnitPrice(), item.getLineTotal(), item.getCreatedAt());
+            }
+        }
+        if (!stale.isEmpty()) {
+            cartItemRepository.softDeleteByIdIn(stale, now);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entry.flushed(pending.version());
+            }
+        });
+        return null;
+    }
+
+    private CartState loadFromDatabase(UUID storeId, UUID customerId) {
+        Optional<Cart> persisted = cartRepository.findByCustomerIdAndStoreIdAndStatus(customerId, storeId, CartStatus.ACTIVE);
+        if (persisted.isPresent()) {
+            return new CartState(persisted.get(), cartItemRepository.findLinesByCartId(persisted.get().getId()));
+        }
+        Cart cart = DatabaseCartStore.newCart(storeRepository, storeId, customerId);
+        cart.setId(UuidV7Generator.next());
+        cart.setCreatedAt(Instant.now());
+        cart.setUpdatedAt(cart.getCreatedAt());
+        return new CartState(cart, List.of());
+    }
+
+    private Entry install(UUID storeId, UUID customerId, CartState state) {
+        makeRoom(storeId);
+        Entry fresh = new Entry(customerId, copy(state));
+        Entry existing = partition(storeId).putIfAbsent(customerId, fresh);
+        if (existing != null) {
+            return existing;
+        }
+        size.incrementAndGet();
+        return fresh;
+    }
+
+    private void makeRoom(UUID storeId) {
+        Map<UUID, Entry> own = partition(storeId);
+        if (own.size() >= maxCartsPerStore) {
+            evictLeastRecent(own);
+        }
+        if (size.get() >= maxCarts) {
+            partitions.values().stream()
+                    .max(Comparator.comparingInt(Map::size))
+                    .ifPresent(this::evictLeastRecent);
+        }
+    }
+
+    private void evictLeastRecent(Map<UUID, Entry> partition) {
+        partition.values().stream()
+                .min(Comparator.comparingLong(Entry::touchedAt))
+                .ifPresent(victim -> {
+                    flushInNewTransaction(victim);
+                    if (victim.retireIfIdle(Long.MAX_VALUE)) {
+                        drop(partition, victim);
+                    } else {
+                        log.warn("Cart store full but least recent cart {} could not be flushed", victim.customerId);
+                    }
+                });
+    }
+
+    private void remove(UUID storeId, UUID customerId) {
+        Map<UUID, Entry> partition = partition(storeId);
+        Entry entry = partition.get(customerId);
+        if (entry != null) {
+            entry.retire();
+            drop(partition, entry);
+        }
+    }
+
+    private void drop(Map<UUID, Entry> partition, Entry entry) {
+        if (partition.remove(entry.customerId, entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private Map<UUID, Entry> partition(UUID storeId) {
+        return partitions.computeIfAbsent(storeId, id -> new ConcurrentHashMap<>());
+    }
+
+    private static CartState copy(CartState state) {
+        List<CartLine> lines = new ArrayList<>(state.lines().size());
+        for (CartLine line : state.lines()) {
+            lines.add(new CartLine(copy(line.item()), line.productName()));
+        }
+        return new CartState(copy(state.cart()), lines);
+    }
+
+    private static Cart copy(Cart source) {
+        Cart cart = Cart.builder()
+                .storeId(source.getStoreId())
+                .customerId(source.getCustomerId())
+                .status(source.getStatus())
+                .subtotal(source.getSubtotal())
+                .total(source.getTotal())
+                .currency(source.getCurrency())
+                .build();
+        cart.setId(source.getId());
+        cart.setCreatedAt(source.getCreatedAt());
+        cart.setUpdatedAt(source.getUpdatedAt());
+        return cart;
+    }
+
+    private static CartItem copy(CartItem source) {
+        CartItem item = CartItem.builder()
+                .cartId(source.getCartId())
+                .productId(source.getProductId())
+                .quantity(source.getQuantity())
+                .unitPrice(source.getUnitPrice())
+                .lineTotal(source.getLineTotal())
+                .build();
+        item.setId(source.getId());
+        item.setCreatedAt(source.getCreatedAt());
+        item.setUpdatedAt(source.getUpdatedAt());
+        return item;
+    }
+
+    private record Pending(CartState state, long version) {
+    }
+
+    /** One cached cart. State changes are guarded by the entry monitor, writes by {@code flushLock}. */
+    private static final class Entry {
+
+        final UUID customerId;
+        final Object flushLock = new Object();
+        private CartState state;
+        private long version;
+        private long flushedVersion;
+        private boolean retired;
+        private volatile long touchedAt = System.currentTimeMillis();
+
+        Entry(UUID customerId, CartState state) {
+            this.customerId = customerId;
+            this.state = state;
+        }
+
+        long touchedAt() {
+            return touchedAt;
+        }
+
+        synchronized CartState snapshot() {
+            touchedAt = System.currentTimeMillis();
+            return copy(state);
+        }
+
+        /** @return {@code false} if the entry was evicted and the caller must install a new one */
+        synchronized boolean update(CartState next) {
+            if (retired) {
+                return false;
+            }
+            state = copy(next);
+            version++;
+            touchedAt = System.currentTimeMillis();
+            return true;
+        }
+
+        synchronized Pending pending() {
+            return version == flushedVersion ? null : new Pending(copy(state), version);
+        }
+
+        synchronized void flushed(long writtenVersion) {
+            flushedVersion = Math.max(flushedVersion, writtenVersion);
+        }
+
+        /** Retire the entry if it has nothing unwritten and was last used before {@code cutoff}. */
+        synchronized boolean retireIfIdle(long cutoff) {
+            if (version == flushedVersion && touchedAt < cutoff) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        synchronized void retire() {
+            retired = true;
+        }
+
+        synchronized boolean isRetired() {
+            return retired;
+        }
+
+        /**
+         * Move the held cart onto the stored cart {@code cartId}. Stored lines keep their ids; where
+         * both have a line for the same product the held quantity and price win.
+         *
+         * @return the merged state to write, as a new version
+         */
+        synchronized Pending adopt(UUID cartId, List<StoredCartLine> stored) {
+            Map<UUID, CartLine> held = new LinkedHashMap<>();
+            for (CartLine line : state.lines()) {
+                held.put(line.item().getProductId(), line);
+            }
+            List<CartLine> merged = new ArrayList<>(stored.size() + held.size());
+            for (StoredCartLine line : stored) {
+                CartLine mine = held.remove(line.productId());
+                CartItem item = CartItem.builder()
+                        .cartId(cartId)
+                        .productId(line.productId())
+                        .quantity(mine != null ? mine.item().getQuantity() : line.quantity())
+                        .unitPrice(mine != null ? mine.item().getUnitPrice() : line.unitPrice())
+                        .lineTotal(mine != null ? mine.item().getLineTotal() : line.lineTotal())
+                        .build();
+                item.setId(line.id());
+                item.setCreatedAt(line.createdAt());
+                merged.add(new CartLine(item, mine != null ? mine.productName() : line.productName()));
+            }
+            for (CartLine line : held.values()) {
+                CartItem item = copy(line.item());
+                item.setCartId(cartId);
+                merged.add(new CartLine(item, line.productName()));
+            }
+
+            Cart cart = copy(state.cart());
+            BigDecimal adjustments = cart.getTotal().subtract(cart.getSubtotal());
+            BigDecimal subtotal = merged.stream()
+                    .map(line -> line.item().getLineTotal())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            cart.setId(cartId);
+            cart.setSubtotal(subtotal);
+            cart.setTotal(subtotal.add(adjustments));
+
+            state = new CartState(cart, merged);
+            version++;
+            return new Pending(copy(state), version);
+        }
+    }
+}
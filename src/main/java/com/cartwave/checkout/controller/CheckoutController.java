@@ -4,12 +4,17 @@ import com.cartwave.checkout.dto.CheckoutRequest;
 import com.cartwave.checkout.dto.CheckoutResponse;
 import com.cartwave.checkout.service.CheckoutService;
 import com.cartwave.common.dto.ApiResponse;
+import com.cartwave.idempotency.entity.IdempotencyScope;
+import com.cartwave.idempotency.service.IdempotencyService;
+import com.cartwave.security.service.CurrentUserService;
+import com.cartwave.tenant.TenantContext;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,9 +25,16 @@ import org.springframework.web.bind.annotation.RestController;
 public class CheckoutController {
 
     private final CheckoutService checkoutService;
+    private final IdempotencyService idempotencyService;
+    private final CurrentUserService currentUserService;
 
     @PostMapping
-    public ResponseEntity<ApiResponse<CheckoutResponse>> checkout(@Valid @RequestBody CheckoutRequest request) {
-        return ResponseEntity.ok(ApiResponse.success("Checkout completed successfully", checkoutService.checkout(request)));
+    public ResponseEntity<ApiResponse<CheckoutResponse>> checkout(
+            @Valid @RequestBody CheckoutRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        String owner = TenantContext.getTenantId() + ":" + currentUserService.requireCurrentUserId();
+        CheckoutResponse response = idempotencyService.execute(IdempotencyScope.CHECKOUT, owner, idempotencyKey,
+                request, CheckoutResponse.class, () -> checkoutService.checkout(request));
+        return ResponseEntity.ok(ApiResponse.success("Checkout completed successfully", response));
     }
 }
@@ -14,4 +14,5 @@ public class CheckoutRequest {
     private String notes;
     private String paymentMethod;
     private String paymentProvider;
+    private String couponCode;
 }
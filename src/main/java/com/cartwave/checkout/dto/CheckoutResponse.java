@@ -1,13 +1,17 @@
 package com.cartwave.checkout.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class CheckoutResponse {
 
     private UUID orderId;
@@ -15,6 +19,8 @@ public class CheckoutResponse {
     private UUID billingTransactionId;
     private String transactionId;
     private BigDecimal totalAmount;
+    private BigDecimal discountAmount;
+    private String couponCode;
     private String orderStatus;
     private String paymentStatus;
 }
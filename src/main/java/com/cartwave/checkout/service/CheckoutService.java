@@ -8,17 +8,22 @@ import com.cartwave.cart.entity.CartItem;
 import com.cartwave.cart.service.CartService;
 import com.cartwave.checkout.dto.CheckoutRequest;
 import com.cartwave.checkout.dto.CheckoutResponse;
+import com.cartwave.common.id.SnowflakeIdGenerator;
 import com.cartwave.customer.entity.Customer;
 import com.cartwave.customer.service.CustomerService;
 import com.cartwave.exception.BusinessException;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.marketing.service.CouponCache.CachedCoupon;
+import com.cartwave.marketing.service.CouponService;
 import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderEventType;
 import com.cartwave.order.entity.OrderStatus;
 import com.cartwave.order.entity.PaymentStatus;
 import com.cartwave.order.entity.OrderItem;
 import com.cartwave.order.repository.OrderRepository;
 import com.cartwave.order.repository.OrderItemRepository;
+import com.cartwave.order.service.OrderEventRecorder;
 import com.cartwave.product.entity.Product;
-import com.cartwave.product.entity.ProductStatus;
 import com.cartwave.product.repository.ProductRepository;
 import com.cartwave.tenant.TenantContext;
 import lombok.RequiredArgsConstructor;
@@ -26,10 +31,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -42,9 +51,14 @@ public class CheckoutService {
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final BillingTransactionRepository billingTransactionRepository;
+    private final InventoryReservationService reservationService;
+    private final SnowflakeIdGenerator idGenerator;
+    private final CouponService couponService;
+    private final OrderEventRecorder eventRecorder;
 
     public CheckoutResponse checkout(CheckoutRequest request) {
         Customer customer = customerService.requireCurrentCustomer();
+        cartService.flush(customer);
         Cart cart = cartService.getOrCreateActiveCart();
         List<CartItem> items = cartService.getActiveItems(cart);
         if (items.isEmpty()) {
@@ -52,16 +66,27 @@ public class CheckoutService {
         }
 
         UUID storeId = TenantContext.getTenantId();
+        Map<UUID, Product> products = productRepository.findAllByIdInAndStoreId(
+                        items.stream().map(CartItem::getProductId).toList(), storeId).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
         BigDecimal total = BigDecimal.ZERO;
+        Map<UUID, Long> quantities = new HashMap<>();
         for (CartItem item : items) {
-            Product product = productRepository.findByIdAndStoreId(item.getProductId(), storeId)
-                    .orElseThrow(() -> new BusinessException("PRODUCT_NOT_FOUND", "A cart item no longer exists."));
-            if (product.getStock() == null || product.getStock() < item.getQuantity()) {
-                throw new BusinessException("INSUFFICIENT_STOCK", "Insufficient stock for product " + product.getName());
+            if (!products.containsKey(item.getProductId())) {
+                throw new BusinessException("PRODUCT_NOT_FOUND", "A cart item no longer exists.");
             }
+            quantities.merge(item.getProductId(), item.getQuantity().longValue(), Long::sum);
             total = total.add(item.getLineTotal());
         }
 
+        CachedCoupon coupon = null;
+        BigDecimal discount = BigDecimal.ZERO;
+        if (request.getCouponCode() != null && !request.getCouponCode().isBlank()) {
+            coupon = couponService.requireApplicable(storeId, request.getCouponCode(), total);
+            discount = couponService.discountFor(coupon, total);
+            total = total.subtract(discount).max(BigDecimal.ZERO);
+        }
+
         Order order = Order.builder()
                 .storeId(storeId)
                 .customerId(customer.getId())
@@ -69,7 +94,9 @@ public class CheckoutService {
                 .totalAmount(total)
                 .shippingCost(BigDecimal.ZERO)
                 .taxAmount(BigDecimal.ZERO)
-                .discountAmount(BigDecimal.ZERO)
+                .discountAmount(discount)
+                .couponCode(coupon == null ? null : coupon.code())
+                .couponId(coupon == null ? null : coupon.id())
                 .status(OrderStatus.PENDING)
                 .paymentStatus(PaymentStatus.PENDING)
                 .deliveryAddress(request.getDeliveryAddress())
@@ -78,26 +105,30 @@ public class CheckoutService {
                 .notes(request.getNotes())
                 .build();
         Order savedOrder = orderRepository.save(order);
+        eventRecorder.record(storeId, savedOrder.getId(), OrderEventType.PLACED, null, savedOrder.getStatus());
 
-        for (CartItem item : items) {
-            Product product = productRepository.findByIdAndStoreId(item.getProductId(), storeId)
-                    .orElseThrow(() -> new BusinessException("PRODUCT_NOT_FOUND", "A cart item no longer exists."));
-            product.setStock(product.getStock() - item.getQuantity());
-            if (product.getStock() <= 0) {
-                product.setStatus(ProductStatus.OUT_OF_STOCK);
-            }
-            productRepository.save(product);
-
-            OrderItem orderItem = OrderItem.builder()
-                    .orderId(savedOrder.getId())
-                    .productId(product.getId())
-                    .quantity(item.getQuantity())
-                    .unitPrice(item.getUnitPrice())
-                    .lineTotal(item.getLineTotal())
-                    .build();
-            orderItemRepository.save(orderItem);
+        // The conditional hold is the stock check: concurrent checkouts cannot both take the last unit.
+        Set<UUID> hotProductIds = products.values().stream()
+                .filter(product -> Boolean.TRUE.equals(product.getHotSku()))
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        List<UUID> shortLines = reservationService.reserve(storeId, savedOrder.getId(), quantities, hotProductIds);
+        if (!shortLines.isEmpty()) {
+            throw new BusinessException("INSUFFICIENT_STOCK", "Insufficient stock for product " + shortLines.stream()
+                    .map(id -> products.get(id).getName())
+                    .collect(Collectors.joining(", ")));
         }
 
+        orderItemRepository.saveAll(items.stream()
+                .map(item -> OrderItem.builder()
+                        .orderId(savedOrder.getId())
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .lineTotal(item.getLineTotal())
+                        .build())
+                .toList());
+
         BillingTransaction transaction = BillingTransaction.builder()
                 .storeId(storeId)
                 .orderId(savedOrder.getId())
@@ -113,22 +144,29 @@ public class CheckoutService {
 
         cartService.markCheckedOut(cart);
 
+        // Last write of the checkout: the conditional increment locks the coupon row until commit
+        if (coupon != null) {
+            couponService.redeem(coupon);
+        }
+
         return CheckoutResponse.builder()
                 .orderId(savedOrder.getId())
                 .orderNumber(savedOrder.getOrderNumber())
                 .billingTransactionId(savedTransaction.getId())
                 .transactionId(savedTransaction.getTransactionId())
                 .totalAmount(savedOrder.getTotalAmount())
+                .discountAmount(savedOrder.getDiscountAmount())
+                .couponCode(savedOrder.getCouponCode())
                 .orderStatus(savedOrder.getStatus().name())
                 .paymentStatus(savedOrder.getPaymentStatus().name())
                 .build();
     }
 
     private String generateOrderNumber() {
-        return "CW-" + Instant.now().toEpochMilli() + "-" + UUID.randomUUID().toString().substring(0, 6).toUpperCase(Locale.ROOT);
+        return "CW-" + idGenerator.nextCode();
     }
 
     private String generateTransactionId() {
-        return "txn_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        return "txn_" + idGenerator.nextCode().toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,25 @@
+package com.cartwave.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. Pass {@code nextCursor} back as {@code cursor}
+ * to fetch the following slice; it is {@code null} on the last one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;
+    private Boolean hasMore;
+
+}
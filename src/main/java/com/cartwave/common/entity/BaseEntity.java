@@ -1,5 +1,6 @@
 package com.cartwave.common.entity;
 
+import com.cartwave.common.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,7 +20,7 @@ import java.util.UUID;
 public abstract class BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(nullable = false, updatable = false)
     protected UUID id;
 
@@ -0,0 +1,36 @@
+package com.cartwave.common.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A Snowflake node id held by one running instance. {@code lastMillis} (milliseconds since the
+ * generator's epoch) is recorded on every heartbeat and on shutdown, so whoever holds the node
+ * id next never issues ids at or below it, whatever its clock says.
+ */
+@Entity
+@Table(name = "id_node_leases", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_id_node_leases_node", columnNames = "node_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class IdNodeLease extends BaseEntity {
+
+    @Column(nullable = false)
+    private Integer nodeId;
+
+    @Column(nullable = false, length = 128)
+    private String holder;
+
+    @Column(nullable = false)
+    private Instant heartbeatAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long lastMillis = 0L;
+}
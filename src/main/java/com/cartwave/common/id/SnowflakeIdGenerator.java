@@ -0,0 +1,248 @@
+package com.cartwave.common.id;
+
+import com.cartwave.common.entity.IdNodeLease;
+import com.cartwave.common.repository.IdNodeLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Snowflake-style numbers for order numbers and payment transaction ids: 41 bits of
+ * milliseconds since 2025-01-01, a 10-bit node id and a 12-bit sequence, about 4M ids per
+ * second per node for 69 years. Distinct node ids keep nodes from ever colliding without a
+ * database round trip per id.
+ * <p>
+ * Node ids are leased from {@code id_node_leases}: an instance takes a free or expired node id at
+ * startup, or the one set in {@code CARTWAVE_NODE_ID} (0-1023), and heartbeats it through
+ * {@code IdNodeHeartbeatJob}. The lease records the newest millisecond issued, and a generator
+ * starts past it, so ids keep growing across a restart whose clock stepped back.
+ * <p>
+ * Ids are encoded as 13 Crockford base32 characters (no I, L, O or U), fixed width so that
+ * string order matches creation order.
+ */
+@Slf4j
+@Component
+public class SnowflakeIdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int CODE_LENGTH = 13;
+    private static final int LEASE_ATTEMPTS = 3;
+
+    private final Integer configuredNodeId;
+    private final IdNodeLeaseRepository leaseRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final String holder;
+    private final long leaseTimeoutMs;
+    private final long heartbeatMs;
+
+    private volatile long nodeId;
+    /** Milliseconds since the epoch and sequence, packed like the id itself; only ever grows. */
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${cartwave.ids.node-id:}") String configuredNodeId,
+                                @Value("${cartwave.ids.lease-timeout-ms:60000}") long leaseTimeoutMs,
+                                @Value("${cartwave.jobs.id-node-heartbeat-ms:10000}") long heartbeatMs,
+                                IdNodeLeaseRepository leaseRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.configuredNodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                ? null : (int) checkNodeId(Long.parseLong(configuredNodeId.trim()));
+        this.leaseRepository = leaseRepository;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holder = hostName() + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        adopt(acquire());
+    }
+
+    /** A generator for a fixed node id that leases and records nothing, for tools and tests. */
+    public SnowflakeIdGenerator(long nodeId) {
+        this.nodeId = checkNodeId(nodeId);
+        this.configuredNodeId = (int) nodeId;
+        this.leaseRepository = null;
+        this.leaseTransaction = null;
+        this.holder = null;
+        this.leaseTimeoutMs = 0;
+        this.heartbeatMs = 0;
+    }
+
+    /**
+     * Next id for this node, strictly greater than the previous one. A sequence overflow or a
+     * clock step back borrows the next millisecond instead of waiting or repeating.
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long stamp = last.accumulateAndGet(now, (previous, candidate) -> Math.max(previous + 1, candidate));
+        long millis = stamp >>> SEQUENCE_BITS;
+        long sequence = stamp & ((1L << SEQUENCE_BITS) - 1);
+        return millis << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | sequence;
+    }
+
+    /** {@link #nextId()} as 13 sortable base32 characters. */
+    public String nextCode() {
+        return encode(nextId());
+    }
+
+    /** The node id this generator currently issues ids under. */
+    public long nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Renew this node's lease and record the newest millisecond issued. A lease lost while this
+     * node was stalled past the timeout is replaced by a fresh one before more ids go out under it.
+     */
+    public void heartbeat() {
+        if (leaseRepository == null) {
+            return;
+        }
+        int leased = (int) nodeId;
+        Integer renewed = leaseTransaction.execute(status ->
+                leaseRepository.heartbeat(leased, holder, lastMillis(), Instant.now()));
+        if (renewed == null || renewed == 0) {
+            log.error("Lost the lease on id node {}; leasing another", leased);
+            adopt(acquire());
+        }
+    }
+
+    /** Hand the lease back with the newest millisecond issued, so the next holder starts after it. */
+    @PreDestroy
+    public void release() {
+        if (leaseRepository == null) {
+            return;
+        }
+        int leased = (int) nodeId;
+        leaseTransaction.executeWithoutResult(status ->
+                leaseRepository.release(leased, holder, lastMillis(), Instant.EPOCH, Instant.now()));
+    }
+
+    static String encode(long id) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(code);
+    }
+
+    // ── leases ────────────────────────────────────────────────────────────────
+
+    private IdNodeLease acquire() {
+        return configuredNodeId != null ? claim(configuredNodeId) : leaseFree();
+    }
+
+    /**
+     * Start issuing under {@code lease}. Ids issued after its last heartbeat were not recorded, so
+     * start a further two heartbeat intervals on.
+     */
+    private void adopt(IdNodeLease lease) {
+        long floor = lease.getLastMillis() + 2 * heartbeatMs;
+        last.accumulateAndGet(floor << SEQUENCE_BITS, Math::max);
+        nodeId = lease.getNodeId();
+        log.info("Issuing ids as node {} (lease holder {})", nodeId, holder);
+    }
+
+    /** Take the configured node id, even from a live holder: configuration is the operator's word. */
+    private IdNodeLease claim(int configured) {
+        try {
+            return leaseTransaction.execute(status -> {
+                Instant now = Instant.now();
+                IdNodeLease lease = leaseRepository.lockByNodeId(configured).orElse(null);
+                if (lease == null) {
+                    return leaseRepository.saveAndFlush(newLease(configured, now));
+                }
+                if (lease.getHeartbeatAt().isAfter(now.minusMillis(leaseTimeoutMs))) {
+                    log.warn("Id node {} is still leased by {}; taking it over as configured. Two running instances "
+                            + "must never share a node id.", configured, lease.getHolder());
+                }
+                lease.setHolder(holder);
+                lease.setHeartbeatAt(now);
+                return leaseRepository.save(lease);
+            });
+        } catch (DataIntegrityViolationException raced) {
+            // Another instance configured with the same id created the row first
+            return claim(configured);
+        }
+    }
+
+    /** Lease the lowest expired node id, or else the lowest never used; fail startup when all are held. */
+    private IdNodeLease leaseFree() {
+        for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+            Instant now = Instant.now();
+            Instant cutoff = now.minusMillis(leaseTimeoutMs);
+            List<IdNodeLease> leases = leaseRepository.findAllByOrderByNodeIdAsc();
+            for (IdNodeLease lease : leases) {
+                if (lease.getHeartbeatAt().isBefore(cutoff)
+                        && Integer.valueOf(1).equals(leaseTransaction.execute(status ->
+                        leaseRepository.takeOver(lease.getNodeId(), holder, cutoff, now)))) {
+                    return lease;
+                }
+            }
+            Set<Integer> used = leases.stream().map(IdNodeLease::getNodeId).collect(Collectors.toSet());
+            int free = 0;
+            while (free <= MAX_NODE_ID && used.contains(free)) {
+                free++;
+            }
+            if (free > MAX_NODE_ID) {
+                throw new IllegalStateException("All " + (MAX_NODE_ID + 1) + " id nodes are leased by live instances");
+            }
+            int candidate = free;
+            try {
+                return leaseTransaction.execute(status -> leaseRepository.saveAndFlush(newLease(candidate, now)));
+            } catch (DataIntegrityViolationException raced) {
+                // Another instance starting at the same time took it; look again
+            }
+        }
+        throw new IllegalStateException("Could not lease an id node after " + LEASE_ATTEMPTS + " attempts");
+    }
+
+    private IdNodeLease newLease(int node, Instant now) {
+        return IdNodeLease.builder()
+                .nodeId(node)
+                .holder(holder)
+                .heartbeatAt(now)
+                .build();
+    }
+
+    private long lastMillis() {
+        return last.get() >>> SEQUENCE_BITS;
+    }
+
+    private static long checkNodeId(long id) {
+        if (id < 0 || id > MAX_NODE_ID) {
+            throw new IllegalArgumentException("cartwave.ids.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        return id;
+    }
+
+    private static String hostName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host.length() <= 96 ? host : host.substring(0, 96);
+    }
+}
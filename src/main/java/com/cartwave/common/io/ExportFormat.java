@@ -0,0 +1,38 @@
+package com.cartwave.common.io;
+
+import com.cartwave.exception.BusinessException;
+
+import java.util.Locale;
+
+/** Download formats for streaming exports. */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    JSONL("application/x-ndjson", "jsonl");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("EXPORT_FORMAT_UNSUPPORTED", "Export format must be csv or jsonl.");
+        }
+    }
+}
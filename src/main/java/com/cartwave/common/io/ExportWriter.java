@@ -0,0 +1,56 @@
+package com.cartwave.common.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes export rows straight to a response stream, one row at a time, as CSV (with a header)
+ * or JSON Lines. Nothing is accumulated beyond the writer's buffer.
+ */
+public final class ExportWriter implements Flushable {
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final CsvWriter csv;
+    private final ObjectMapper objectMapper;
+
+    private ExportWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.csv = new CsvWriter(writer);
+        this.objectMapper = objectMapper;
+    }
+
+    public static ExportWriter open(ExportFormat format, OutputStream out, List<String> csvHeader,
+                                    ObjectMapper objectMapper) throws IOException {
+        ExportWriter exportWriter = new ExportWriter(format, out, objectMapper);
+        if (format == ExportFormat.CSV) {
+            exportWriter.csv.writeRow(csvHeader);
+        }
+        return exportWriter;
+    }
+
+    /** Write {@code row} as a JSON line, or as the CSV fields produced by {@code csvFields}. */
+    public <T> void write(T row, Function<T, List<?>> csvFields) throws IOException {
+        if (format == ExportFormat.CSV) {
+            csv.writeRow(csvFields.apply(row));
+        } else {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+}
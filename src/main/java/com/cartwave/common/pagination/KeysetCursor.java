@@ -0,0 +1,96 @@
+package com.cartwave.common.pagination;
+
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.entity.BaseEntity;
+import com.cartwave.exception.BusinessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Position in a listing ordered by {@code createdAt DESC, id DESC}.
+ * <p>
+ * Repositories resume strictly after this position
+ * ({@code createdAt < :createdAt OR (createdAt = :createdAt AND id < :id)}), so every slice is
+ * an index range scan of {@code size + 1} rows and no COUNT query is issued. Clients only ever
+ * see the opaque URL-safe token produced by {@link #encode()}.
+ */
+public record KeysetCursor(Instant createdAt, UUID id) {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public String encode() {
+        // databases keep microseconds; a nanosecond cursor from a just-persisted entity would re-include that row
+        Instant position = createdAt.truncatedTo(ChronoUnit.MICROS);
+        String raw = position.getEpochSecond() + ":" + position.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @return the decoded cursor, or {@code null} when no cursor was supplied (first page) */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("expected 3 parts");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new KeysetCursor(createdAt, UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BusinessException("INVALID_CURSOR", "Pagination cursor is malformed.");
+        }
+    }
+
+    public static int clampSize(int size) {
+        return size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /** Row limit for a slice: one extra row tells us whether another slice follows. */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    /** Trim the look-ahead row from {@code rows} (fetched with {@link #limit(int)}) and build the page. */
+    public static <E extends BaseEntity, T> CursorPage<T> page(List<E> rows, int size, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> slice = hasMore ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasMore) {
+            E last = slice.get(slice.size() - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPage.<T>builder()
+                .content(slice.stream().map(mapper).toList())
+                .size(slice.size())
+                .nextCursor(next)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Same as {@link #page} for rows that are not entities, such as DTO projections;
+     * {@code position} reads a row's {@code createdAt} and {@code id}.
+     */
+    public static <T> CursorPage<T> pageOf(List<T> rows, int size, Function<T, KeysetCursor> position) {
+        boolean hasMore = rows.size() > size;
+        List<T> slice = hasMore ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(List.copyOf(slice))
+                .size(slice.size())
+                .nextCursor(hasMore ? position.apply(slice.get(slice.size() - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.cartwave.common.repository;
+
+import com.cartwave.common.entity.IdNodeLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IdNodeLeaseRepository extends JpaRepository<IdNodeLease, UUID> {
+
+    List<IdNodeLease> findAllByOrderByNodeIdAsc();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM IdNodeLease l WHERE l.nodeId = :nodeId")
+    Optional<IdNodeLease> lockByNodeId(@Param("nodeId") int nodeId);
+
+    /** Take over a lease whose holder stopped heartbeating before {@code cutoff}; 0 if someone else got it first. */
+    @Modifying
+    @Query("""
+            UPDATE IdNodeLease l SET l.holder = :holder, l.heartbeatAt = :now, l.updatedAt = :now
+            WHERE l.nodeId = :nodeId AND l.heartbeatAt < :cutoff
+            """)
+    int takeOver(@Param("nodeId") int nodeId, @Param("holder") String holder,
+                 @Param("cutoff") Instant cutoff, @Param("now") Instant now);
+
+    /** Renew the lease and record the newest millisecond issued; 0 if {@code holder} lost it. */
+    @Modifying
+    @Query("""
+            UPDATE IdNodeLease l SET l.heartbeatAt = :now, l.lastMillis = GREATEST(l.lastMillis, :lastMillis), l.updatedAt = :now
+            WHERE l.nodeId = :nodeId AND l.holder = :holder
+            """)
+    int heartbeat(@Param("nodeId") int nodeId, @Param("holder") String holder,
+                  @Param("lastMillis") long lastMillis, @Param("now") Instant now);
+
+    /** Hand the lease back on shutdown: it is free to take at once, with {@code lastMillis} recorded. */
+    @Modifying
+    @Query("""
+            UPDATE IdNodeLease l SET l.heartbeatAt = :released, l.lastMillis = GREATEST(l.lastMillis, :lastMillis), l.updatedAt = :now
+            WHERE l.nodeId = :nodeId AND l.holder = :holder
+            """)
+    int release(@Param("nodeId") int nodeId, @Param("holder") String holder, @Param("lastMillis") long lastMillis,
+                @Param("released") Instant released, @Param("now") Instant now);
+}
@@ -48,13 +48,7 @@ public class EmailQueueService {
 
     @Transactional
     public EmailQueueResponse enqueue(EmailEnqueueRequest request) {
-        EmailQueue queue = new EmailQueue();
-        queue.setRecipient(request.getRecipient());
-        queue.setSubject(request.getSubject());
-        queue.setTemplateName(request.getTemplateName());
-        queue.setPayloadJson(request.getPayloadJson());
-        queue.setStatus(EmailStatus.PENDING);
-        EmailQueue saved = emailQueueRepository.save(queue);
+        EmailQueue saved = emailQueueRepository.save(toQueue(request));
         return EmailQueueResponse.builder()
                 .id(saved.getId())
                 .recipient(saved.getRecipient())
@@ -65,6 +59,24 @@ public class EmailQueueService {
                 .build();
     }
 
+    /** Queue several emails as one batched insert, in the caller's transaction. */
+    @Transactional
+    public void enqueueAll(List<EmailEnqueueRequest> requests) {
+        if (!requests.isEmpty()) {
+            emailQueueRepository.saveAll(requests.stream().map(this::toQueue).toList());
+        }
+    }
+
+    private EmailQueue toQueue(EmailEnqueueRequest request) {
+        EmailQueue queue = new EmailQueue();
+        queue.setRecipient(request.getRecipient());
+        queue.setSubject(request.getSubject());
+        queue.setTemplateName(request.getTemplateName());
+        queue.setPayloadJson(request.getPayloadJson());
+        queue.setStatus(EmailStatus.PENDING);
+        return queue;
+    }
+
     @Transactional
     public void dispatchPendingEmails() {
         List<EmailQueue> pending = emailQueueRepository.findByStatusOrderByCreatedAtAsc(
@@ -125,12 +137,7 @@ public class EmailQueueService {
 
     public void enqueueEscrowReleased(UUID storeId, UUID escrowId, BigDecimal sellerAmount) {
         try {
-            EmailEnqueueRequest req = new EmailEnqueueRequest();
-            req.setSubject("Escrow Payment Released");
-            req.setTemplateName("escrow_released");
-            req.setPayloadJson(String.format("{\"storeId\":\"%s\",\"escrowId\":\"%s\",\"sellerAmount\":\"%s\"}", storeId, escrowId, sellerAmount));
-            req.setRecipient("noreply@cartwave.store");
-            enqueue(req);
+            enqueue(escrowReleasedEmail(storeId, escrowId, sellerAmount));
         } catch (Exception e) {
             log.warn("enqueueEscrowReleased failed: {}", e.getMessage());
         }
@@ -177,12 +184,7 @@ public class EmailQueueService {
 
     public void enqueueOrderShipped(String recipient, UUID orderId) {
         try {
-            EmailEnqueueRequest req = new EmailEnqueueRequest();
-            req.setRecipient(recipient);
-            req.setSubject("Your Order Has Shipped 🚚");
-            req.setTemplateName("order_shipped");
-            req.setPayloadJson(String.format("{\"orderId\":\"%s\"}", orderId));
-            enqueue(req);
+            enqueue(orderShippedEmail(recipient, orderId));
         } catch (Exception e) {
             log.warn("enqueueOrderShipped failed: {}", e.getMessage());
         }
@@ -190,12 +192,7 @@ public class EmailQueueService {
 
     public void enqueueOrderDelivered(String recipient, UUID orderId) {
         try {
-            EmailEnqueueRequest req = new EmailEnqueueRequest();
-            req.setRecipient(recipient);
-            req.setSubject("Order Delivered ✅");
-            req.setTemplateName("order_delivered");
-            req.setPayloadJson(String.format("{\"orderId\":\"%s\"}", orderId));
-            enqueue(req);
+            enqueue(orderDeliveredEmail(recipient, orderId));
         } catch (Exception e) {
             log.warn("enqueueOrderDelivered failed: {}", e.getMessage());
         }
@@ -239,4 +236,33 @@ public class EmailQueueService {
             log.warn("enqueueSubscriptionExpiring failed: {}", e.getMessage());
         }
     }
+
+    // ── Typed requests, for enqueueAll ────────────────────────────────────────
+
+    public EmailEnqueueRequest escrowReleasedEmail(UUID storeId, UUID escrowId, BigDecimal sellerAmount) {
+        EmailEnqueueRequest req = new EmailEnqueueRequest();
+        req.setSubject("Escrow Payment Released");
+        req.setTemplateName("escrow_released");
+        req.setPayloadJson(String.format("{\"storeId\":\"%s\",\"escrowId\":\"%s\",\"sellerAmount\":\"%s\"}", storeId, escrowId, sellerAmount));
+        req.setRecipient("noreply@cartwave.store");
+        return req;
+    }
+
+    public EmailEnqueueRequest orderShippedEmail(String recipient, UUID orderId) {
+        EmailEnqueueRequest req = new EmailEnqueueRequest();
+        req.setRecipient(recipient);
+        req.setSubject("Your Order Has Shipped 🚚");
+        req.setTemplateName("order_shipped");
+        req.setPayloadJson(String.format("{\"orderId\":\"%s\"}", orderId));
+        return req;
+    }
+
+    public EmailEnqueueRequest orderDeliveredEmail(String recipient, UUID orderId) {
+        EmailEnqueueRequest req = new EmailEnqueueRequest();
+        req.setRecipient(recipient);
+        req.setSubject("Order Delivered ✅");
+        req.setTemplateName("order_delivered");
+        req.setPayloadJson(String.format("{\"orderId\":\"%s\"}", orderId));
+        return req;
+    }
 }
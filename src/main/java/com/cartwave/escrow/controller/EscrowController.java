@@ -1,6 +1,7 @@
 package com.cartwave.escrow.controller;
 
 import com.cartwave.common.dto.ApiResponse;
+import com.cartwave.common.dto.CursorPage;
 import com.cartwave.escrow.dto.DisputeResolveRequest;
 import com.cartwave.escrow.dto.EscrowDisputeDTO;
 import com.cartwave.escrow.dto.EscrowDisputeRequest;
@@ -19,6 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -46,6 +48,21 @@ public class EscrowController {
         return ResponseEntity.ok(ApiResponse.success("Escrow transactions fetched", result));
     }
 
+    /**
+     * Cursor-paginated escrow transactions for a store, newest first.
+     * Pass the returned {@code nextCursor} as {@code cursor} to fetch the next slice.
+     */
+    @GetMapping("/store/{storeId}/page")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER','ADMIN','SUPER_ADMIN')")
+    @Operation(summary = "Get escrow transactions for store (cursor paginated)")
+    public ResponseEntity<ApiResponse<CursorPage<EscrowTransactionDTO>>> getStoreEscrowPage(
+            @PathVariable UUID storeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<EscrowTransactionDTO> result = escrowService.getStoreEscrowPage(storeId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Escrow transactions fetched", result));
+    }
+
     /**
      * Manually release an escrow hold. Admin only.
      */
@@ -21,7 +21,8 @@ import java.util.UUID;
         @Index(name = "idx_escrow_order_id", columnList = "order_id"),
         @Index(name = "idx_escrow_status", columnList = "status"),
         @Index(name = "idx_escrow_store_id", columnList = "store_id"),
-        @Index(name = "idx_escrow_deleted", columnList = "deleted")
+        @Index(name = "idx_escrow_deleted", columnList = "deleted"),
+        @Index(name = "idx_escrow_store_created", columnList = "store_id, created_at DESC, id DESC")
 })
 @Data
 @Builder
@@ -2,11 +2,15 @@ package com.cartwave.escrow.repository;
 
 import com.cartwave.escrow.entity.EscrowStatus;
 import com.cartwave.escrow.entity.EscrowTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,6 +21,20 @@ public interface EscrowTransactionRepository extends JpaRepository<EscrowTransac
     @Query("SELECT e FROM EscrowTransaction e WHERE e.orderId = :orderId AND e.deleted = false")
     Optional<EscrowTransaction> findByOrderId(@Param("orderId") UUID orderId);
 
+    @Query("SELECT e FROM EscrowTransaction e WHERE e.orderId IN :orderIds AND e.deleted = false")
+    List<EscrowTransaction> findByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT e FROM EscrowTransaction e WHERE e.orderId IN :orderIds AND e.status = :status AND e.deleted = false")
+    List<EscrowTransaction> findByOrderIdInAndStatus(@Param("orderIds") Collection<UUID> orderIds,
+                                                     @Param("status") EscrowStatus status);
+
+    @Modifying
+    @Query("UPDATE EscrowTransaction e SET e.status = :status, e.releasedAt = :releasedAt, e.updatedAt = :now WHERE e.id IN :ids")
+    int markReleased(@Param("ids") Collection<UUID> ids,
+                     @Param("status") EscrowStatus status,
+                     @Param("releasedAt") long releasedAt,
+                     @Param("now") Instant now);
+
     @Query("SELECT e FROM EscrowTransaction e WHERE e.status = :status AND e.releaseAt IS NOT NULL AND e.releaseAt <= :now AND e.deleted = false")
     List<EscrowTransaction> findReleasable(@Param("status") EscrowStatus status, @Param("now") long now);
 
@@ -29,4 +47,20 @@ public interface EscrowTransactionRepository extends JpaRepository<EscrowTransac
 
     @Query("SELECT e FROM EscrowTransaction e WHERE e.status = :status AND e.deleted = false")
     List<EscrowTransaction> findAllByStatus(@Param("status") EscrowStatus status);
+
+    // ── Keyset pagination (createdAt DESC, id DESC) ─────────────────────────
+
+    @Query("SELECT e FROM EscrowTransaction e WHERE e.storeId = :storeId AND e.deleted = false ORDER BY e.createdAt DESC, e.id DESC")
+    List<EscrowTransaction> findPageByStoreId(@Param("storeId") UUID storeId, Pageable limit);
+
+    @Query("""
+        SELECT e FROM EscrowTransaction e
+        WHERE e.storeId = :storeId AND e.deleted = false
+          AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id))
+        ORDER BY e.createdAt DESC, e.id DESC
+    """)
+    List<EscrowTransaction> findPageByStoreIdAfter(@Param("storeId") UUID storeId,
+                                                   @Param("createdAt") Instant createdAt,
+                                                   @Param("id") UUID id,
+                                                   Pageable limit);
 }
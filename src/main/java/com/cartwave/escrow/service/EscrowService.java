@@ -1,5 +1,7 @@
 package com.cartwave.escrow.service;
 
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.pagination.KeysetCursor;
 import com.cartwave.email.service.EmailQueueService;
 import com.cartwave.escrow.dto.DisputeResolveRequest;
 import com.cartwave.escrow.dto.EscrowDisputeDTO;
@@ -13,6 +15,8 @@ import com.cartwave.escrow.repository.EscrowDisputeRepository;
 import com.cartwave.escrow.repository.EscrowTransactionRepository;
 import com.cartwave.exception.BusinessException;
 import com.cartwave.exception.ResourceNotFoundException;
+import com.cartwave.order.entity.OrderEventType;
+import com.cartwave.order.service.OrderEventRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,6 +40,7 @@ public class EscrowService {
     private final EscrowTransactionRepository escrowTransactionRepository;
     private final EscrowDisputeRepository escrowDisputeRepository;
     private final EmailQueueService emailQueueService;
+    private final OrderEventRecorder eventRecorder;
 
     public EscrowTransaction createOrUpdateHold(UUID storeId, UUID orderId, BigDecimal amount, Long releaseAt, String reference) {
         EscrowTransaction tx = escrowTransactionRepository.findByOrderId(orderId).orElseGet(() -> EscrowTransaction.builder()
@@ -42,6 +48,7 @@ public class EscrowService {
                 .orderId(orderId)
                 .build());
         tx.setHoldAmount(amount);
+        eventRecorder.record(storeId, orderId, OrderEventType.ESCROW, tx.getStatus(), EscrowStatus.HELD, reference);
         tx.setStatus(EscrowStatus.HELD);
         tx.setReleaseAt(releaseAt);
         tx.setTransactionRef(reference);
@@ -53,6 +60,7 @@ public class EscrowService {
     public EscrowTransaction markReleased(UUID orderId) {
         EscrowTransaction tx = escrowTransactionRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new BusinessException("ESCROW_NOT_FOUND", "No escrow record for order."));
+        eventRecorder.record(tx.getStoreId(), orderId, OrderEventType.ESCROW, tx.getStatus(), EscrowStatus.RELEASED);
         tx.setStatus(EscrowStatus.RELEASED);
         tx.setReleasedAt(Instant.now().toEpochMilli());
         EscrowTransaction saved = escrowTransactionRepository.save(tx);
@@ -60,6 +68,31 @@ public class EscrowService {
         return saved;
     }
 
+    /**
+     * Bulk form of {@link #markReleased}: releases the held escrows of {@code orderIds} with one
+     * update and queues their notifications as one batch. Disputed or already released escrows
+     * are left alone.
+     *
+     * @return the number of escrows released
+     */
+    public int markReleasedForOrders(Collection<UUID> orderIds) {
+        List<EscrowTransaction> held = escrowTransactionRepository.findByOrderIdInAndStatus(orderIds, EscrowStatus.HELD);
+        if (held.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        int released = escrowTransactionRepository.markReleased(
+                held.stream().map(EscrowTransaction::getId).toList(), EscrowStatus.RELEASED, now.toEpochMilli(), now);
+        eventRecorder.recordAll(held.stream()
+                .map(tx -> eventRecorder.event(tx.getStoreId(), tx.getOrderId(), OrderEventType.ESCROW,
+                        EscrowStatus.HELD, EscrowStatus.RELEASED, null))
+                .toList());
+        emailQueueService.enqueueAll(held.stream()
+                .map(tx -> emailQueueService.escrowReleasedEmail(tx.getStoreId(), tx.getId(), tx.getSellerAmount()))
+                .toList());
+        return released;
+    }
+
     /** Manual release by ADMIN */
     public EscrowTransactionDTO manualRelease(UUID escrowId) {
         EscrowTransaction tx = escrowTransactionRepository.findById(escrowId)
@@ -67,6 +100,8 @@ public class EscrowService {
         if (tx.getStatus() == EscrowStatus.RELEASED) {
             throw new BusinessException("ESCROW_ALREADY_RELEASED", "Escrow is already released.");
         }
+        eventRecorder.record(tx.getStoreId(), tx.getOrderId(), OrderEventType.ESCROW, tx.getStatus(), EscrowStatus.RELEASED,
+                "manual release");
         tx.setStatus(EscrowStatus.RELEASED);
         tx.setReleasedAt(Instant.now().toEpochMilli());
         EscrowTransaction saved = escrowTransactionRepository.save(tx);
@@ -78,6 +113,8 @@ public class EscrowService {
     public EscrowDisputeDTO raiseDispute(UUID escrowId, UUID userId, EscrowDisputeRequest request) {
         EscrowTransaction tx = escrowTransactionRepository.findById(escrowId)
                 .orElseThrow(() -> new ResourceNotFoundException("EscrowTransaction", "id", escrowId));
+        eventRecorder.record(tx.getStoreId(), tx.getOrderId(), OrderEventType.ESCROW, tx.getStatus(), EscrowStatus.DISPUTED,
+                request.getReason());
         tx.setStatus(EscrowStatus.DISPUTED);
         escrowTransactionRepository.save(tx);
 
@@ -97,6 +134,7 @@ public class EscrowService {
     public EscrowTransaction dispute(UUID escrowId, UUID userId, String reason) {
         EscrowTransaction tx = escrowTransactionRepository.findById(escrowId)
                 .orElseThrow(() -> new BusinessException("ESCROW_NOT_FOUND", "Escrow transaction not found."));
+        eventRecorder.record(tx.getStoreId(), tx.getOrderId(), OrderEventType.ESCROW, tx.getStatus(), EscrowStatus.DISPUTED, reason);
         tx.setStatus(EscrowStatus.DISPUTED);
         escrowTransactionRepository.save(tx);
 
@@ -127,6 +165,8 @@ public class EscrowService {
                 .orElseThrow(() -> new ResourceNotFoundException("EscrowTransaction", "id", dispute.getEscrowTransactionId()));
 
         if (newStatus == EscrowDisputeStatus.RESOLVED) {
+            eventRecorder.record(tx.getStoreId(), tx.getOrderId(), OrderEventType.ESCROW, tx.getStatus(), EscrowStatus.RELEASED,
+                    "dispute resolved");
             tx.setStatus(EscrowStatus.RELEASED);
             tx.setReleasedAt(Instant.now().toEpochMilli());
             escrowTransactionRepository.save(tx);
@@ -142,11 +182,29 @@ public class EscrowService {
         return escrowTransactionRepository.findAllByStoreId(storeId).stream().map(this::toDto).toList();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<EscrowTransactionDTO> getStoreEscrowPage(UUID storeId, String cursor, int size) {
+        int pageSize = KeysetCursor.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<EscrowTransaction> rows = after == null
+                ? escrowTransactionRepository.findPageByStoreId(storeId, KeysetCursor.limit(pageSize))
+                : escrowTransactionRepository.findPageByStoreIdAfter(storeId, after.createdAt(), after.id(), KeysetCursor.limit(pageSize));
+        return KeysetCursor.page(rows, pageSize, this::toDto);
+    }
+
     public void processReleasable(long now) {
-        escrowTransactionRepository.findReleasable(EscrowStatus.HELD, now).forEach(tx -> {
+        List<EscrowTransaction> releasable = escrowTransactionRepository.findReleasable(EscrowStatus.HELD, now);
+        releasable.forEach(tx -> {
             tx.setStatus(EscrowStatus.RELEASED);
             tx.setReleasedAt(now);
-            escrowTransactionRepository.save(tx);
+        });
+        eventRecorder.recordAll(releasable.stream()
+                .map(tx -> eventRecorder.event(tx.getStoreId(), tx.getOrderId(), OrderEventType.ESCROW,
+                        EscrowStatus.HELD, EscrowStatus.RELEASED, "scheduled release"))
+                .toList());
+        // One transaction: the status updates and the notification inserts flush as two batches
+        escrowTransactionRepository.saveAll(releasable);
+        releasable.forEach(tx -> {
             try {
                 emailQueueService.enqueueEscrowReleased(tx.getStoreId(), tx.getId(), tx.getSellerAmount());
             } catch (Exception e) {
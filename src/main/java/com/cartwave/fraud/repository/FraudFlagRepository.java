@@ -4,6 +4,8 @@ import com.cartwave.fraud.entity.FraudFlag;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
@@ -12,4 +14,6 @@ public interface FraudFlagRepository extends JpaRepository<FraudFlag, UUID> {
     long countByStoreIdAndReviewedFalseAndDeletedFalse(UUID storeId);
 
     boolean existsByOrderIdAndReasonAndDeletedFalse(UUID orderId, String reason);
+
+    List<FraudFlag> findByOrderIdInAndReasonInAndDeletedFalse(Collection<UUID> orderIds, Collection<String> reasons);
 }
@@ -0,0 +1,47 @@
+package com.cartwave.idempotency.entity;
+
+import com.cartwave.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One idempotent request: who sent it ({@code scope} + {@code owner}), under which key, a hash
+ * of its body and, once it completed, the response to replay.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_scope_owner_key",
+                columnNames = {"scope", "owner", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class IdempotencyKey extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private IdempotencyScope scope;
+
+    @Column(nullable = false, length = 128)
+    private String owner;
+
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseJson;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,7 @@
+package com.cartwave.idempotency.entity;
+
+/** Endpoint family a key belongs to; the same key string may be reused across scopes. */
+public enum IdempotencyScope {
+    CHECKOUT,
+    PAYMENT_CONFIRM
+}
@@ -0,0 +1,8 @@
+package com.cartwave.idempotency.entity;
+
+public enum IdempotencyStatus {
+    /** Claimed by a request that has not finished yet. */
+    IN_PROGRESS,
+    /** Finished; the stored response is replayed to retries. */
+    COMPLETED
+}
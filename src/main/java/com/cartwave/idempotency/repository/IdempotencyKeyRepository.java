@@ -0,0 +1,43 @@
+package com.cartwave.idempotency.repository;
+
+import com.cartwave.idempotency.entity.IdempotencyKey;
+import com.cartwave.idempotency.entity.IdempotencyScope;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM IdempotencyKey k WHERE k.scope = :scope AND k.owner = :owner AND k.key = :key")
+    Optional<IdempotencyKey> lockByScopeAndOwnerAndKey(
+            @Param("scope") IdempotencyScope scope,
+            @Param("owner") String owner,
+            @Param("key") String key
+    );
+
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyKey k SET k.status = com.cartwave.idempotency.entity.IdempotencyStatus.COMPLETED,
+                k.responseJson = :responseJson, k.updatedAt = :now
+            WHERE k.id = :id
+            """)
+    int complete(@Param("id") UUID id, @Param("responseJson") String responseJson, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.status = com.cartwave.idempotency.entity.IdempotencyStatus.IN_PROGRESS")
+    int releaseClaim(@Param("id") UUID id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
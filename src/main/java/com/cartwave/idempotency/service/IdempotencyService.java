@@ -0,0 +1,196 @@
+package com.cartwave.idempotency.service;
+
+import com.cartwave.exception.BusinessException;
+import com.cartwave.idempotency.entity.IdempotencyKey;
+import com.cartwave.idempotency.entity.IdempotencyScope;
+import com.cartwave.idempotency.entity.IdempotencyStatus;
+import com.cartwave.idempotency.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per idempotency key. The key is claimed in its own committed
+ * transaction so concurrent retries see it immediately; the action then runs in a transaction
+ * that also stores its response, so a key is only ever COMPLETED together with the business
+ * effect. Retries carrying the same key and body get the stored response back without touching
+ * the action; a failed action releases the key so the client can try again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate actionTransaction;
+    private final TransactionTemplate claimTransaction;
+
+    @Value("${cartwave.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${cartwave.idempotency.in-progress-lease-ms:60000}")
+    private long inProgressLeaseMs;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.actionTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Run {@code action} once for {@code key}, or replay the response of the run that already
+     * completed under it. Call outside of any transaction: the action's transaction must commit
+     * here for the stored response to be trustworthy. A blank key runs the action unguarded.
+     *
+     * @param owner who the key belongs to (customer, transaction), so keys never collide across callers
+     * @throws BusinessException when the key was used for a different request body, or a run
+     *                           under it is still in flight
+     */
+    public <T> T execute(IdempotencyScope scope, String owner, String key, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String normalizedKey = key.trim();
+        if (normalizedKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("IDEMPOTENCY_KEY_INVALID",
+                    "Idempotency keys may be at most " + MAX_KEY_LENGTH + " characters.");
+        }
+
+        Claim claim = claim(scope, owner, normalizedKey, hash(request));
+        if (claim.storedResponse() != null) {
+            log.debug("Replaying {} response for idempotency key {}", scope, normalizedKey);
+            return read(claim.storedResponse(), responseType);
+        }
+        try {
+            return actionTransaction.execute(status -> {
+                T result = action.get();
+                repository.complete(claim.id(), write(result), Instant.now());
+                return result;
+            });
+        } catch (RuntimeException e) {
+            release(claim.id());
+            throw e;
+        }
+    }
+
+    /** Drop keys past their TTL in one statement. */
+    @Transactional
+    public int purgeExpired() {
+        return repository.deleteExpired(Instant.now());
+    }
+
+    private Claim claim(IdempotencyScope scope, String owner, String key, String requestHash) {
+        // Two attempts: the conflicting row can be purged between our insert and our lookup
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                UUID id = claimTransaction.execute(status -> repository.saveAndFlush(IdempotencyKey.builder()
+                        .scope(scope)
+                        .owner(owner)
+                        .key(key)
+                        .requestHash(requestHash)
+                        .status(IdempotencyStatus.IN_PROGRESS)
+                        .expiresAt(Instant.now().plusMillis(ttlMs))
+                        .build()).getId());
+                return new Claim(id, null);
+            } catch (DataIntegrityViolationException duplicate) {
+                Claim existing = claimTransaction.execute(status -> resolveExisting(scope, owner, key, requestHash));
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        }
+        throw inProgress();
+    }
+
+    private Claim resolveExisting(IdempotencyScope scope, String owner, String key, String requestHash) {
+        IdempotencyKey existing = repository.lockByScopeAndOwnerAndKey(scope, owner, key).orElse(null);
+        if (existing == null) {
+            return null;
+        }
+        Instant now = Instant.now();
+        boolean expired = existing.getExpiresAt().isBefore(now);
+        boolean abandoned = existing.getStatus() == IdempotencyStatus.IN_PROGRESS
+                && existing.getUpdatedAt() != null
+                && existing.getUpdatedAt().plusMillis(inProgressLeaseMs).isBefore(now);
+        if (expired || abandoned) {
+            existing.setRequestHash(requestHash);
+            existing.setStatus(IdempotencyStatus.IN_PROGRESS);
+            existing.setResponseJson(null);
+            existing.setExpiresAt(now.plusMillis(ttlMs));
+            repository.save(existing);
+            return new Claim(existing.getId(), null);
+        }
+        if (!existing.getRequestHash().equals(requestHash)) {
+            throw new BusinessException("IDEMPOTENCY_KEY_REUSED",
+                    "This Idempotency-Key was already used for a different request.");
+        }
+        if (existing.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+            throw inProgress();
+        }
+        return new Claim(existing.getId(), existing.getResponseJson());
+    }
+
+    private void release(UUID claimId) {
+        try {
+            claimTransaction.executeWithoutResult(status -> repository.releaseClaim(claimId));
+        } catch (RuntimeException e) {
+            // The in-progress lease lets a retry take the key over anyway
+            log.warn("Could not release idempotency key {}: {}", claimId, e.getMessage());
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store idempotent response", e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private static BusinessException inProgress() {
+        return new BusinessException("IDEMPOTENCY_REQUEST_IN_PROGRESS",
+                "A request with this Idempotency-Key is still being processed; retry shortly.");
+    }
+
+    /** A fresh claim ({@code storedResponse} null) or the completed response to replay. */
+    private record Claim(UUID id, String storedResponse) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.cartwave.inventory.entity;
+
+import com.cartwave.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Units of one product held for one order between checkout and payment. While HELD the
+ * quantity is included in {@code products.reserved_stock}.
+ * <p>
+ * Holds on hot products carry the {@link InventoryStockLease} they were taken from. When such a
+ * hold is paid, {@code stockApplied} stays false until the reconciliation job moves its units
+ * out of {@code products.stock}.
+ */
+@Entity
+@Table(name = "inventory_reservations", indexes = {
+        @Index(name = "idx_inventory_reservations_order", columnList = "order_id"),
+        @Index(name = "idx_inventory_reservations_held_expiry", columnList = "expires_at"),
+        @Index(name = "idx_inventory_reservations_lease", columnList = "lease_id"),
+        @Index(name = "idx_inventory_reservations_unapplied", columnList = "product_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class InventoryReservation extends BaseEntity {
+
+    @Column(nullable = false)
+    private UUID storeId;
+
+    @Column(nullable = false)
+    private UUID orderId;
+
+    @Column(nullable = false)
+    private UUID productId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column
+    private UUID leaseId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean stockApplied = true;
+}
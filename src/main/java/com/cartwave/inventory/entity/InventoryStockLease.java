@@ -0,0 +1,42 @@
+package com.cartwave.inventory.entity;
+
+import com.cartwave.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Units of a hot product that one node moved into {@code products.reserved_stock} to sell from
+ * memory. {@code granted} minus the quantities of the reservations stamped with this lease is
+ * what the node still holds unsold, which is what gets handed back if the node stops
+ * heartbeating.
+ */
+@Entity
+@Table(name = "inventory_stock_leases", indexes = {
+        @Index(name = "idx_inventory_stock_leases_heartbeat", columnList = "heartbeat_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class InventoryStockLease extends BaseEntity {
+
+    @Column(nullable = false)
+    private UUID storeId;
+
+    @Column(nullable = false)
+    private UUID productId;
+
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long granted = 0L;
+
+    @Column(nullable = false)
+    private Instant heartbeatAt;
+}
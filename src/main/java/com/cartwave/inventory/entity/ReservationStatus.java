@@ -0,0 +1,12 @@
+package com.cartwave.inventory.entity;
+
+public enum ReservationStatus {
+    /** Counted in the product's reserved stock until payment settles or the hold expires. */
+    HELD,
+    /** Payment succeeded; the units left stock. */
+    COMMITTED,
+    /** Payment failed; the units went back to available stock. */
+    RELEASED,
+    /** Nobody paid in time; the units went back to available stock. */
+    EXPIRED
+}
@@ -0,0 +1,44 @@
+package com.cartwave.inventory.repository;
+
+import com.cartwave.inventory.entity.InventoryReservation;
+import com.cartwave.inventory.entity.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, UUID> {
+
+    /** Locks the rows so payment confirmation and the expiry sweep cannot settle the same hold twice. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM InventoryReservation r WHERE r.orderId = :orderId AND r.status = :status AND r.deleted = false")
+    List<InventoryReservation> lockByOrderIdAndStatus(@Param("orderId") UUID orderId, @Param("status") ReservationStatus status);
+
+    // the HELD literal lets Postgres match the partial index idx_inventory_reservations_held_expiry
+    @Query("""
+            SELECT DISTINCT r.orderId FROM InventoryReservation r
+            WHERE r.status = com.cartwave.inventory.entity.ReservationStatus.HELD AND r.expiresAt < :now
+            """)
+    List<UUID> findOrderIdsWithHoldsExpiredBefore(@Param("now") Instant now, Pageable limit);
+
+    /** Paid hot-product holds whose units have not left {@code products.stock} yet, locked for applying. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT r FROM InventoryReservation r
+            WHERE r.stockApplied = false AND r.status = com.cartwave.inventory.entity.ReservationStatus.COMMITTED
+            ORDER BY r.productId
+            """)
+    List<InventoryReservation> lockUnappliedCommits(Pageable limit);
+
+    /** Units ever taken from a lease's pool, whatever became of the holds since. */
+    @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM InventoryReservation r WHERE r.leaseId = :leaseId")
+    long sumQuantityByLeaseId(@Param("leaseId") UUID leaseId);
+}
@@ -0,0 +1,38 @@
+package com.cartwave.inventory.repository;
+
+import com.cartwave.inventory.entity.InventoryStockLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InventoryStockLeaseRepository extends JpaRepository<InventoryStockLease, UUID> {
+
+    @Modifying
+    @Query("UPDATE InventoryStockLease l SET l.granted = l.granted + :delta, l.updatedAt = :now WHERE l.id = :id")
+    int addGranted(@Param("id") UUID id, @Param("delta") long delta, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE InventoryStockLease l SET l.heartbeatAt = :now WHERE l.id IN :ids")
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    @Query("SELECT l.id FROM InventoryStockLease l WHERE l.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT l.id FROM InventoryStockLease l WHERE l.heartbeatAt < :cutoff")
+    List<UUID> findIdsWithHeartbeatBefore(@Param("cutoff") Instant cutoff);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM InventoryStockLease l WHERE l.id = :id")
+    Optional<InventoryStockLease> lockById(@Param("id") UUID id);
+}
@@ -0,0 +1,397 @@
+package com.cartwave.inventory.service;
+
+import com.cartwave.inventory.entity.InventoryStockLease;
+import com.cartwave.inventory.repository.InventoryReservationRepository;
+import com.cartwave.inventory.repository.InventoryStockLeaseRepository;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Flash-sale stock for products flagged {@code hotSku}.
+ * <p>
+ * Each node leases blocks of a hot product's available stock into {@code reserved_stock} (one
+ * row update per block) and sells them from a {@link StripedStockCounter}, so concurrent
+ * checkouts of the same product no longer queue on its row. Every unit taken is stamped with
+ * the node's lease on the order's reservation, which keeps {@code granted - SUM(reservations)}
+ * equal to the units still pooled: unsold units go back to the product when the mode is
+ * switched off, on shutdown, or, if a node dies, once its lease stops heartbeating.
+ * <p>
+ * A pool that cannot serve a checkout in time sends it to the product row instead, so under
+ * load a hot product is only reported sold out once the database has no stock left for it.
+ */
+@Slf4j
+@Service
+public class HotSkuStockAllocator {
+
+    private static final long REFILL_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ProductRepository productRepository;
+    private final InventoryStockLeaseRepository leaseRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final TransactionTemplate ownTransaction;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<UUID, Pool> pools = new ConcurrentHashMap<>();
+
+    @Value("${cartwave.inventory.hot-sku.lease-block-size:100}")
+    private long leaseBlockSize;
+
+    @Value("${cartwave.inventory.hot-sku.stripes:16}")
+    private int stripes;
+
+    @Value("${cartwave.inventory.hot-sku.refill-wait-ms:250}")
+    private long refillWaitMs;
+
+    @Value("${cartwave.inventory.hot-sku.lease-timeout-ms:60000}")
+    private long leaseTimeoutMs;
+
+    public HotSkuStockAllocator(ProductRepository productRepository,
+                                InventoryStockLeaseRepository leaseRepository,
+                                InventoryReservationRepository reservationRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.leaseRepository = leaseRepository;
+        this.reservationRepository = reservationRepository;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Take units for a checkout. Must run inside the checkout's transaction: the units return
+     * to the pool if it rolls back. When the pool is empty one caller leases the next block as
+     * part of its checkout while the others wait up to {@code refill-wait-ms} for it to land.
+     *
+     * @return the lease the units were taken from, or {@code null} when the pool cannot supply
+     * them (not enough left to lease, a refill still running at the deadline, or the pool just
+     * closed); the caller then holds the units on the product row, which decides whether the
+     * product is really sold out
+     */
+    public UUID take(UUID storeId, UUID productId, long quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Hot SKU stock must be taken inside a transaction");
+        }
+        Pool pool = pool(storeId, productId);
+        if (!pool.enter()) {
+            return null;
+        }
+        boolean handedOff = false;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(refillWaitMs);
+            while (true) {
+                if (pool.counter.tryTake(quantity)) {
+                    afterCompletion(committed -> {
+                        if (!committed) {
+                            pool.giveBack(quantity);
+                        }
+                        pool.exit();
+                    });
+                    handedOff = true;
+                    return pool.leaseId;
+                }
+                if (pool.refilling.compareAndSet(false, true)) {
+                    if (!refillAndTake(pool, quantity)) {
+                        return null;
+                    }
+                    // Registered after the refill's own callback, so the pool is credited before it goes idle
+                    afterCompletion(committed -> pool.exit());
+                    handedOff = true;
+                    return pool.leaseId;
+                }
+                if (System.nanoTime() > deadline) {
+                    return null;
+                }
+                LockSupport.parkNanos(REFILL_POLL_NANOS);
+            }
+        } finally {
+            if (!handedOff) {
+                pool.exit();
+            }
+        }
+    }
+
+    /** Units this node can still sell of a product without touching the database. */
+    public long pooled(UUID productId) {
+        Pool pool = pools.get(productId);
+        return pool == null ? 0 : pool.counter.available();
+    }
+
+    /** Hand this node's unsold units of a product back once the surrounding transaction commits. */
+    public void closeAfterCommit(UUID productId) {
+        afterCompletion(committed -> {
+            Pool pool = pools.get(productId);
+            if (committed && pool != null) {
+                close(pool);
+            }
+        });
+    }
+
+    /**
+     * Periodic upkeep: open pools for newly hot products and top up low ones, close pools of
+     * products no longer hot, heartbeat this node's leases and return the unsold units of
+     * leases whose node stopped heartbeating.
+     */
+    public void maintain() {
+        Map<UUID, Product> hot = productRepository.findAllHotSku().stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        for (Pool pool : pools.values()) {
+            if (!hot.containsKey(pool.productId)) {
+                close(pool);
+            }
+        }
+        for (Product product : hot.values()) {
+            Pool pool = pool(product.getStoreId(), product.getId());
+            if (pool.counter.available() < leaseBlockSize / 2) {
+                topUp(pool);
+            }
+        }
+        heartbeat();
+        recoverAbandonedLeases();
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        pools.values().forEach(this::close);
+    }
+
+    // ── leases ────────────────────────────────────────────────────────────────
+
+    /** This node's pool of a product, opening it (and its lease) outside the map's lock on first use. */
+    private Pool pool(UUID storeId, UUID productId) {
+        Pool pool = pools.get(productId);
+        if (pool != null) {
+            return pool;
+        }
+        Pool opened = open(storeId, productId);
+        Pool raced = pools.putIfAbsent(productId, opened);
+        if (raced == null) {
+            return opened;
+        }
+        deleteLease(opened);
+        return raced;
+    }
+
+    private Pool open(UUID storeId, UUID productId) {
+        InventoryStockLease lease = ownTransaction.execute(status -> leaseRepository.save(InventoryStockLease.builder()
+                .storeId(storeId)
+                .productId(productId)
+                .nodeId(nodeId)
+                .heartbeatAt(Instant.now())
+                .build()));
+        return new Pool(storeId, productId, lease.getId(), new StripedStockCounter(stripes));
+    }
+
+    /** Lease a block in the caller's transaction; the caller's units come out of it and the rest lands on commit. */
+    private boolean refillAndTake(Pool pool, long quantity) {
+        boolean pending = false;
+        try {
+            long granted = productRepository.leaseStock(pool.storeId, pool.productId,
+                    Math.max(leaseBlockSize, quantity), quantity);
+            if (granted == 0) {
+                return false;
+            }
+            leaseRepository.addGranted(pool.leaseId, granted, Instant.now());
+            afterCompletion(committed -> {
+                if (committed) {
+                    pool.giveBack(granted - quantity);
+                }
+                pool.refilling.set(false);
+            });
+            pending = true;
+            return true;
+        } finally {
+            if (!pending) {
+                pool.refilling.set(false);
+            }
+        }
+    }
+
+    /** Background refill, so checkouts rarely find the pool empty. */
+    private void topUp(Pool pool) {
+        if (!pool.enter()) {
+            return;
+        }
+        if (!pool.refilling.compareAndSet(false, true)) {
+            pool.exit();
+            return;
+        }
+        try {
+            Long granted = ownTransaction.execute(status -> {
+                long units = productRepository.leaseStock(pool.storeId, pool.productId, leaseBlockSize, 1);
+                if (units > 0) {
+                    leaseRepository.addGranted(pool.leaseId, units, Instant.now());
+                }
+                return units;
+            });
+            if (granted != null && granted > 0) {
+                pool.giveBack(granted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not top up hot SKU pool of product {}: {}", pool.productId, e.getMessage());
+        } finally {
+            pool.refilling.set(false);
+            pool.exit();
+        }
+    }
+
+    /**
+     * Return a pool's unsold units and, when no checkout is still using it, delete its lease.
+     * A pool closed mid-checkout keeps its lease: units of a checkout that then rolls back are
+     * only accounted for there, and the lease is recovered once it stops heartbeating.
+     */
+    private void close(Pool pool) {
+        if (!pools.remove(pool.productId, pool)) {
+            return;
+        }
+        long unsold = pool.close();
+        boolean idle = pool.idle();
+        if (unsold == 0 && !idle) {
+            return;
+        }
+        try {
+            ownTransaction.executeWithoutResult(status -> {
+                if (unsold > 0) {
+                    productRepository.releaseReservedStock(pool.storeId, Map.of(pool.productId, unsold));
+                    leaseRepository.addGranted(pool.leaseId, -unsold, Instant.now());
+                }
+                if (idle) {
+                    leaseRepository.deleteById(pool.leaseId);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Still counted in the lease; recovered once it stops heartbeating
+            log.warn("Could not return {} pooled units of product {}: {}", unsold, pool.productId, e.getMessage());
+        }
+    }
+
+    private void deleteLease(Pool pool) {
+        try {
+            ownTransaction.executeWithoutResult(status -> leaseRepository.deleteById(pool.leaseId));
+        } catch (RuntimeException e) {
+            // Empty and never heartbeated: the recovery sweep removes it
+            log.warn("Could not delete unused hot SKU lease {}: {}", pool.leaseId, e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        Map<UUID, Pool> byLease = pools.values().stream().collect(Collectors.toMap(pool -> pool.leaseId, pool -> pool));
+        if (byLease.isEmpty()) {
+            return;
+        }
+        Set<UUID> live = ownTransaction.execute(status -> {
+            List<UUID> existing = leaseRepository.findExistingIds(byLease.keySet());
+            if (!existing.isEmpty()) {
+                leaseRepository.heartbeat(existing, Instant.now());
+            }
+            return Set.copyOf(existing);
+        });
+        byLease.forEach((leaseId, pool) -> {
+            if (!live.contains(leaseId) && pools.remove(pool.productId, pool)) {
+                // Another node already returned this lease's units: stop selling them here
+                pool.close();
+                log.warn("Hot SKU lease {} of product {} was recovered elsewhere; pool dropped", leaseId, pool.productId);
+            }
+        });
+    }
+
+    private void recoverAbandonedLeases() {
+        Instant cutoff = Instant.now().minusMillis(leaseTimeoutMs);
+        Set<UUID> own = pools.values().stream().map(pool -> pool.leaseId).collect(Collectors.toSet());
+        for (UUID leaseId : leaseRepository.findIdsWithHeartbeatBefore(cutoff)) {
+            if (own.contains(leaseId)) {
+                continue;
+            }
+            try {
+                ownTransaction.executeWithoutResult(status -> leaseRepository.lockById(leaseId)
+                        .filter(lease -> lease.getHeartbeatAt().isBefore(cutoff))
+                        .ifPresent(lease -> {
+                            long unsold = lease.getGranted() - reservationRepository.sumQuantityByLeaseId(leaseId);
+                            if (unsold > 0) {
+                                productRepository.releaseReservedStock(lease.getStoreId(), Map.of(lease.getProductId(), unsold));
+                            }
+                            leaseRepository.delete(lease);
+                            log.info("Recovered hot SKU lease {} of node {}: {} unsold units returned",
+                                    leaseId, lease.getNodeId(), Math.max(unsold, 0));
+                        }));
+            } catch (RuntimeException e) {
+                log.warn("Could not recover hot SKU lease {}: {}", leaseId, e.getMessage());
+            }
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /** One product's units on this node, all drawn from a single lease. */
+    private static final class Pool {
+        final UUID storeId;
+        final UUID productId;
+        final UUID leaseId;
+        final StripedStockCounter counter;
+        final AtomicBoolean refilling = new AtomicBoolean();
+        private boolean closed;
+        /** Checkouts and top-ups currently using the pool; its lease may only go once this is 0 after closing. */
+        private int inFlight;
+
+        Pool(UUID storeId, UUID productId, UUID leaseId, StripedStockCounter counter) {
+            this.storeId = storeId;
+            this.productId = productId;
+            this.leaseId = leaseId;
+            this.counter = counter;
+        }
+
+        /** Credit units back unless the pool was closed, in which case its lease accounts for them. */
+        synchronized void giveBack(long units) {
+            if (!closed && units > 0) {
+                counter.add(units);
+            }
+        }
+
+        synchronized long close() {
+            closed = true;
+            return counter.drain();
+        }
+
+        /** Register a user of the pool; false once it is closed. */
+        synchronized boolean enter() {
+            if (closed) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void exit() {
+            inFlight--;
+        }
+
+        synchronized boolean idle() {
+            return inFlight == 0;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.cartwave.inventory.service;
+
+import com.cartwave.billing.entity.BillingStatus;
+import com.cartwave.billing.repository.BillingTransactionRepository;
+import com.cartwave.inventory.entity.InventoryReservation;
+import com.cartwave.inventory.entity.ReservationStatus;
+import com.cartwave.inventory.repository.InventoryReservationRepository;
+import com.cartwave.marketing.service.CouponService;
+import com.cartwave.order.entity.OrderEventType;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.repository.OrderRepository;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Holds stock between checkout and payment.
+ * <p>
+ * Checkout reserves each line against {@code stock - reserved_stock} and records a HELD
+ * reservation expiring after {@code cartwave.inventory.reservation-ttl-ms}. A successful
+ * payment commits the hold (stock leaves the shelf), a failed one releases it, and holds still
+ * unpaid at expiry are released by {@code InventoryReservationExpiryJob}, cancelling the order.
+ * Settling locks the order's HELD rows, so confirmation and expiry never settle a hold twice.
+ * <p>
+ * Lines for hot products are taken from {@link HotSkuStockAllocator} instead of the product
+ * row; when paid, their units leave {@code products.stock} in batches through
+ * {@link #applyDeferredCommits(int)}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class InventoryReservationService {
+
+    private final InventoryReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final BillingTransactionRepository billingTransactionRepository;
+    private final HotSkuStockAllocator hotSkuStockAllocator;
+    private final StorefrontCatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final CouponService couponService;
+    private final OrderEventRecorder eventRecorder;
+
+    @Value("${cartwave.inventory.reservation-ttl-ms:900000}")
+    private long reservationTtlMs;
+
+    /**
+     * Hold {@code quantities} for an order. Nothing is recorded unless every line can be held;
+     * the caller is expected to fail (and roll back) when the result is non-empty.
+     *
+     * @return ids of the products that do not have enough available stock
+     */
+    public List<UUID> reserve(UUID storeId, UUID orderId, Map<UUID, Long> quantities) {
+        return reserve(storeId, orderId, quantities, Set.of());
+    }
+
+    /**
+     * As {@link #reserve(UUID, UUID, Map)}, taking the lines of {@code hotProductIds} from
+     * this node's flash-sale pools.
+     */
+    public List<UUID> reserve(UUID storeId, UUID orderId, Map<UUID, Long> quantities, Set<UUID> hotProductIds) {
+        Map<UUID, Long> direct = new HashMap<>(quantities);
+        Map<UUID, UUID> leases = new HashMap<>();
+        for (UUID productId : hotProductIds) {
+            Long quantity = direct.remove(productId);
+            if (quantity == null) {
+                continue;
+            }
+            UUID leaseId = hotSkuStockAllocator.take(storeId, productId, quantity);
+            if (leaseId == null) {
+                // The pool could not supply it in time: hold on the row, which has the final say
+                direct.put(productId, quantity);
+            } else {
+                leases.put(productId, leaseId);
+            }
+        }
+        List<UUID> unavailable = productRepository.reserveStock(storeId, direct);
+        if (!unavailable.isEmpty()) {
+            return unavailable;
+        }
+        Instant expiresAt = Instant.now().plusMillis(reservationTtlMs);
+        reservationRepository.saveAll(quantities.entrySet().stream()
+                .map(line -> InventoryReservation.builder()
+                        .storeId(storeId)
+                        .orderId(orderId)
+                        .productId(line.getKey())
+                        .quantity(line.getValue())
+                        .status(ReservationStatus.HELD)
+                        .expiresAt(expiresAt)
+                        .leaseId(leases.get(line.getKey()))
+                        .build())
+                .toList());
+        catalogCache.invalidateAfterCommit(storeId);
+        return List.of();
+    }
+
+    /**
+     * Payment succeeded: the held units leave stock, for hot products on the next
+     * {@link #applyDeferredCommits(int)} pass. If the hold already expired, or was released by an
+     * earlier failed payment, the stock is taken again, but only if every line is still
+     * available; otherwise nothing is taken.
+     */
+    public CommitOutcome commit(UUID orderId) {
+        List<InventoryReservation> held = reservationRepository.lockByOrderIdAndStatus(orderId, ReservationStatus.HELD);
+        if (!held.isEmpty()) {
+            UUID storeId = held.get(0).getStoreId();
+            Map<Boolean, List<InventoryReservation>> pooled = held.stream()
+                    .collect(Collectors.partitioningBy(reservation -> reservation.getLeaseId() != null));
+            productRepository.commitReservedStock(storeId, quantities(pooled.get(false)));
+            pooled.get(true).forEach(reservation -> reservation.setStockApplied(false));
+            settle(held, ReservationStatus.COMMITTED);
+            reindex(storeId, pooled.get(false));
+            return CommitOutcome.COMMITTED;
+        }
+
+        List<InventoryReservation> lapsed = reservationRepository.lockByOrderIdAndStatus(orderId, ReservationStatus.EXPIRED);
+        if (lapsed.isEmpty()) {
+            lapsed = reservationRepository.lockByOrderIdAndStatus(orderId, ReservationStatus.RELEASED);
+        }
+        if (lapsed.isEmpty()) {
+            return CommitOutcome.COMMITTED;
+        }
+        UUID storeId = lapsed.get(0).getStoreId();
+        Map<UUID, Long> quantities = quantities(lapsed);
+        // Hold first, so a line that is gone leaves the others untouched once their holds are returned
+        List<UUID> missing = productRepository.reserveStock(storeId, quantities);
+        if (!missing.isEmpty()) {
+            Map<UUID, Long> retaken = new HashMap<>(quantities);
+            retaken.keySet().removeAll(missing);
+            productRepository.releaseReservedStock(storeId, retaken);
+            log.warn("Order {} was paid after its stock hold expired; products {} are no longer available", orderId, missing);
+            return CommitOutcome.UNAVAILABLE;
+        }
+        productRepository.commitReservedStock(storeId, quantities);
+        settle(lapsed, ReservationStatus.COMMITTED);
+        reindex(storeId, lapsed);
+        return CommitOutcome.RETAKEN;
+    }
+
+    /** Payment failed: return the held units to available stock. */
+    public void release(UUID orderId) {
+        releaseHeld(orderId, ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Move the units of up to {@code limit} paid hot-product holds out of {@code products.stock}:
+     * one row update per product however many orders paid for it since the last pass.
+     *
+     * @return the number of holds applied
+     */
+    public int applyDeferredCommits(int limit) {
+        List<InventoryReservation> pending = reservationRepository.lockUnappliedCommits(PageRequest.of(0, limit));
+        pending.stream()
+                .collect(Collectors.groupingBy(InventoryReservation::getStoreId))
+                .forEach((storeId, reservations) -> {
+                    productRepository.commitReservedStock(storeId, quantities(reservations));
+                    reservations.forEach(reservation -> reservation.setStockApplied(true));
+                    reindex(storeId, reservations);
+                });
+        reservationRepository.saveAll(pending);
+        return pending.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<UUID> findExpiredOrderIds(int limit) {
+        return reservationRepository.findOrderIdsWithHoldsExpiredBefore(Instant.now(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Release the holds of an order nobody paid for in time and cancel it, unless payment
+     * completed in the meantime.
+     */
+    public void expire(UUID orderId) {
+        List<InventoryReservation> held = releaseHeld(orderId, ReservationStatus.EXPIRED);
+        if (held.isEmpty()) {
+            return;
+        }
+        UUID storeId = held.get(0).getStoreId();
+        orderRepository.findByIdAndStoreId(orderId, storeId)
+                .filter(order -> order.getPaymentStatus() == PaymentStatus.PENDING
+                        || order.getPaymentStatus() == PaymentStatus.PROCESSING)
+                .ifPresent(order -> {
+                    eventRecorder.recordAll(List.of(
+                            eventRecorder.event(storeId, orderId, OrderEventType.STATUS, order.getStatus(), OrderStatus.CANCELLED, "RESERVATION_EXPIRED"),
+                            eventRecorder.event(storeId, orderId, OrderEventType.PAYMENT, order.getPaymentStatus(), PaymentStatus.FAILED, "RESERVATION_EXPIRED")));
+                    order.setStatus(OrderStatus.CANCELLED);
+                    order.setPaymentStatus(PaymentStatus.FAILED);
+                    orderRepository.save(order);
+                    couponService.releaseRedemption(order);
+                    billingTransactionRepository.findFirstByOrderIdAndStoreId(orderId, storeId).ifPresent(transaction -> {
+                        transaction.setStatus(BillingStatus.FAILED);
+                        transaction.setFailureReason("RESERVATION_EXPIRED");
+                        billingTransactionRepository.save(transaction);
+                    });
+                });
+    }
+
+    private List<InventoryReservation> releaseHeld(UUID orderId, ReservationStatus outcome) {
+        List<InventoryReservation> held = reservationRepository.lockByOrderIdAndStatus(orderId, ReservationStatus.HELD);
+        if (held.isEmpty()) {
+            return held;
+        }
+        UUID storeId = held.get(0).getStoreId();
+        productRepository.releaseReservedStock(storeId, quantities(held));
+        settle(held, outcome);
+        catalogCache.invalidateAfterCommit(storeId);
+        return held;
+    }
+
+    private void settle(List<InventoryReservation> reservations, ReservationStatus outcome) {
+        reservations.forEach(reservation -> reservation.setStatus(outcome));
+        reservationRepository.saveAll(reservations);
+    }
+
+    /** Stock changed: refresh the search index entries and the storefront snapshot. */
+    private void reindex(UUID storeId, List<InventoryReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        productRepository.findAllByIdInAndStoreId(
+                        reservations.stream().map(InventoryReservation::getProductId).toList(), storeId)
+                .forEach(searchIndex::indexAfterCommit);
+        catalogCache.invalidateAfterCommit(storeId);
+    }
+
+    private static Map<UUID, Long> quantities(List<InventoryReservation> reservations) {
+        return reservations.stream()
+                .collect(Collectors.toMap(InventoryReservation::getProductId, InventoryReservation::getQuantity, Long::sum));
+    }
+
+    /** What {@link #commit(UUID)} did with a paid order's stock. */
+    public enum CommitOutcome {
+        /** The hold (or nothing, if the order held none) was committed. */
+        COMMITTED,
+        /** The hold had expired and its stock was taken again. */
+        RETAKEN,
+        /** The hold had expired and some of its stock is gone; nothing was taken. */
+        UNAVAILABLE
+    }
+}
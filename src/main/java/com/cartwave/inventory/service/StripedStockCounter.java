@@ -0,0 +1,89 @@
+package com.cartwave.inventory.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Unit counter split over independent stripes so concurrent takers rarely CAS the same slot.
+ * A taker starts at the stripe its thread hashes to and only walks the others when that one
+ * runs short; a take never drives any stripe below zero, so the counter cannot oversell.
+ */
+final class StripedStockCounter {
+
+    private final AtomicLongArray stripes;
+
+    StripedStockCounter(int stripes) {
+        this.stripes = new AtomicLongArray(Math.max(1, stripes));
+    }
+
+    /** Take {@code quantity} units if that many are left; all or nothing. */
+    boolean tryTake(long quantity) {
+        int n = stripes.length();
+        int home = home();
+        for (int i = 0; i < n; i++) {
+            if (takeFrom((home + i) % n, quantity, false) == quantity) {
+                return true;
+            }
+        }
+        // No single stripe holds enough: gather across stripes, handing back on a shortfall
+        long taken = 0;
+        for (int i = 0; i < n && taken < quantity; i++) {
+            taken += takeFrom((home + i) % n, quantity - taken, true);
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        if (taken > 0) {
+            add(taken);
+        }
+        return false;
+    }
+
+    /** Spread {@code quantity} units over the stripes. */
+    void add(long quantity) {
+        int n = stripes.length();
+        long share = quantity / n;
+        long remainder = quantity % n;
+        int home = home();
+        for (int i = 0; i < n; i++) {
+            long units = share + (i < remainder ? 1 : 0);
+            if (units > 0) {
+                stripes.addAndGet((home + i) % n, units);
+            }
+        }
+    }
+
+    /** Remove and return every unit left. */
+    long drain() {
+        long total = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            total += stripes.getAndSet(i, 0);
+        }
+        return total;
+    }
+
+    /** Units left; a moving snapshot while takers are active. */
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            total += stripes.get(i);
+        }
+        return total;
+    }
+
+    private long takeFrom(int stripe, long wanted, boolean partial) {
+        while (true) {
+            long current = stripes.get(stripe);
+            long take = partial ? Math.min(current, wanted) : (current >= wanted ? wanted : 0);
+            if (take == 0) {
+                return 0;
+            }
+            if (stripes.compareAndSet(stripe, current, current - take)) {
+                return take;
+            }
+        }
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().threadId() % stripes.length());
+    }
+}
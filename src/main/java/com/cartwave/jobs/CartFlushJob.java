@@ -0,0 +1,27 @@
+package com.cartwave.jobs;
+
+import com.cartwave.cart.service.CartStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartFlushJob {
+
+    private final CartStore cartStore;
+
+    /**
+     * Write-behind for in-memory carts: persist every cart changed since the last cycle.
+     * A no-op when carts are stored in the database.
+     */
+    @Scheduled(fixedDelayString = "${cartwave.jobs.cart-flush-ms:5000}")
+    public void run() {
+        int written = cartStore.flushPending();
+        if (written > 0) {
+            log.debug("CartFlushJob wrote {} carts", written);
+        }
+    }
+}
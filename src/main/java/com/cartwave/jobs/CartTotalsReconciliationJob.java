@@ -0,0 +1,35 @@
+package com.cartwave.jobs;
+
+import com.cartwave.cart.service.CartService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartTotalsReconciliationJob {
+
+    private final CartService cartService;
+
+    @Value("${cartwave.cart.reconcile-window-ms:3600000}")
+    private long reconcileWindowMs;
+
+    /**
+     * Consistency check for the incrementally maintained cart totals: re-derive them from the
+     * live lines of recently changed active carts and fix any that drifted.
+     */
+    @Scheduled(cron = "${cartwave.jobs.cart-totals-reconcile-cron:0 */15 * * * *}")
+    public void run() {
+        int corrected = cartService.reconcileTotals(Instant.now().minusMillis(reconcileWindowMs));
+        if (corrected > 0) {
+            log.warn("CartTotalsReconciliationJob corrected totals of {} carts", corrected);
+        } else {
+            log.debug("CartTotalsReconciliationJob found no drift");
+        }
+    }
+}
@@ -10,51 +10,78 @@ import com.cartwave.store.entity.Store;
 import com.cartwave.store.repository.StoreRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class FraudDetectionJob {
 
+    private static final BigDecimal HIGH_VALUE = BigDecimal.valueOf(10000);
+    private static final String HIGH_VALUE_ORDER = "HIGH_VALUE_ORDER";
+    private static final String FAILED_PAYMENT = "FAILED_PAYMENT";
+
     private final StoreRepository storeRepository;
     private final OrderRepository orderRepository;
     private final FraudFlagRepository fraudFlagRepository;
 
+    @Value("${cartwave.jobs.fraud-scan-window-ms:86400000}")
+    private long scanWindowMs;
+
+    /**
+     * Flag high-value orders and failed payments among the orders changed within the scan
+     * window, which spans many runs so one missed run loses nothing. Per store: one query for
+     * candidate orders, one for the flags already raised on them, and the new flags written as
+     * a single batch.
+     */
     @Scheduled(cron = "${cartwave.jobs.fraud-scan-cron:0 */10 * * * *}")
     public void run() {
+        Instant since = Instant.now().minusMillis(scanWindowMs);
         for (Store store : storeRepository.findAllActive()) {
-            for (Order order : orderRepository.findByStoreId(store.getId(), Pageable.unpaged())) {
-                if (order.getTotalAmount() != null
-                        && order.getTotalAmount().compareTo(BigDecimal.valueOf(10000)) >= 0
-                        && !fraudFlagRepository.existsByOrderIdAndReasonAndDeletedFalse(order.getId(), "HIGH_VALUE_ORDER")) {
-                    fraudFlagRepository.save(FraudFlag.builder()
-                            .storeId(store.getId())
-                            .orderId(order.getId())
-                            .customerId(order.getCustomerId())
-                            .severity(FraudSeverity.MEDIUM)
-                            .reason("HIGH_VALUE_ORDER")
-                            .reviewed(false)
-                            .build());
-                }
+            List<Order> candidates = orderRepository.findFraudCandidates(store.getId(), HIGH_VALUE, PaymentStatus.FAILED, since);
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            List<UUID> orderIds = candidates.stream().map(Order::getId).toList();
+            Set<String> flagged = fraudFlagRepository
+                    .findByOrderIdInAndReasonInAndDeletedFalse(orderIds, List.of(HIGH_VALUE_ORDER, FAILED_PAYMENT)).stream()
+                    .map(flag -> flag.getOrderId() + ":" + flag.getReason())
+                    .collect(Collectors.toSet());
 
+            List<FraudFlag> flags = new ArrayList<>();
+            for (Order order : candidates) {
+                if (order.getTotalAmount() != null && order.getTotalAmount().compareTo(HIGH_VALUE) >= 0
+                        && !flagged.contains(order.getId() + ":" + HIGH_VALUE_ORDER)) {
+                    flags.add(flag(store, order, FraudSeverity.MEDIUM, HIGH_VALUE_ORDER));
+                }
                 if (order.getPaymentStatus() == PaymentStatus.FAILED
-                        && !fraudFlagRepository.existsByOrderIdAndReasonAndDeletedFalse(order.getId(), "FAILED_PAYMENT")) {
-                    fraudFlagRepository.save(FraudFlag.builder()
-                            .storeId(store.getId())
-                            .orderId(order.getId())
-                            .customerId(order.getCustomerId())
-                            .severity(FraudSeverity.HIGH)
-                            .reason("FAILED_PAYMENT")
-                            .reviewed(false)
-                            .build());
+                        && !flagged.contains(order.getId() + ":" + FAILED_PAYMENT)) {
+                    flags.add(flag(store, order, FraudSeverity.HIGH, FAILED_PAYMENT));
                 }
             }
+            fraudFlagRepository.saveAll(flags);
         }
         log.debug("FraudDetectionJob cycle executed");
     }
+
+    private FraudFlag flag(Store store, Order order, FraudSeverity severity, String reason) {
+        return FraudFlag.builder()
+                .storeId(store.getId())
+                .orderId(order.getId())
+                .customerId(order.getCustomerId())
+                .severity(severity)
+                .reason(reason)
+                .reviewed(false)
+                .build();
+    }
 }
@@ -0,0 +1,38 @@
+package com.cartwave.jobs;
+
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.inventory.service.InventoryReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotSkuStockReconciliationJob {
+
+    private final InventoryReservationService reservationService;
+    private final HotSkuStockAllocator hotSkuStockAllocator;
+
+    @Value("${cartwave.inventory.hot-sku.apply-batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Apply paid flash-sale holds to {@code products.stock} in batches and keep this node's
+     * hot SKU pools topped up, heartbeated and in step with the products' flags.
+     */
+    @Scheduled(fixedDelayString = "${cartwave.jobs.hot-sku-reconcile-ms:1000}")
+    public void run() {
+        try {
+            int applied = reservationService.applyDeferredCommits(batchSize);
+            if (applied > 0) {
+                log.debug("HotSkuStockReconciliationJob applied {} paid holds", applied);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not apply paid hot SKU holds: {}", e.getMessage());
+        }
+        hotSkuStockAllocator.maintain();
+    }
+}
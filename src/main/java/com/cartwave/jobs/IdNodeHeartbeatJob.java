@@ -0,0 +1,25 @@
+package com.cartwave.jobs;
+
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdNodeHeartbeatJob {
+
+    private final SnowflakeIdGenerator idGenerator;
+
+    /** Keep this instance's Snowflake node id leased and its newest issued millisecond recorded. */
+    @Scheduled(fixedDelayString = "${cartwave.jobs.id-node-heartbeat-ms:10000}")
+    public void run() {
+        try {
+            idGenerator.heartbeat();
+        } catch (RuntimeException e) {
+            log.warn("Could not heartbeat id node {}: {}", idGenerator.nodeId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.cartwave.jobs;
+
+import com.cartwave.idempotency.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyService idempotencyService;
+
+    /** Remove idempotency keys whose replay window has passed. */
+    @Scheduled(cron = "${cartwave.jobs.idempotency-cleanup-cron:0 0 * * * *}")
+    public void run() {
+        int removed = idempotencyService.purgeExpired();
+        if (removed > 0) {
+            log.info("IdempotencyKeyCleanupJob removed {} expired keys", removed);
+        }
+    }
+}
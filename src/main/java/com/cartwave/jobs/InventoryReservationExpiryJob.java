@@ -0,0 +1,41 @@
+package com.cartwave.jobs;
+
+import com.cartwave.inventory.service.InventoryReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryReservationExpiryJob {
+
+    private final InventoryReservationService reservationService;
+
+    @Value("${cartwave.inventory.expiry-batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Release stock held for orders whose payment window has passed. Expired holds are found
+     * through a partial index over HELD rows only; each order settles in its own transaction.
+     */
+    @Scheduled(fixedDelayString = "${cartwave.jobs.reservation-expiry-ms:30000}")
+    public void run() {
+        List<UUID> orderIds = reservationService.findExpiredOrderIds(batchSize);
+        for (UUID orderId : orderIds) {
+            try {
+                reservationService.expire(orderId);
+            } catch (RuntimeException e) {
+                log.warn("Could not expire stock holds of order {}: {}", orderId, e.getMessage());
+            }
+        }
+        if (!orderIds.isEmpty()) {
+            log.debug("InventoryReservationExpiryJob released holds of {} orders", orderIds.size());
+        }
+    }
+}
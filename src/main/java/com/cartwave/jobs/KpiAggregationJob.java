@@ -14,6 +14,12 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -26,20 +32,24 @@ public class KpiAggregationJob {
     private final CustomerRepository customerRepository;
     private final BillingTransactionRepository billingTransactionRepository;
 
+    /** Refresh today's snapshot of every active store; all snapshots are written in one batch. */
     @Scheduled(cron = "${cartwave.jobs.kpi-aggregation-cron:0 */30 * * * *}")
     public void run() {
         LocalDate today = LocalDate.now();
+        Map<UUID, KpiSnapshot> existing = kpiSnapshotRepository.findBySnapshotDateAndDeletedFalse(today).stream()
+                .collect(Collectors.toMap(KpiSnapshot::getStoreId, Function.identity(), (first, second) -> first));
+        List<KpiSnapshot> snapshots = new ArrayList<>();
         for (Store store : storeRepository.findAllActive()) {
-            KpiSnapshot snapshot = kpiSnapshotRepository.findByStoreIdAndSnapshotDateAndDeletedFalse(store.getId(), today)
-                    .orElseGet(KpiSnapshot::new);
+            KpiSnapshot snapshot = existing.getOrDefault(store.getId(), new KpiSnapshot());
             snapshot.setStoreId(store.getId());
             snapshot.setScope("STORE");
             snapshot.setRevenue(defaultAmount(billingTransactionRepository.sumCapturedForStore(store.getId())));
             snapshot.setOrderCount(orderRepository.countByStoreIdAndDeletedFalse(store.getId()));
             snapshot.setCustomerCount(customerRepository.countByStoreIdAndDeletedFalse(store.getId()));
             snapshot.setSnapshotDate(today);
-            kpiSnapshotRepository.save(snapshot);
+            snapshots.add(snapshot);
         }
+        kpiSnapshotRepository.saveAll(snapshots);
         log.info("KPI aggregation cycle executed");
     }
 
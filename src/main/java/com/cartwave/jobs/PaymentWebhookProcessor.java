@@ -0,0 +1,69 @@
+package com.cartwave.jobs;
+
+import com.cartwave.payment.service.PaymentWebhookInbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentWebhookProcessor {
+
+    private final PaymentWebhookInbox webhookInbox;
+
+    @Value("${cartwave.payments.webhook.batch-size:100}")
+    private int batchSize;
+
+    @Value("${cartwave.payments.webhook.workers:8}")
+    private int workers;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("payment-webhook-", 1).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Apply stored payment webhooks. Each claimed batch holds at most one event per transaction
+     * and is spread over the worker pool; a full batch is followed straight away by the next
+     * one, which picks up the following event of each transaction just settled.
+     */
+    @Scheduled(fixedDelayString = "${cartwave.jobs.payment-webhook-ms:500}")
+    public void run() {
+        List<UUID> claimed;
+        do {
+            claimed = webhookInbox.claimDue(batchSize);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            List<Callable<Boolean>> tasks = claimed.stream()
+                    .<Callable<Boolean>>map(eventId -> () -> webhookInbox.process(eventId))
+                    .toList();
+            try {
+                executor.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                // Unfinished events are claimed again once their lease runs out
+                Thread.currentThread().interrupt();
+                return;
+            }
+            log.debug("PaymentWebhookProcessor applied a batch of {} webhook events", claimed.size());
+        } while (claimed.size() >= batchSize);
+    }
+}
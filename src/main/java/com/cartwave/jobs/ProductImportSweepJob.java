@@ -0,0 +1,24 @@
+package com.cartwave.jobs;
+
+import com.cartwave.product.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductImportSweepJob {
+
+    private final ProductImportService importService;
+
+    /** Fail product imports left queued or running by a node that went away. */
+    @Scheduled(cron = "${cartwave.jobs.product-import-sweep-cron:0 */5 * * * *}")
+    public void run() {
+        int failed = importService.failStaleJobs();
+        if (failed > 0) {
+            log.warn("ProductImportSweepJob failed {} stale product imports", failed);
+        }
+    }
+}
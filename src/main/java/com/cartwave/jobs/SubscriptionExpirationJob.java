@@ -1,5 +1,6 @@
 package com.cartwave.jobs;
 
+import com.cartwave.subscription.entity.Subscription;
 import com.cartwave.subscription.entity.SubscriptionStatus;
 import com.cartwave.subscription.repository.SubscriptionRepository;
 import com.cartwave.subscription.service.SubscriptionService;
@@ -8,6 +9,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -19,10 +22,9 @@ public class SubscriptionExpirationJob {
     @Scheduled(cron = "${cartwave.jobs.subscription-expiration-cron:0 0 * * * *}")
     public void run() {
         long now = System.currentTimeMillis();
-        subscriptionService.getExpirableSubscriptions(now).forEach(subscription -> {
-            subscription.setStatus(SubscriptionStatus.EXPIRED);
-            subscriptionRepository.save(subscription);
-            log.info("Expired subscription {}", subscription.getId());
-        });
+        List<Subscription> expired = subscriptionService.getExpirableSubscriptions(now);
+        expired.forEach(subscription -> subscription.setStatus(SubscriptionStatus.EXPIRED));
+        subscriptionRepository.saveAll(expired);
+        expired.forEach(subscription -> log.info("Expired subscription {}", subscription.getId()));
     }
 }
@@ -2,8 +2,12 @@ package com.cartwave.marketing.repository;
 
 import com.cartwave.marketing.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,4 +20,32 @@ public interface CouponRepository extends JpaRepository<Coupon, UUID> {
     Optional<Coupon> findByStoreIdAndCodeIgnoreCaseAndDeletedFalse(UUID storeId, String code);
 
     boolean existsByStoreIdAndCodeIgnoreCaseAndDeletedFalse(UUID storeId, String code);
+
+    /**
+     * Count one redemption if the coupon is still usable. The limit check and the increment are
+     * one statement, so concurrent checkouts can never push {@code usedCount} past {@code maxUses}.
+     *
+     * @return 1 if redeemed, 0 if the coupon is used up, expired, inactive or deleted
+     */
+    @Modifying
+    @Query("""
+            UPDATE Coupon c SET c.usedCount = c.usedCount + 1, c.updatedAt = :now
+            WHERE c.id = :id AND c.active = true AND c.deleted = false
+              AND (c.maxUses IS NULL OR c.usedCount < c.maxUses)
+              AND (c.expiresAt IS NULL OR c.expiresAt > :now)
+            """)
+    int redeem(@Param("id") UUID id, @Param("now") Instant now);
+
+    /** Give back a redemption of an order that was never paid. */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount - 1, c.updatedAt = :now WHERE c.id = :id AND c.usedCount > 0")
+    int releaseRedemption(@Param("id") UUID id, @Param("now") Instant now);
+
+    /**
+     * Count again a use given back when an order's payment failed or its hold expired, for a
+     * payment that went through after all. Unconditional: the order was paid at the discount.
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + 1, c.updatedAt = :now WHERE c.id = :id")
+    int reclaimRedemption(@Param("id") UUID id, @Param("now") Instant now);
 }
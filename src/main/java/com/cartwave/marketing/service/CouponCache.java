@@ -0,0 +1,122 @@
+package com.cartwave.marketing.service;
+
+import com.cartwave.marketing.entity.Coupon;
+import com.cartwave.marketing.entity.DiscountType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory, per-store index of coupon definitions by code, so storefront validation (called
+ * as the shopper types) and checkout pricing read no rows. Unknown codes are answered from the
+ * same index.
+ * <p>
+ * A store's index is replaced after a committed coupon write for that store and expires after
+ * {@code cartwave.coupons.cache-ttl-ms} so writes on other nodes become visible. The cached
+ * {@code usedCount} is only indicative: redemption re-checks the limit in the database.
+ */
+@Slf4j
+@Component
+public class CouponCache {
+
+    @Value("${cartwave.coupons.cache-ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${cartwave.coupons.max-stores:2000}")
+    private int maxStores;
+
+    private final Map<UUID, StoreCoupons> stores = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    /** The store's coupon with this code (case-insensitive), loading the store's coupons with {@code loader} when stale. */
+    public CachedCoupon find(UUID storeId, String code, Function<UUID, List<Coupon>> loader) {
+        if (code == null) {
+            return null;
+        }
+        return get(storeId, loader).byCode().get(normalize(code));
+    }
+
+    /** Drop a store's coupons once the surrounding transaction commits (or immediately if none). */
+    public void invalidateAfterCommit(UUID storeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(storeId);
+                }
+            });
+        } else {
+            invalidate(storeId);
+        }
+    }
+
+    public void invalidate(UUID storeId) {
+        versions.merge(storeId, 1L, Long::sum);
+        stores.remove(storeId);
+    }
+
+    static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private StoreCoupons get(UUID storeId, Function<UUID, List<Coupon>> loader) {
+        long now = System.currentTimeMillis();
+        StoreCoupons current = stores.get(storeId);
+        if (current != null && now - current.loadedAt() < cacheTtlMs) {
+            return current;
+        }
+
+        long version = versions.getOrDefault(storeId, 0L);
+        StoreCoupons fresh = new StoreCoupons(loader.apply(storeId).stream()
+                .map(CachedCoupon::of)
+                .collect(Collectors.toUnmodifiableMap(coupon -> normalize(coupon.code()), coupon -> coupon,
+                        (first, second) -> first)), now);
+        if (current == null && stores.size() >= maxStores) {
+            evictOldest();
+        }
+        // A load racing an invalidation is served to its caller but never installed
+        stores.compute(storeId, (id, existing) -> versions.getOrDefault(id, 0L) == version ? fresh : existing);
+        return fresh;
+    }
+
+    private void evictOldest() {
+        stores.values().stream()
+                .min(Comparator.comparingLong(StoreCoupons::loadedAt))
+                .ifPresent(oldest -> stores.values().remove(oldest));
+        log.debug("Coupon cache full ({} stores), evicted oldest entry", maxStores);
+    }
+
+    private record StoreCoupons(Map<String, CachedCoupon> byCode, long loadedAt) {
+    }
+
+    /** Immutable copy of a coupon's definition. */
+    public record CachedCoupon(UUID id,
+                               String code,
+                               DiscountType discountType,
+                               BigDecimal discountValue,
+                               BigDecimal minOrderValue,
+                               Integer maxUses,
+                               int usedCount,
+                               Instant expiresAt,
+                               boolean active) {
+
+        static CachedCoupon of(Coupon coupon) {
+            return new CachedCoupon(coupon.getId(), coupon.getCode(), coupon.getDiscountType(), coupon.getDiscountValue(),
+                    coupon.getMinOrderValue(), coupon.getMaxUses(), coupon.getUsedCount(), coupon.getExpiresAt(),
+                    Boolean.TRUE.equals(coupon.getActive()));
+        }
+    }
+}
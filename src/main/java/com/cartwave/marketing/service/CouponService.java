@@ -9,6 +9,8 @@ import com.cartwave.marketing.dto.CouponValidateResponse;
 import com.cartwave.marketing.entity.Coupon;
 import com.cartwave.marketing.entity.DiscountType;
 import com.cartwave.marketing.repository.CouponRepository;
+import com.cartwave.marketing.service.CouponCache.CachedCoupon;
+import com.cartwave.order.entity.Order;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,6 +29,7 @@ import java.util.UUID;
 public class CouponService {
 
     private final CouponRepository couponRepository;
+    private final CouponCache couponCache;
 
     public CouponResponse createCoupon(UUID storeId, CouponRequest request) {
         if (couponRepository.existsByStoreIdAndCodeIgnoreCaseAndDeletedFalse(storeId, request.getCode())) {
@@ -43,6 +46,7 @@ public class CouponService {
                 .active(true)
                 .usedCount(0)
                 .build();
+        couponCache.invalidateAfterCommit(storeId);
         return toDto(couponRepository.save(coupon));
     }
 
@@ -59,52 +63,91 @@ public class CouponService {
         }
         coupon.setDeleted(true);
         couponRepository.save(coupon);
+        couponCache.invalidateAfterCommit(storeId);
     }
 
     @Transactional(readOnly = true)
     public CouponValidateResponse validateCoupon(CouponValidateRequest request) {
-        Coupon coupon = couponRepository
-                .findByStoreIdAndCodeIgnoreCaseAndDeletedFalse(request.getStoreId(), request.getCode())
-                .orElse(null);
-
-        if (coupon == null || !coupon.getActive()) {
-            return CouponValidateResponse.builder().valid(false).code(request.getCode()).message("Coupon not found or inactive.").build();
-        }
-        if (coupon.getExpiresAt() != null && coupon.getExpiresAt().isBefore(Instant.now())) {
-            return CouponValidateResponse.builder().valid(false).code(request.getCode()).message("Coupon has expired.").build();
-        }
-        if (coupon.getMaxUses() != null && coupon.getUsedCount() >= coupon.getMaxUses()) {
-            return CouponValidateResponse.builder().valid(false).code(request.getCode()).message("Coupon usage limit reached.").build();
-        }
-        if (coupon.getMinOrderValue() != null && request.getOrderAmount().compareTo(coupon.getMinOrderValue()) < 0) {
-            return CouponValidateResponse.builder().valid(false).code(request.getCode())
-                    .message(String.format("Minimum order value of ₦%.2f required.", coupon.getMinOrderValue())).build();
+        CachedCoupon coupon = couponCache.find(request.getStoreId(), request.getCode(),
+                couponRepository::findAllByStoreIdAndDeletedFalse);
+        String rejection = rejection(coupon, request.getOrderAmount());
+        if (rejection != null) {
+            return CouponValidateResponse.builder().valid(false).code(request.getCode()).message(rejection).build();
         }
 
-        BigDecimal discountAmount = computeDiscount(coupon.getDiscountType(), coupon.getDiscountValue(), request.getOrderAmount());
+        BigDecimal discountAmount = computeDiscount(coupon.discountType(), coupon.discountValue(), request.getOrderAmount());
         BigDecimal finalAmount = request.getOrderAmount().subtract(discountAmount).max(BigDecimal.ZERO);
 
         return CouponValidateResponse.builder()
                 .valid(true)
-                .code(coupon.getCode())
-                .discountType(coupon.getDiscountType().name())
-                .discountValue(coupon.getDiscountValue())
+                .code(coupon.code())
+                .discountType(coupon.discountType().name())
+                .discountValue(coupon.discountValue())
                 .discountAmount(discountAmount)
                 .finalOrderAmount(finalAmount)
                 .message("Coupon applied successfully.")
                 .build();
     }
 
-    /** Increment usedCount when coupon is applied at checkout */
-    public void applyCoupon(UUID storeId, String code) {
-        couponRepository.findByStoreIdAndCodeIgnoreCaseAndDeletedFalse(storeId, code).ifPresent(coupon -> {
-            coupon.setUsedCount(coupon.getUsedCount() + 1);
-            couponRepository.save(coupon);
-        });
+    /**
+     * Check a coupon for an order of {@code orderAmount} and work out its discount, without
+     * counting a use. Checkout calls {@link #redeem} once the order is otherwise complete.
+     */
+    public CachedCoupon requireApplicable(UUID storeId, String code, BigDecimal orderAmount) {
+        CachedCoupon coupon = couponCache.find(storeId, code, couponRepository::findAllByStoreIdAndDeletedFalse);
+        String rejection = rejection(coupon, orderAmount);
+        if (rejection != null) {
+            throw new BusinessException("COUPON_NOT_APPLICABLE", rejection);
+        }
+        return coupon;
+    }
+
+    public BigDecimal discountFor(CachedCoupon coupon, BigDecimal orderAmount) {
+        return computeDiscount(coupon.discountType(), coupon.discountValue(), orderAmount);
+    }
+
+    /**
+     * Count one use of a coupon with a single conditional update. Run it late in the checkout
+     * transaction: the coupon row stays locked until that transaction ends.
+     */
+    public void redeem(CachedCoupon coupon) {
+        if (couponRepository.redeem(coupon.id(), Instant.now()) == 0) {
+            throw new BusinessException("COUPON_NOT_APPLICABLE", "Coupon usage limit reached or coupon no longer available.");
+        }
+    }
+
+    /** Give back the use counted for an order whose payment failed or never came. */
+    public void releaseRedemption(Order order) {
+        if (order.getCouponId() != null) {
+            couponRepository.releaseRedemption(order.getCouponId(), Instant.now());
+        }
+    }
+
+    /** Count the use of an order paid after its use was given back by {@link #releaseRedemption}. */
+    public void reclaimRedemption(Order order) {
+        if (order.getCouponId() != null) {
+            couponRepository.reclaimRedemption(order.getCouponId(), Instant.now());
+        }
     }
 
     // ── helpers ───────────────────────────────────────────────────────────────
 
+    private String rejection(CachedCoupon coupon, BigDecimal orderAmount) {
+        if (coupon == null || !coupon.active()) {
+            return "Coupon not found or inactive.";
+        }
+        if (coupon.expiresAt() != null && coupon.expiresAt().isBefore(Instant.now())) {
+            return "Coupon has expired.";
+        }
+        if (coupon.maxUses() != null && coupon.usedCount() >= coupon.maxUses()) {
+            return "Coupon usage limit reached.";
+        }
+        if (coupon.minOrderValue() != null && orderAmount.compareTo(coupon.minOrderValue()) < 0) {
+            return String.format("Minimum order value of ₦%.2f required.", coupon.minOrderValue());
+        }
+        return null;
+    }
+
     private BigDecimal computeDiscount(DiscountType type, BigDecimal value, BigDecimal orderAmount) {
         return switch (type) {
             case PERCENT -> orderAmount.multiply(value).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
@@ -1,18 +1,31 @@
 package com.cartwave.order.controller;
 
 import com.cartwave.common.dto.ApiResponse;
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.io.ExportFormat;
+import com.cartwave.order.dto.OrderBulkStatusRequest;
+import com.cartwave.order.dto.OrderBulkStatusResponse;
 import com.cartwave.order.dto.OrderDTO;
+import com.cartwave.order.dto.OrderDetailDTO;
+import com.cartwave.order.dto.OrderEventDTO;
+import com.cartwave.order.dto.OrderListRequest;
+import com.cartwave.order.dto.OrderSearchRequest;
 import com.cartwave.order.dto.OrderStatusUpdateRequest;
+import com.cartwave.order.dto.OrderSummaryDTO;
+import com.cartwave.order.service.OrderExportService;
 import com.cartwave.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,6 +36,7 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
     @Operation(summary = "Get order by ID")
     @GetMapping("/{orderId}")
@@ -31,11 +45,48 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order retrieved successfully", orderService.getOrderById(orderId)));
     }
 
-    @Operation(summary = "List orders for the current tenant/store")
+    @Operation(summary = "Get an order with its items, payment, billing transaction and escrow")
+    @GetMapping("/{orderId}/detail")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<OrderDetailDTO>> getOrderDetail(@PathVariable UUID orderId) {
+        return ResponseEntity.ok(ApiResponse.success("Order retrieved successfully", orderService.getOrderDetail(orderId)));
+    }
+
+    @Operation(summary = "Get the history of an order",
+            description = "Status, payment, escrow and refund changes, oldest first, with who made them.")
+    @GetMapping("/{orderId}/timeline")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<OrderEventDTO>>> getOrderTimeline(@PathVariable UUID orderId) {
+        return ResponseEntity.ok(ApiResponse.success("Order timeline retrieved successfully", orderService.getOrderTimeline(orderId)));
+    }
+
+    @Operation(summary = "List orders for the current tenant/store",
+            description = "Cursor paginated order summaries, newest first. Optional filters: status, paymentStatus, from, to. "
+                    + "Set includeItems=true to embed each order's lines.")
     @GetMapping
     @PreAuthorize("hasAnyRole('CUSTOMER', 'BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> listOrders() {
-        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.getOrdersByStore()));
+    public ResponseEntity<ApiResponse<CursorPage<OrderSummaryDTO>>> listOrders(OrderListRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.listOrders(request)));
+    }
+
+    @Operation(summary = "Search the current store's orders",
+            description = "Matches q against order numbers, customer emails and phone numbers. "
+                    + "Cursor paginated, newest first; accepts the same filters as the listing.")
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<OrderSummaryDTO>>> searchOrders(OrderSearchRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.searchOrders(request)));
+    }
+
+    @Operation(summary = "Export the store's order history as CSV or JSONL (streamed)")
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
+    public void exportOrders(@RequestParam(defaultValue = "csv") String format,
+                             HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        response.setContentType(exportFormat.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.extension() + "\"");
+        orderExportService.export(exportFormat, response.getOutputStream());
     }
 
     @Operation(summary = "Create an order")
@@ -66,6 +117,17 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order status updated successfully", orderService.updateStatus(orderId, request.getStatus())));
     }
 
+    @Operation(summary = "Update the status of many orders at once",
+            description = "Orders that are not found, already in the status, or cannot make the transition are "
+                    + "skipped and listed with the reason; the rest are updated together.")
+    @PatchMapping("/status")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<OrderBulkStatusResponse>> bulkUpdateOrderStatus(
+            @Valid @RequestBody OrderBulkStatusRequest request
+    ) {
+        return ResponseEntity.ok(ApiResponse.success("Order statuses updated successfully", orderService.bulkUpdateStatus(request)));
+    }
+
     @Operation(summary = "Update order status (PUT, alias)")
     @PutMapping("/{orderId}/status")
     @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
@@ -76,17 +138,23 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order status updated successfully", orderService.updateStatus(orderId, request.getStatus())));
     }
 
-    @Operation(summary = "Get all orders for a store (BUSINESS_OWNER / ADMIN)")
+    @Operation(summary = "List orders of a store (BUSINESS_OWNER / ADMIN)",
+            description = "Cursor paginated order summaries, newest first. Optional filters: status, paymentStatus, from, to. "
+                    + "Set includeItems=true to embed each order's lines.")
     @GetMapping("/store/{storeId}")
     @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getOrdersByStore(@PathVariable UUID storeId) {
-        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.getOrdersByStoreId(storeId)));
+    public ResponseEntity<ApiResponse<CursorPage<OrderSummaryDTO>>> getOrdersByStore(@PathVariable UUID storeId,
+                                                                                    OrderListRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.listStoreOrders(storeId, request)));
     }
 
-    @Operation(summary = "Get all orders for a customer")
+    @Operation(summary = "List orders of a customer",
+            description = "Cursor paginated order summaries, newest first. Optional filters: status, paymentStatus, from, to. "
+                    + "Set includeItems=true to embed each order's lines.")
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getOrdersByCustomer(@PathVariable UUID customerId) {
-        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.getOrdersByCustomerId(customerId)));
+    public ResponseEntity<ApiResponse<CursorPage<OrderSummaryDTO>>> getOrdersByCustomer(@PathVariable UUID customerId,
+                                                                                       OrderListRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orderService.listCustomerOrders(customerId, request)));
     }
 }
@@ -0,0 +1,20 @@
+package com.cartwave.order.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class OrderBulkStatusRequest {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<UUID> orderIds;
+
+    @NotBlank
+    private String status;
+}
@@ -0,0 +1,31 @@
+package com.cartwave.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Outcome of a bulk status update: the orders moved, and why each of the others was not. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBulkStatusResponse {
+
+    private String status;
+    private List<UUID> updated;
+    private List<Skipped> skipped;
+
+    /** {@code reason} is ORDER_NOT_FOUND, ALREADY_IN_STATUS or TRANSITION_NOT_ALLOWED. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Skipped {
+        private UUID orderId;
+        private String currentStatus;
+        private String reason;
+    }
+}
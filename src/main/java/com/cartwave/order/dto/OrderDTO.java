@@ -23,6 +23,7 @@ public class OrderDTO {
     private BigDecimal shippingCost;
     private BigDecimal taxAmount;
     private BigDecimal discountAmount;
+    private String couponCode;
     private String status;
     private String paymentStatus;
     private String deliveryAddress;
@@ -0,0 +1,28 @@
+package com.cartwave.order.dto;
+
+import com.cartwave.billing.dto.BillingTransactionDTO;
+import com.cartwave.escrow.dto.EscrowTransactionDTO;
+import com.cartwave.payment.dto.PaymentDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the merchant order page shows in one payload. {@code payment}, {@code billingTransaction}
+ * and {@code escrow} are {@code null} until checkout, payment or escrow have created them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDetailDTO {
+
+    private OrderDTO order;
+    private List<OrderItemDTO> items;
+    private PaymentDTO payment;
+    private BillingTransactionDTO billingTransaction;
+    private EscrowTransactionDTO escrow;
+}
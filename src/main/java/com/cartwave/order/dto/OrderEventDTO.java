@@ -0,0 +1,27 @@
+package com.cartwave.order.dto;
+
+import com.cartwave.order.entity.OrderEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** One entry of an order's timeline. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventDTO {
+
+    private UUID id;
+    private OrderEventType type;
+    private String from;
+    private String to;
+    private String detail;
+    private UUID actorId;
+    private String actorRole;
+    private Instant occurredAt;
+}
@@ -0,0 +1,28 @@
+package com.cartwave.order.dto;
+
+import com.cartwave.common.pagination.KeysetCursor;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/** Query parameters of the order listings: a cursor slice plus optional filters. */
+@Data
+public class OrderListRequest {
+
+    private String cursor;
+    private int size = KeysetCursor.DEFAULT_PAGE_SIZE;
+    private String status;
+    private String paymentStatus;
+
+    /** Created at or after (ISO-8601 instant). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    /** Created before (ISO-8601 instant). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    /** Embed each order's lines in the page (one extra query for the whole page). */
+    private boolean includeItems;
+}
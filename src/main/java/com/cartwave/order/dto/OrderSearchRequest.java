@@ -0,0 +1,13 @@
+package com.cartwave.order.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/** Order listing parameters plus the search term. */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class OrderSearchRequest extends OrderListRequest {
+
+    /** Fragment of an order number, customer email or phone number; at least 3 characters. */
+    private String q;
+}
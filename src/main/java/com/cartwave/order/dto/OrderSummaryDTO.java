@@ -0,0 +1,41 @@
+package com.cartwave.order.dto;
+
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/** One row of an order listing: only the columns a list shows, never the TEXT address or notes. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    private UUID id;
+    private String orderNumber;
+    private UUID customerId;
+    private String customerEmail;
+    private BigDecimal totalAmount;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private Instant createdAt;
+
+    /** Order lines; only filled when the listing was asked to {@code includeItems}. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<OrderItemDTO> items;
+
+    /** Listing projection; see {@code OrderRepositoryCustomImpl}. */
+    public OrderSummaryDTO(UUID id, String orderNumber, UUID customerId, String customerEmail, BigDecimal totalAmount,
+                           OrderStatus status, PaymentStatus paymentStatus, Instant createdAt) {
+        this(id, orderNumber, customerId, customerEmail, totalAmount, status, paymentStatus, createdAt, null);
+    }
+}
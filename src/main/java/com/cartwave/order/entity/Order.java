@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
@@ -12,7 +13,12 @@ import java.util.UUID;
         @Index(name = "idx_orders_store_id", columnList = "store_id"),
         @Index(name = "idx_orders_customer_id", columnList = "customer_id"),
         @Index(name = "idx_orders_status", columnList = "status"),
-        @Index(name = "idx_orders_deleted", columnList = "deleted")
+        @Index(name = "idx_orders_deleted", columnList = "deleted"),
+        @Index(name = "idx_orders_store_created", columnList = "store_id, created_at DESC, id DESC"),
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, store_id, created_at DESC, id DESC"),
+        @Index(name = "idx_orders_store_status_created", columnList = "store_id, status, created_at DESC, id DESC"),
+        @Index(name = "idx_orders_store_payment_created", columnList = "store_id, payment_status, created_at DESC, id DESC"),
+        @Index(name = "idx_orders_customer_only_created", columnList = "customer_id, created_at DESC, id DESC")
 })
 @Data
 @Builder
@@ -42,6 +48,13 @@ public class Order extends BaseEntity {
     @Column(precision = 19, scale = 2)
     private BigDecimal discountAmount;
 
+    @Column(length = 64)
+    private String couponCode;
+
+    /** The coupon whose use {@link #couponCode} counted; a released use is given back to it. */
+    @Column
+    private UUID couponId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 50)
     private OrderStatus status;
@@ -59,6 +72,14 @@ public class Order extends BaseEntity {
     @Column(length = 20)
     private String customerPhoneNumber;
 
+    /** Lower-cased, trimmed {@link #customerEmail}; what order search matches. */
+    @Column(length = 255)
+    private String customerEmailNormalized;
+
+    /** Digits of {@link #customerPhoneNumber}; what order search matches. */
+    @Column(length = 20)
+    private String customerPhoneNormalized;
+
     @Column(columnDefinition = "TEXT")
     private String notes;
 
@@ -68,4 +89,23 @@ public class Order extends BaseEntity {
     @Column
     private Long releaseAt;
 
+    @PrePersist
+    @PreUpdate
+    void normalizeContact() {
+        customerEmailNormalized = normalizeEmail(customerEmail);
+        customerPhoneNormalized = normalizePhone(customerPhoneNumber);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
+    }
+
 }
@@ -0,0 +1,51 @@
+package com.cartwave.order.entity;
+
+import com.cartwave.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+/**
+ * One change to an order, e.g. {@code STATUS} from {@code SHIPPED} to {@code DELIVERED}. Never
+ * updated: the history is the sequence of rows. {@code actorId} is {@code null} for changes
+ * made by the system, such as payment webhooks and scheduled jobs.
+ */
+@Entity
+@Immutable
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_timeline", columnList = "store_id, order_id, created_at, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class OrderEvent extends BaseEntity {
+
+    @Column(nullable = false)
+    private UUID storeId;
+
+    @Column(nullable = false)
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderEventType type;
+
+    @Column(length = 50)
+    private String fromValue;
+
+    @Column(length = 50)
+    private String toValue;
+
+    @Column(length = 500)
+    private String detail;
+
+    @Column
+    private UUID actorId;
+
+    @Column(length = 50)
+    private String actorRole;
+}
@@ -0,0 +1,9 @@
+package com.cartwave.order.entity;
+
+public enum OrderEventType {
+    PLACED,
+    STATUS,
+    PAYMENT,
+    ESCROW,
+    REFUND
+}
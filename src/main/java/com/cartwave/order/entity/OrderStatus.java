@@ -7,5 +7,17 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    REFUNDED
+    REFUNDED;
+
+    /** Whether a bulk update may move an order from this status to {@code next}. */
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == PROCESSING || next == CANCELLED;
+            case CONFIRMED -> next == PROCESSING || next == SHIPPED || next == CANCELLED;
+            case PROCESSING -> next == SHIPPED || next == CANCELLED;
+            case SHIPPED -> next == DELIVERED;
+            case DELIVERED -> next == REFUNDED;
+            case CANCELLED, REFUNDED -> false;
+        };
+    }
 }
@@ -13,6 +13,9 @@ public interface OrderMapper {
     @Mapping(target = "storeId", ignore = true)
     @Mapping(target = "customerPhoneNumber", ignore = true)
     @Mapping(target = "completedAt", ignore = true)
+    @Mapping(target = "couponId", ignore = true)
+    @Mapping(target = "customerEmailNormalized", ignore = true)
+    @Mapping(target = "customerPhoneNormalized", ignore = true)
     Order toOrder(OrderDTO orderDTO);
 
 }
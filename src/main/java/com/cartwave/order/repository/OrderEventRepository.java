@@ -0,0 +1,25 @@
+package com.cartwave.order.repository;
+
+import com.cartwave.order.dto.OrderEventDTO;
+import com.cartwave.order.entity.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, UUID> {
+
+    /** Oldest first, straight into DTOs; one range of idx_order_events_timeline. */
+    @Query("""
+        SELECT new com.cartwave.order.dto.OrderEventDTO(
+            e.id, e.type, e.fromValue, e.toValue, e.detail, e.actorId, e.actorRole, e.createdAt)
+        FROM OrderEvent e
+        WHERE e.storeId = :storeId AND e.orderId = :orderId AND e.deleted = false
+        ORDER BY e.createdAt, e.id
+    """)
+    List<OrderEventDTO> findTimeline(@Param("storeId") UUID storeId, @Param("orderId") UUID orderId);
+}
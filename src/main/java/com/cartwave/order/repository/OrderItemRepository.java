@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,4 +15,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
 
     @Query("SELECT oi FROM OrderItem oi WHERE oi.orderId = :orderId AND oi.deleted = false")
     List<OrderItem> findByOrderId(@Param("orderId") UUID orderId);
+
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.orderId IN :orderIds AND oi.deleted = false ORDER BY oi.createdAt, oi.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
 }
@@ -0,0 +1,29 @@
+package com.cartwave.order.repository;
+
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Which orders a listing shows. {@code storeId} or {@code customerId} scopes it (a customer
+ * belongs to one store, so either narrows to a single index range); every other field is
+ * optional. {@code from} is inclusive, {@code to} exclusive.
+ * <p>
+ * {@code search} matches a fragment of the order number, the normalized customer email, or,
+ * when it looks like a phone number, the normalized phone number.
+ */
+public record OrderListFilter(UUID storeId,
+                              UUID customerId,
+                              OrderStatus status,
+                              PaymentStatus paymentStatus,
+                              Instant from,
+                              Instant to,
+                              String search) {
+
+    public OrderListFilter(UUID storeId, UUID customerId, OrderStatus status, PaymentStatus paymentStatus,
+                           Instant from, Instant to) {
+        this(storeId, customerId, status, paymentStatus, from, to, null);
+    }
+}
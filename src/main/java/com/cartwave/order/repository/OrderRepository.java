@@ -1,36 +1,49 @@
 package com.cartwave.order.repository;
 
 import com.cartwave.order.entity.Order;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, OrderRepositoryCustom {
 
     @Query("SELECT o FROM Order o WHERE o.id = :id AND o.storeId = :storeId AND o.deleted = false")
     Optional<Order> findByIdAndStoreId(@Param("id") UUID id, @Param("storeId") UUID storeId);
 
-    @Query("SELECT o FROM Order o WHERE o.storeId = :storeId AND o.deleted = false")
-    Page<Order> findByStoreId(@Param("storeId") UUID storeId, Pageable pageable);
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.storeId = :storeId AND o.deleted = false AND o.updatedAt >= :since
+              AND (o.totalAmount >= :highValue OR o.paymentStatus = :paymentStatus)
+            """)
+    List<Order> findFraudCandidates(@Param("storeId") UUID storeId,
+                                    @Param("highValue") BigDecimal highValue,
+                                    @Param("paymentStatus") PaymentStatus paymentStatus,
+                                    @Param("since") Instant since);
 
     @Query("SELECT o FROM Order o WHERE o.orderNumber = :orderNumber AND o.storeId = :storeId AND o.deleted = false")
     Optional<Order> findByOrderNumberAndStoreId(@Param("orderNumber") String orderNumber, @Param("storeId") UUID storeId);
 
-    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId AND o.storeId = :storeId AND o.deleted = false ORDER BY o.createdAt DESC")
-    List<Order> findByCustomerIdAndStoreId(@Param("customerId") UUID customerId, @Param("storeId") UUID storeId);
-
     long countByStoreIdAndDeletedFalse(UUID storeId);
 
-    long countByStatusAndStoreIdAndDeletedFalse(com.cartwave.order.entity.OrderStatus status, UUID storeId);
+    long countByStatusAndStoreIdAndDeletedFalse(OrderStatus status, UUID storeId);
 
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.storeId = :storeId AND o.deleted = false AND o.paymentStatus IN ('COMPLETED', 'PARTIALLY_REFUNDED')")
     BigDecimal sumRevenueForStore(@Param("storeId") UUID storeId);
@@ -40,9 +53,44 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     long countByDeletedFalse();
 
-    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId AND o.deleted = false ORDER BY o.createdAt DESC")
-    List<Order> findByCustomerId(@Param("customerId") UUID customerId);
+    // ── Bulk status transitions ─────────────────────────────────────────────
+
+    /** Locks the rows in id order, so overlapping bulk updates cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT new com.cartwave.order.repository.OrderStatusRow(o.id, o.status, o.paymentStatus, o.customerEmail)
+        FROM Order o
+        WHERE o.id IN :ids AND o.storeId = :storeId AND o.deleted = false
+        ORDER BY o.id
+    """)
+    List<OrderStatusRow> lockStatusRows(@Param("ids") Collection<UUID> ids, @Param("storeId") UUID storeId);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now WHERE o.id IN :ids AND o.storeId = :storeId")
+    int updateStatus(@Param("ids") Collection<UUID> ids,
+                     @Param("storeId") UUID storeId,
+                     @Param("status") OrderStatus status,
+                     @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.completedAt = :completedAt WHERE o.id IN :ids AND o.storeId = :storeId")
+    int markCompleted(@Param("ids") Collection<UUID> ids,
+                      @Param("storeId") UUID storeId,
+                      @Param("completedAt") long completedAt);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.releaseAt = :releaseAt WHERE o.id IN :ids AND o.storeId = :storeId")
+    int scheduleRelease(@Param("ids") Collection<UUID> ids,
+                        @Param("storeId") UUID storeId,
+                        @Param("releaseAt") long releaseAt);
+
+    // ── Streaming export ────────────────────────────────────────────────────
 
-    @Query("SELECT o FROM Order o WHERE o.storeId = :storeId AND o.deleted = false ORDER BY o.createdAt DESC")
-    List<Order> findAllByStoreId(@Param("storeId") UUID storeId);
+    /** Cursor-backed stream for exports; must be consumed inside a transaction and closed. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.storeId = :storeId AND o.deleted = false ORDER BY o.createdAt, o.id")
+    Stream<Order> streamAllByStoreId(@Param("storeId") UUID storeId);
 }
@@ -0,0 +1,19 @@
+package com.cartwave.order.repository;
+
+import com.cartwave.common.pagination.KeysetCursor;
+import com.cartwave.order.dto.OrderSummaryDTO;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * One keyset slice of order summaries, newest first ({@code createdAt DESC, id DESC}),
+     * selecting only the summary columns. Only the predicates of the filter fields that are set
+     * are emitted, so each combination matches one of the composite order indexes.
+     *
+     * @param after resume strictly after this position; {@code null} for the first slice
+     * @param limit rows to fetch, normally {@code size + 1} for the look-ahead row
+     */
+    List<OrderSummaryDTO> findSummaries(OrderListFilter filter, KeysetCursor after, int limit);
+}
@@ -0,0 +1,81 @@
+package com.cartwave.order.repository;
+
+import com.cartwave.common.pagination.KeysetCursor;
+import com.cartwave.order.dto.OrderSummaryDTO;
+import com.cartwave.order.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final String SELECT_SUMMARY = """
+            SELECT new com.cartwave.order.dto.OrderSummaryDTO(
+                o.id, o.orderNumber, o.customerId, o.customerEmail, o.totalAmount, o.status, o.paymentStatus, o.createdAt)
+            FROM Order o
+            WHERE o.deleted = false""";
+
+    private static final Pattern PHONE_LIKE = Pattern.compile("[\\d\\s()+.-]+");
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<OrderSummaryDTO> findSummaries(OrderListFilter filter, KeysetCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        where(jpql, parameters, "o.storeId = :storeId", "storeId", filter.storeId());
+        where(jpql, parameters, "o.customerId = :customerId", "customerId", filter.customerId());
+        where(jpql, parameters, "o.status = :status", "status", filter.status());
+        where(jpql, parameters, "o.paymentStatus = :paymentStatus", "paymentStatus", filter.paymentStatus());
+        where(jpql, parameters, "o.createdAt >= :from", "from", filter.from());
+        where(jpql, parameters, "o.createdAt < :to", "to", filter.to());
+        if (filter.search() != null) {
+            search(jpql, parameters, filter.search());
+        }
+        if (after != null) {
+            jpql.append(" AND (o.createdAt < :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))");
+            parameters.put("afterCreatedAt", after.createdAt());
+            parameters.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<OrderSummaryDTO> query = entityManager.createQuery(jpql.toString(), OrderSummaryDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Substring match on the trigram-indexed search columns. Wildcards typed by the user are
+     * escaped; the phone column is only searched when the term looks like a phone number.
+     */
+    private static void search(StringBuilder jpql, Map<String, Object> parameters, String term) {
+        jpql.append(" AND (UPPER(o.orderNumber) LIKE :numberPattern ESCAPE '\\'")
+                .append(" OR o.customerEmailNormalized LIKE :emailPattern ESCAPE '\\'");
+        parameters.put("numberPattern", contains(term.toUpperCase(Locale.ROOT)));
+        parameters.put("emailPattern", contains(Order.normalizeEmail(term)));
+        String digits = Order.normalizePhone(term);
+        if (digits != null && PHONE_LIKE.matcher(term).matches()) {
+            jpql.append(" OR o.customerPhoneNormalized LIKE :phonePattern");
+            parameters.put("phonePattern", contains(digits));
+        }
+        jpql.append(")");
+    }
+
+    private static String contains(String value) {
+        return "%" + value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static void where(StringBuilder jpql, Map<String, Object> parameters, String predicate, String name, Object value) {
+        if (value != null) {
+            jpql.append(" AND ").append(predicate);
+            parameters.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cartwave.order.repository;
+
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+
+import java.util.UUID;
+
+/** The columns a status transition reads: enough to validate it and notify the customer. */
+public record OrderStatusRow(UUID id,
+                             OrderStatus status,
+                             PaymentStatus paymentStatus,
+                             String customerEmail) {
+}
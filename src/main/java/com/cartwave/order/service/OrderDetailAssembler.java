@@ -0,0 +1,110 @@
+package com.cartwave.order.service;
+
+import com.cartwave.billing.entity.BillingTransaction;
+import com.cartwave.billing.repository.BillingTransactionRepository;
+import com.cartwave.billing.service.BillingService;
+import com.cartwave.escrow.entity.EscrowTransaction;
+import com.cartwave.escrow.repository.EscrowTransactionRepository;
+import com.cartwave.escrow.service.EscrowService;
+import com.cartwave.order.dto.OrderDTO;
+import com.cartwave.order.dto.OrderDetailDTO;
+import com.cartwave.order.dto.OrderItemDTO;
+import com.cartwave.order.entity.OrderItem;
+import com.cartwave.order.repository.OrderItemRepository;
+import com.cartwave.payment.dto.PaymentDTO;
+import com.cartwave.payment.entity.Payment;
+import com.cartwave.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Joins orders with their lines, payment, billing transaction and escrow. Each related table
+ * is read once for the whole batch of order ids, so a page of orders costs the same number
+ * of queries as a single one.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderDetailAssembler {
+
+    private final OrderItemRepository orderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final BillingTransactionRepository billingTransactionRepository;
+    private final EscrowTransactionRepository escrowTransactionRepository;
+    private final BillingService billingService;
+    private final EscrowService escrowService;
+
+    /** Details of {@code orders}, in the same order. */
+    public List<OrderDetailDTO> assemble(List<OrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> orderIds = orders.stream().map(OrderDTO::getId).toList();
+        Map<UUID, List<OrderItemDTO>> items = itemsByOrder(orderIds);
+        // Newest first: a retried payment leaves earlier rows behind, the latest one is current
+        Map<UUID, Payment> payments = latestByOrder(paymentRepository.findByOrderIdIn(orderIds), Payment::getOrderId);
+        Map<UUID, BillingTransaction> billing = latestByOrder(billingTransactionRepository.findByOrderIdIn(orderIds),
+                BillingTransaction::getOrderId);
+        Map<UUID, EscrowTransaction> escrow = latestByOrder(escrowTransactionRepository.findByOrderIdIn(orderIds),
+                EscrowTransaction::getOrderId);
+
+        return orders.stream()
+                .map(order -> OrderDetailDTO.builder()
+                        .order(order)
+                        .items(items.getOrDefault(order.getId(), List.of()))
+                        .payment(toDto(payments.get(order.getId())))
+                        .billingTransaction(billing.containsKey(order.getId()) ? billingService.toDto(billing.get(order.getId())) : null)
+                        .escrow(escrow.containsKey(order.getId()) ? escrowService.toDto(escrow.get(order.getId())) : null)
+                        .build())
+                .toList();
+    }
+
+    /** Lines of every order in {@code orderIds}, in one query. */
+    public Map<UUID, List<OrderItemDTO>> itemsByOrder(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        return orderItemRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId,
+                        Collectors.mapping(OrderDetailAssembler::toDto, Collectors.toList())));
+    }
+
+    private static <T> Map<UUID, T> latestByOrder(List<T> newestFirst, Function<T, UUID> orderId) {
+        return newestFirst.stream().collect(Collectors.toMap(orderId, row -> row, (latest, older) -> latest));
+    }
+
+    private static OrderItemDTO toDto(OrderItem item) {
+        return OrderItemDTO.builder()
+                .id(item.getId())
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .unitPrice(item.getUnitPrice())
+                .lineTotal(item.getLineTotal())
+                .build();
+    }
+
+    private static PaymentDTO toDto(Payment payment) {
+        if (payment == null) {
+            return null;
+        }
+        return PaymentDTO.builder()
+                .id(payment.getId())
+                .orderId(payment.getOrderId())
+                .transactionId(payment.getTransactionId())
+                .providerReference(payment.getProviderReference())
+                .status(payment.getStatus() == null ? null : payment.getStatus().name())
+                .amount(payment.getAmount())
+                .currency(payment.getCurrency())
+                .paymentMethod(payment.getPaymentMethod())
+                .paymentProvider(payment.getPaymentProvider())
+                .confirmedAt(payment.getConfirmedAt())
+                .createdAt(payment.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.cartwave.order.service;
+
+import com.cartwave.order.entity.OrderEvent;
+import com.cartwave.order.entity.OrderEventType;
+import com.cartwave.order.repository.OrderEventRepository;
+import com.cartwave.security.model.CurrentUserPrincipal;
+import com.cartwave.security.service.CurrentUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Appends to the order event history. Events are persisted in the caller's transaction, so
+ * they commit or roll back with the change they describe and go out in the same JDBC batch
+ * as its other inserts.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEventRecorder {
+
+    private static final int MAX_DETAIL_LENGTH = 500;
+
+    private final OrderEventRepository orderEventRepository;
+    private final CurrentUserService currentUserService;
+
+    public void record(UUID storeId, UUID orderId, OrderEventType type, Object from, Object to) {
+        record(storeId, orderId, type, from, to, null);
+    }
+
+    /** Record one change; a "change" to the value already held is not recorded. */
+    public void record(UUID storeId, UUID orderId, OrderEventType type, Object from, Object to, String detail) {
+        if (from == null || !from.equals(to)) {
+            orderEventRepository.save(event(storeId, orderId, type, from, to, detail));
+        }
+    }
+
+    /** Record events built with {@link #event}; one batched insert however many there are. */
+    public void recordAll(Collection<OrderEvent> events) {
+        if (!events.isEmpty()) {
+            orderEventRepository.saveAll(events);
+        }
+    }
+
+    /** An unsaved event attributed to the current user, or to the system outside a request. */
+    public OrderEvent event(UUID storeId, UUID orderId, OrderEventType type, Object from, Object to, String detail) {
+        CurrentUserPrincipal actor = currentUserService.findCurrentUser().orElse(null);
+        return OrderEvent.builder()
+                .storeId(storeId)
+                .orderId(orderId)
+                .type(type)
+                .fromValue(Objects.toString(from, null))
+                .toValue(Objects.toString(to, null))
+                .detail(detail == null || detail.length() <= MAX_DETAIL_LENGTH ? detail : detail.substring(0, MAX_DETAIL_LENGTH))
+                .actorId(actor == null ? null : actor.getUserId())
+                .actorRole(actor == null || actor.getRole() == null ? null : actor.getRole().name())
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.cartwave.order.service;
+
+import com.cartwave.common.io.ExportFormat;
+import com.cartwave.common.io.ExportWriter;
+import com.cartwave.order.dto.OrderDTO;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.mapper.OrderMapper;
+import com.cartwave.order.repository.OrderRepository;
+import com.cartwave.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streams the current store's order history to an output stream for accounting exports.
+ * Rows come from a database cursor and are detached once written, so memory stays flat.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final List<String> CSV_HEADER = List.of(
+            "id", "orderNumber", "createdAt", "status", "paymentStatus", "totalAmount", "shippingCost",
+            "taxAmount", "discountAmount", "customerId", "customerEmail", "customerPhoneNumber",
+            "deliveryAddress", "notes", "completedAt", "releaseAt");
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /** @return the number of orders written */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        UUID storeId = TenantContext.getTenantId();
+        ExportWriter writer = ExportWriter.open(format, out, CSV_HEADER, objectMapper);
+        long count = 0;
+        try (Stream<Order> orders = orderRepository.streamAllByStoreId(storeId)) {
+            for (Iterator<Order> it = orders.iterator(); it.hasNext(); count++) {
+                Order order = it.next();
+                writer.write(orderMapper.toOrderDTO(order), OrderExportService::csvFields);
+                entityManager.detach(order);
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static List<?> csvFields(OrderDTO o) {
+        return Arrays.asList(
+                o.getId(), o.getOrderNumber(), o.getCreatedAt(), o.getStatus(), o.getPaymentStatus(),
+                o.getTotalAmount(), o.getShippingCost(), o.getTaxAmount(), o.getDiscountAmount(),
+                o.getCustomerId(), o.getCustomerEmail(), o.getCustomerPhoneNumber(),
+                o.getDeliveryAddress(), o.getNotes(), o.getCompletedAt(), o.getReleaseAt());
+    }
+}
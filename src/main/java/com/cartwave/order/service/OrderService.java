@@ -2,16 +2,34 @@ package com.cartwave.order.service;
 
 import com.cartwave.billing.entity.BillingStatus;
 import com.cartwave.billing.repository.BillingTransactionRepository;
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import com.cartwave.common.pagination.KeysetCursor;
 import com.cartwave.customer.entity.Customer;
 import com.cartwave.customer.service.CustomerService;
+import com.cartwave.email.dto.EmailEnqueueRequest;
+import com.cartwave.email.service.EmailQueueService;
 import com.cartwave.escrow.service.EscrowService;
 import com.cartwave.exception.BusinessException;
 import com.cartwave.exception.ResourceNotFoundException;
+import com.cartwave.order.dto.OrderBulkStatusRequest;
+import com.cartwave.order.dto.OrderBulkStatusResponse;
 import com.cartwave.order.dto.OrderDTO;
+import com.cartwave.order.dto.OrderDetailDTO;
+import com.cartwave.order.dto.OrderEventDTO;
+import com.cartwave.order.dto.OrderItemDTO;
+import com.cartwave.order.dto.OrderListRequest;
+import com.cartwave.order.dto.OrderSearchRequest;
+import com.cartwave.order.dto.OrderSummaryDTO;
 import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderEventType;
 import com.cartwave.order.entity.OrderStatus;
 import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.mapper.OrderMapper;
+import com.cartwave.order.repository.OrderEventRepository;
+import com.cartwave.order.repository.OrderListFilter;
 import com.cartwave.order.repository.OrderRepository;
+import com.cartwave.order.repository.OrderStatusRow;
 import com.cartwave.security.model.CurrentUserPrincipal;
 import com.cartwave.security.service.CurrentUserService;
 import com.cartwave.tenant.TenantContext;
@@ -21,21 +39,41 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class OrderService {
 
+    /** Shortest term the trigram indexes can serve. */
+    private static final int MIN_SEARCH_LENGTH = 3;
+
+    /** How long a delivered, paid order's funds stay held before release. */
+    private static final Duration RELEASE_DELAY = Duration.ofDays(2);
+
     private final OrderRepository orderRepository;
     private final CurrentUserService currentUserService;
     private final CustomerService customerService;
     private final BillingTransactionRepository billingTransactionRepository;
     private final EscrowService escrowService;
+    private final SnowflakeIdGenerator idGenerator;
+    private final OrderDetailAssembler detailAssembler;
+    private final EmailQueueService emailQueueService;
+    private final OrderEventRepository orderEventRepository;
+    private final OrderEventRecorder eventRecorder;
+    private final OrderMapper orderMapper;
 
     @Transactional(readOnly = true)
     public OrderDTO getOrderById(UUID orderId) {
@@ -43,21 +81,44 @@ public class OrderService {
         Order order = orderRepository.findByIdAndStoreId(orderId, storeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         ensureOrderAccess(order);
-        return toDto(order);
+        return orderMapper.toOrderDTO(order);
     }
 
+    /** The order with its lines, payment, billing transaction and escrow, in a fixed five queries. */
     @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByStore() {
+    public OrderDetailDTO getOrderDetail(UUID orderId) {
         UUID storeId = TenantContext.getTenantId();
+        Order order = orderRepository.findByIdAndStoreId(orderId, storeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        ensureOrderAccess(order);
+        return detailAssembler.assemble(List.of(orderMapper.toOrderDTO(order))).get(0);
+    }
+
+    /**
+     * Everything that happened to an order of the current store, oldest first. Orders placed
+     * before the history existed may have an empty or partial timeline.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderEventDTO> getOrderTimeline(UUID orderId) {
         CurrentUserPrincipal principal = currentUserService.requireCurrentUser();
         if (principal.getRole() == UserRole.CUSTOMER) {
-            Customer customer = customerService.requireCurrentCustomer();
-            return orderRepository.findByCustomerIdAndStoreId(customer.getId(), storeId).stream().map(this::toDto).toList();
+            throw new BusinessException("ORDER_ACCESS_DENIED", "Customers cannot view order history.");
+        }
+        UUID storeId = TenantContext.getTenantId();
+        List<OrderEventDTO> events = orderEventRepository.findTimeline(storeId, orderId);
+        if (events.isEmpty() && orderRepository.findByIdAndStoreId(orderId, storeId).isEmpty()) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
         }
-        return orderRepository.findByStoreId(storeId, org.springframework.data.domain.Pageable.unpaged())
-                .stream()
-                .map(this::toDto)
-                .toList();
+        return events;
+    }
+
+    /** Orders of the current store, newest first, as summaries; customers only see their own. */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> listOrders(OrderListRequest request) {
+        UUID storeId = TenantContext.getTenantId();
+        CurrentUserPrincipal principal = currentUserService.requireCurrentUser();
+        UUID customerId = principal.getRole() == UserRole.CUSTOMER ? customerService.requireCurrentCustomer().getId() : null;
+        return summaries(storeId, customerId, request);
     }
 
     public OrderDTO createOrder(OrderDTO orderDTO) {
@@ -78,7 +139,9 @@ public class OrderService {
                 .notes(orderDTO.getNotes())
                 .build();
 
-        return toDto(orderRepository.save(order));
+        Order saved = orderRepository.save(order);
+        eventRecorder.record(storeId, saved.getId(), OrderEventType.PLACED, null, saved.getStatus());
+        return orderMapper.toOrderDTO(saved);
     }
 
     public OrderDTO updateOrder(UUID orderId, OrderDTO orderDTO) {
@@ -99,7 +162,7 @@ public class OrderService {
         if (orderDTO.getNotes() != null) {
             order.setNotes(orderDTO.getNotes());
         }
-        return toDto(orderRepository.save(order));
+        return orderMapper.toOrderDTO(orderRepository.save(order));
     }
 
     public OrderDTO updateStatus(UUID orderId, String status) {
@@ -108,12 +171,13 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         ensureNonCustomer();
 
-        OrderStatus nextStatus = OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        OrderStatus nextStatus = parseStatus(status);
+        eventRecorder.record(storeId, order.getId(), OrderEventType.STATUS, order.getStatus(), nextStatus);
         order.setStatus(nextStatus);
         if (nextStatus == OrderStatus.DELIVERED) {
             order.setCompletedAt(Instant.now().toEpochMilli());
             if (order.getPaymentStatus() == PaymentStatus.COMPLETED) {
-                long releaseAt = Instant.now().plusSeconds(2 * 24 * 60 * 60L).toEpochMilli();
+                long releaseAt = Instant.now().plus(RELEASE_DELAY).toEpochMilli();
                 order.setReleaseAt(releaseAt);
                 billingTransactionRepository.findFirstByOrderIdAndStoreId(order.getId(), storeId).ifPresent(transaction -> {
                     if (transaction.getStatus() == BillingStatus.HOLD) {
@@ -128,7 +192,84 @@ public class OrderService {
                 }
             }
         }
-        return toDto(orderRepository.save(order));
+        EmailEnqueueRequest email = statusEmail(nextStatus, order.getCustomerEmail(), order.getId());
+        if (email != null) {
+            emailQueueService.enqueueAll(List.of(email));
+        }
+        return orderMapper.toOrderDTO(orderRepository.save(order));
+    }
+
+    /**
+     * Moves many orders of the current store to one status. Orders that are missing, already
+     * there, or cannot make the transition are reported back and left alone; the rest are
+     * updated with a fixed handful of set-based statements however many there are, and their
+     * customer notifications are queued as one batch.
+     */
+    public OrderBulkStatusResponse bulkUpdateStatus(OrderBulkStatusRequest request) {
+        ensureNonCustomer();
+        UUID storeId = TenantContext.getTenantId();
+        OrderStatus nextStatus = parseStatus(request.getStatus());
+        Set<UUID> requested = new LinkedHashSet<>(request.getOrderIds());
+        Map<UUID, OrderStatusRow> rows = orderRepository.lockStatusRows(requested, storeId).stream()
+                .collect(Collectors.toMap(OrderStatusRow::id, Function.identity()));
+
+        List<OrderStatusRow> eligible = new ArrayList<>();
+        List<OrderBulkStatusResponse.Skipped> skipped = new ArrayList<>();
+        for (UUID orderId : requested) {
+            OrderStatusRow row = rows.get(orderId);
+            if (row == null) {
+                skipped.add(new OrderBulkStatusResponse.Skipped(orderId, null, "ORDER_NOT_FOUND"));
+            } else if (row.status() == nextStatus) {
+                skipped.add(new OrderBulkStatusResponse.Skipped(orderId, row.status().name(), "ALREADY_IN_STATUS"));
+            } else if (!row.status().canTransitionTo(nextStatus)) {
+                skipped.add(new OrderBulkStatusResponse.Skipped(orderId, row.status().name(), "TRANSITION_NOT_ALLOWED"));
+            } else {
+                eligible.add(row);
+            }
+        }
+
+        List<UUID> updated = eligible.stream().map(OrderStatusRow::id).toList();
+        if (!updated.isEmpty()) {
+            Instant now = Instant.now();
+            orderRepository.updateStatus(updated, storeId, nextStatus, now);
+            eventRecorder.recordAll(eligible.stream()
+                    .map(row -> eventRecorder.event(storeId, row.id(), OrderEventType.STATUS, row.status(), nextStatus, null))
+                    .toList());
+            if (nextStatus == OrderStatus.DELIVERED) {
+                orderRepository.markCompleted(updated, storeId, now.toEpochMilli());
+                List<UUID> paid = eligible.stream()
+                        .filter(row -> row.paymentStatus() == PaymentStatus.COMPLETED)
+                        .map(OrderStatusRow::id)
+                        .toList();
+                if (!paid.isEmpty()) {
+                    long releaseAt = now.plus(RELEASE_DELAY).toEpochMilli();
+                    orderRepository.scheduleRelease(paid, storeId, releaseAt);
+                    billingTransactionRepository.scheduleHeldRelease(paid, storeId, releaseAt, now);
+                    escrowService.markReleasedForOrders(paid);
+                }
+            }
+            emailQueueService.enqueueAll(eligible.stream()
+                    .map(row -> statusEmail(nextStatus, row.customerEmail(), row.id()))
+                    .filter(Objects::nonNull)
+                    .toList());
+        }
+        return OrderBulkStatusResponse.builder()
+                .status(nextStatus.name())
+                .updated(updated)
+                .skipped(skipped)
+                .build();
+    }
+
+    /** The customer notification for reaching {@code status}, or {@code null} if there is none. */
+    private EmailEnqueueRequest statusEmail(OrderStatus status, String recipient, UUID orderId) {
+        if (recipient == null || recipient.isBlank()) {
+            return null;
+        }
+        return switch (status) {
+            case SHIPPED -> emailQueueService.orderShippedEmail(recipient, orderId);
+            case DELIVERED -> emailQueueService.orderDeliveredEmail(recipient, orderId);
+            default -> null;
+        };
     }
 
     private void ensureOrderAccess(Order order) {
@@ -150,16 +291,16 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByStoreId(UUID storeId) {
+    public CursorPage<OrderSummaryDTO> listStoreOrders(UUID storeId, OrderListRequest request) {
         CurrentUserPrincipal principal = currentUserService.requireCurrentUser();
         if (principal.getRole() == UserRole.CUSTOMER) {
             throw new BusinessException("ORDER_ACCESS_DENIED", "Customers cannot view all store orders.");
         }
-        return orderRepository.findAllByStoreId(storeId).stream().map(this::toDto).toList();
+        return summaries(storeId, null, request);
     }
 
     @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByCustomerId(UUID customerId) {
+    public CursorPage<OrderSummaryDTO> listCustomerOrders(UUID customerId, OrderListRequest request) {
         CurrentUserPrincipal principal = currentUserService.requireCurrentUser();
         // Customer can only view their own orders; staff/admin can view any
         if (principal.getRole() == UserRole.CUSTOMER) {
@@ -167,34 +308,70 @@ public class OrderService {
             if (!customer.getId().equals(customerId) && !customer.getUserId().equals(customerId)) {
                 throw new BusinessException("ORDER_ACCESS_DENIED", "Customers can only access their own orders.");
             }
+            customerId = customer.getId();
+        }
+        return summaries(null, customerId, request);
+    }
+
+    /**
+     * Current store's orders whose number, customer email or phone contains {@code q}, newest
+     * first, with the usual listing filters. Served by the trigram search indexes.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDTO> searchOrders(OrderSearchRequest request) {
+        ensureNonCustomer();
+        String term = request.getQ() == null ? "" : request.getQ().trim();
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            throw new BusinessException("SEARCH_TERM_TOO_SHORT",
+                    "Search for at least " + MIN_SEARCH_LENGTH + " characters of an order number, email or phone.");
+        }
+        return summaries(TenantContext.getTenantId(), null, request, term);
+    }
+
+    private CursorPage<OrderSummaryDTO> summaries(UUID storeId, UUID customerId, OrderListRequest request) {
+        return summaries(storeId, customerId, request, null);
+    }
+
+    private CursorPage<OrderSummaryDTO> summaries(UUID storeId, UUID customerId, OrderListRequest request, String search) {
+        int pageSize = KeysetCursor.clampSize(request.getSize());
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new BusinessException("INVALID_ORDER_FILTER", "'from' must be before 'to'.");
+        }
+        OrderListFilter filter = new OrderListFilter(storeId, customerId,
+                parseFilter(OrderStatus.class, "status", request.getStatus()),
+                parseFilter(PaymentStatus.class, "paymentStatus", request.getPaymentStatus()),
+                request.getFrom(), request.getTo(), search);
+        List<OrderSummaryDTO> rows = orderRepository.findSummaries(filter, KeysetCursor.decode(request.getCursor()), pageSize + 1);
+        CursorPage<OrderSummaryDTO> page = KeysetCursor.pageOf(rows, pageSize, row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+        if (request.isIncludeItems()) {
+            Map<UUID, List<OrderItemDTO>> items = detailAssembler.itemsByOrder(
+                    page.getContent().stream().map(OrderSummaryDTO::getId).toList());
+            page.getContent().forEach(row -> row.setItems(items.getOrDefault(row.getId(), List.of())));
+        }
+        return page;
+    }
+
+    private static OrderStatus parseStatus(String value) {
+        try {
+            return OrderStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_ORDER_STATUS", "Unknown order status '" + value + "'.");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseFilter(Class<E> type, String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_ORDER_FILTER", "Unknown " + name + " '" + value + "'.");
         }
-        return orderRepository.findByCustomerId(customerId).stream().map(this::toDto).toList();
-    }
-
-    private OrderDTO toDto(Order order) {
-        return OrderDTO.builder()
-                .id(order.getId())
-                .storeId(order.getStoreId())
-                .orderNumber(order.getOrderNumber())
-                .customerId(order.getCustomerId())
-                .totalAmount(order.getTotalAmount())
-                .shippingCost(order.getShippingCost())
-                .taxAmount(order.getTaxAmount())
-                .discountAmount(order.getDiscountAmount())
-                .status(order.getStatus() == null ? null : order.getStatus().name())
-                .paymentStatus(order.getPaymentStatus() == null ? null : order.getPaymentStatus().name())
-                .deliveryAddress(order.getDeliveryAddress())
-                .customerEmail(order.getCustomerEmail())
-                .customerPhoneNumber(order.getCustomerPhoneNumber())
-                .notes(order.getNotes())
-                .completedAt(order.getCompletedAt())
-                .releaseAt(order.getReleaseAt())
-                .createdAt(order.getCreatedAt())
-                .build();
     }
 
     private String generateOrderNumber() {
-        return "CW-MANUAL-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+        return "CW-MANUAL-" + idGenerator.nextCode();
     }
 
     private BigDecimal defaultAmount(BigDecimal value) {
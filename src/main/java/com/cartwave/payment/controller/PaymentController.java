@@ -1,19 +1,25 @@
 package com.cartwave.payment.controller;
 
 import com.cartwave.common.dto.ApiResponse;
+import com.cartwave.idempotency.entity.IdempotencyScope;
+import com.cartwave.idempotency.service.IdempotencyService;
 import com.cartwave.payment.dto.PaymentInitiateRequest;
 import com.cartwave.payment.dto.PaymentResponse;
+import com.cartwave.payment.dto.PaymentWebhookReceipt;
 import com.cartwave.payment.dto.PaymentWebhookRequest;
 import com.cartwave.payment.dto.PaymentConfirmRequest;
 import com.cartwave.payment.dto.RefundRequest;
 import com.cartwave.payment.dto.RefundResponse;
 import com.cartwave.payment.service.PaymentService;
+import com.cartwave.payment.service.PaymentWebhookInbox;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,6 +29,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentWebhookInbox webhookInbox;
 
     @PostMapping("/initiate")
     @PreAuthorize("hasRole('CUSTOMER')")
@@ -32,14 +40,23 @@ public class PaymentController {
 
     @PostMapping("/confirm")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'BUSINESS_OWNER', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<PaymentResponse>> confirm(@Valid @RequestBody PaymentConfirmRequest request) {
-        return ResponseEntity.ok(ApiResponse.success("Payment confirmed successfully", paymentService.confirm(request)));
+    public ResponseEntity<ApiResponse<PaymentResponse>> confirm(
+            @Valid @RequestBody PaymentConfirmRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        PaymentResponse response = idempotencyService.execute(IdempotencyScope.PAYMENT_CONFIRM,
+                request.getTransactionId(), idempotencyKey, request, PaymentResponse.class,
+                () -> paymentService.confirm(request));
+        return ResponseEntity.ok(ApiResponse.success("Payment confirmed successfully", response));
     }
 
+    /** Stores the event and acknowledges it; the payment is settled by the webhook worker. */
     @PostMapping("/webhook")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'BUSINESS_OWNER', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<PaymentResponse>> webhook(@Valid @RequestBody PaymentWebhookRequest request) {
-        return ResponseEntity.ok(ApiResponse.success("Payment webhook processed successfully", paymentService.webhook(request)));
+    public ResponseEntity<ApiResponse<PaymentWebhookReceipt>> webhook(
+            @Valid @RequestBody PaymentWebhookRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Payment webhook accepted", webhookInbox.receive(request, idempotencyKey)));
     }
 
     // ── Refund ────────────────────────────────────────────────────────────────
@@ -0,0 +1,29 @@
+package com.cartwave.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDTO {
+
+    private UUID id;
+    private UUID orderId;
+    private String transactionId;
+    private String providerReference;
+    private String status;
+    private BigDecimal amount;
+    private String currency;
+    private String paymentMethod;
+    private String paymentProvider;
+    private Long confirmedAt;
+    private Instant createdAt;
+}
@@ -0,0 +1,21 @@
+package com.cartwave.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/** Acknowledgement of a stored webhook; {@code duplicate} when the event had already been received. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentWebhookReceipt {
+
+    private UUID id;
+    private String transactionId;
+    private String status;
+    private boolean duplicate;
+}
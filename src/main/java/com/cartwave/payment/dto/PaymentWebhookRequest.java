@@ -1,16 +1,24 @@
 package com.cartwave.payment.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
 public class PaymentWebhookRequest {
 
     @NotBlank
+    @Size(max = 64)
     private String transactionId;
 
     @NotBlank
+    @Size(max = 32)
     private String status;
 
+    @Size(max = 500)
     private String failureReason;
+
+    /** Provider's delivery id; redeliveries of the same event are acknowledged without being stored twice. */
+    @Size(max = 128)
+    private String eventId;
 }
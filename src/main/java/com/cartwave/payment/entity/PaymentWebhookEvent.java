@@ -0,0 +1,58 @@
+package com.cartwave.payment.entity;
+
+import com.cartwave.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A provider webhook as received, waiting to be applied to its billing transaction. PENDING and
+ * PROCESSING events are due once {@code nextAttemptAt} passes: for PENDING that is the retry
+ * backoff, for PROCESSING the claim lease of the worker that took it.
+ */
+@Entity
+@Table(name = "payment_webhook_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_webhook_events_dedupe_key", columnNames = "dedupe_key"),
+        indexes = {
+                @Index(name = "idx_payment_webhook_events_due", columnList = "next_attempt_at"),
+                @Index(name = "idx_payment_webhook_events_open", columnList = "transaction_id, created_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PaymentWebhookEvent extends BaseEntity {
+
+    @Column(nullable = false, length = 255)
+    private String dedupeKey;
+
+    @Column(length = 128)
+    private String eventId;
+
+    @Column(nullable = false, length = 64)
+    private String transactionId;
+
+    /** The outcome the provider reported, as sent. */
+    @Column(nullable = false, length = 32)
+    private String paymentStatus;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentWebhookStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private Instant processedAt;
+}
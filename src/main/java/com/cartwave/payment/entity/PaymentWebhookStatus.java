@@ -0,0 +1,8 @@
+package com.cartwave.payment.entity;
+
+public enum PaymentWebhookStatus {
+    PENDING,
+    PROCESSING,
+    PROCESSED,
+    FAILED
+}
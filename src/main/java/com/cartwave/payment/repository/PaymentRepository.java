@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +19,9 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     @Query("SELECT p FROM Payment p WHERE p.transactionId = :transactionId AND p.deleted = false")
     Optional<Payment> findByTransactionId(@Param("transactionId") String transactionId);
 
+    @Query("SELECT p FROM Payment p WHERE p.orderId IN :orderIds AND p.deleted = false ORDER BY p.createdAt DESC")
+    List<Payment> findByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.deleted = false")
     BigDecimal sumAmountByStatus(@Param("status") PaymentStatus status);
 
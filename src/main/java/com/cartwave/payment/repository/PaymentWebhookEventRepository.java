@@ -0,0 +1,51 @@
+package com.cartwave.payment.repository;
+
+import com.cartwave.payment.entity.PaymentWebhookEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, UUID> {
+
+    Optional<PaymentWebhookEvent> findByDedupeKey(String dedupeKey);
+
+    /**
+     * Due events that are the oldest unsettled one of their transaction, locked for claiming.
+     * Rows another worker is claiming are skipped rather than waited for; an event stays out
+     * of reach while an earlier event of its transaction is pending, retrying or being applied.
+     * A lock timeout of -2 is Hibernate's value for SKIP LOCKED.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            SELECT e FROM PaymentWebhookEvent e
+            WHERE e.status IN (com.cartwave.payment.entity.PaymentWebhookStatus.PENDING,
+                               com.cartwave.payment.entity.PaymentWebhookStatus.PROCESSING)
+              AND e.nextAttemptAt <= :now
+              AND NOT EXISTS (
+                  SELECT 1 FROM PaymentWebhookEvent p
+                  WHERE p.transactionId = e.transactionId
+                    AND p.status IN (com.cartwave.payment.entity.PaymentWebhookStatus.PENDING,
+                                     com.cartwave.payment.entity.PaymentWebhookStatus.PROCESSING)
+                    AND (p.createdAt < e.createdAt OR (p.createdAt = e.createdAt AND p.id < e.id)))
+            ORDER BY e.nextAttemptAt
+            """)
+    List<PaymentWebhookEvent> lockDueHeads(@Param("now") Instant now, Pageable limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM PaymentWebhookEvent e WHERE e.id = :id")
+    Optional<PaymentWebhookEvent> lockById(@Param("id") UUID id);
+}
@@ -11,9 +11,15 @@ import com.cartwave.billing.repository.BillingTransactionRepository;
 import com.cartwave.escrow.service.EscrowService;
 import com.cartwave.exception.BusinessException;
 import com.cartwave.exception.ResourceNotFoundException;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.inventory.service.InventoryReservationService.CommitOutcome;
+import com.cartwave.marketing.service.CouponService;
 import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderEventType;
+import com.cartwave.order.entity.OrderStatus;
 import com.cartwave.order.entity.PaymentStatus;
 import com.cartwave.order.repository.OrderRepository;
+import com.cartwave.order.service.OrderEventRecorder;
 import com.cartwave.payment.dto.PaymentConfirmRequest;
 import com.cartwave.payment.dto.PaymentInitiateRequest;
 import com.cartwave.payment.dto.PaymentResponse;
@@ -35,6 +41,9 @@ public class PaymentService {
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
     private final EscrowService escrowService;
+    private final InventoryReservationService reservationService;
+    private final CouponService couponService;
+    private final OrderEventRecorder eventRecorder;
 
     public PaymentResponse initiate(PaymentInitiateRequest request) {
         var storeId = TenantContext.getTenantId();
@@ -48,6 +57,8 @@ public class PaymentService {
         transaction.setPaymentProvider(request.getPaymentProvider());
         transaction.setStatus(BillingStatus.PROCESSING);
         transaction.setTransactionDetails("payment-initiated");
+        eventRecorder.record(storeId, order.getId(), OrderEventType.PAYMENT, order.getPaymentStatus(), PaymentStatus.PROCESSING,
+                transaction.getTransactionId());
         order.setPaymentStatus(PaymentStatus.PROCESSING);
 
         billingTransactionRepository.save(transaction);
@@ -69,23 +80,53 @@ public class PaymentService {
 
         String status = request.getStatus().trim().toUpperCase();
         boolean success = status.equals("SUCCESS") || status.equals("COMPLETED") || status.equals("PAID");
+        PaymentStatus outcome = success ? PaymentStatus.COMPLETED : PaymentStatus.FAILED;
+        Payment existing = paymentRepository.findByTransactionId(transaction.getTransactionId()).orElse(null);
+        if (existing != null && existing.getStatus() == outcome) {
+            // A redelivered confirmation with the same outcome: already settled, nothing to redo
+            return toResponse(transaction);
+        }
 
-        Payment payment = paymentRepository.findByTransactionId(transaction.getTransactionId())
-                .orElseGet(() -> Payment.builder()
-                        .storeId(transaction.getStoreId())
-                        .orderId(order.getId())
-                        .transactionId(transaction.getTransactionId())
-                        .currency(transaction.getCurrency())
-                        .paymentMethod(transaction.getPaymentMethod())
-                        .paymentProvider(transaction.getPaymentProvider())
-                        .amount(transaction.getAmount())
-                        .build());
+        Payment payment = existing != null ? existing : Payment.builder()
+                .storeId(transaction.getStoreId())
+                .orderId(order.getId())
+                .transactionId(transaction.getTransactionId())
+                .currency(transaction.getCurrency())
+                .paymentMethod(transaction.getPaymentMethod())
+                .paymentProvider(transaction.getPaymentProvider())
+                .amount(transaction.getAmount())
+                        .build();
         payment.setProviderReference(request.getProviderReference());
         payment.setConfirmedAt(Instant.now().toEpochMilli());
-        payment.setStatus(success ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+        payment.setStatus(outcome);
         paymentRepository.save(payment);
 
+        // FAILED here means the order's coupon use was already given back, by a failed payment or an expired hold
+        boolean couponReleased = order.getPaymentStatus() == PaymentStatus.FAILED;
+        CommitOutcome stock = success ? reservationService.commit(order.getId()) : null;
+        if (stock == CommitOutcome.UNAVAILABLE) {
+            // Paid after the stock hold expired and the stock is gone: nothing to ship, so no escrow hold
+            eventRecorder.record(order.getStoreId(), order.getId(), OrderEventType.REFUND, order.getPaymentStatus(),
+                    BillingStatus.REFUND_PENDING, "STOCK_UNAVAILABLE");
+            transaction.setStatus(BillingStatus.REFUND_PENDING);
+            transaction.setFailureReason("STOCK_UNAVAILABLE");
+            transaction.setProcessedAt(Instant.now().toEpochMilli());
+            billingTransactionRepository.save(transaction);
+            return toResponse(transaction);
+        }
+        eventRecorder.record(order.getStoreId(), order.getId(), OrderEventType.PAYMENT, order.getPaymentStatus(), outcome,
+                success ? transaction.getTransactionId() : "PAYMENT_CONFIRMATION_" + status);
+
         if (success) {
+            if (stock == CommitOutcome.RETAKEN && order.getStatus() == OrderStatus.CANCELLED) {
+                // Cancelled by hold expiry; the stock has been taken again above
+                eventRecorder.record(order.getStoreId(), order.getId(), OrderEventType.STATUS, order.getStatus(),
+                        OrderStatus.PENDING, "PAID_AFTER_EXPIRY");
+                order.setStatus(OrderStatus.PENDING);
+            }
+            if (couponReleased) {
+                couponService.reclaimRedemption(order);
+            }
             transaction.setStatus(BillingStatus.HOLD);
             transaction.setProcessedAt(Instant.now().toEpochMilli());
             order.setPaymentStatus(PaymentStatus.COMPLETED);
@@ -98,17 +139,16 @@ public class PaymentService {
             transaction.setStatus(BillingStatus.FAILED);
             transaction.setFailureReason("PAYMENT_CONFIRMATION_" + status);
             order.setPaymentStatus(PaymentStatus.FAILED);
+            reservationService.release(order.getId());
+            if (!couponReleased) {
+                couponService.releaseRedemption(order);
+            }
         }
 
         billingTransactionRepository.save(transaction);
         orderRepository.save(order);
 
-        return PaymentResponse.builder()
-                .transactionId(transaction.getTransactionId())
-                .status(transaction.getStatus().name())
-                .paymentProvider(transaction.getPaymentProvider())
-                .paymentMethod(transaction.getPaymentMethod())
-                .build();
+        return toResponse(transaction);
     }
 
     public PaymentResponse webhook(PaymentWebhookRequest request) {
@@ -119,6 +159,15 @@ public class PaymentService {
         return confirm(confirmRequest);
     }
 
+    private PaymentResponse toResponse(BillingTransaction transaction) {
+        return PaymentResponse.builder()
+                .transactionId(transaction.getTransactionId())
+                .status(transaction.getStatus().name())
+                .paymentProvider(transaction.getPaymentProvider())
+                .paymentMethod(transaction.getPaymentMethod())
+                .build();
+    }
+
     // ── Refund ────────────────────────────────────────────────────────────────
 
     public RefundResponse refund(RefundRequest request) {
@@ -128,10 +177,11 @@ public class PaymentService {
                 .findByTransactionIdAndStoreId(request.getTransactionId(), storeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "transactionId", request.getTransactionId()));
 
-        // Only COMPLETED or HOLD transactions can be refunded
-        if (transaction.getStatus() != BillingStatus.COMPLETED && transaction.getStatus() != BillingStatus.HOLD) {
+        // Only COMPLETED, HOLD or REFUND_PENDING transactions can be refunded
+        if (transaction.getStatus() != BillingStatus.COMPLETED && transaction.getStatus() != BillingStatus.HOLD
+                && transaction.getStatus() != BillingStatus.REFUND_PENDING) {
             throw new BusinessException("REFUND_NOT_ELIGIBLE",
-                    "Only COMPLETED or HOLD transactions can be refunded. Current status: " + transaction.getStatus());
+                    "Only COMPLETED, HOLD or REFUND_PENDING transactions can be refunded. Current status: " + transaction.getStatus());
         }
 
         // Determine refund amount (partial or full)
@@ -149,6 +199,8 @@ public class PaymentService {
         // Update order payment status
         if (transaction.getOrderId() != null) {
             orderRepository.findById(transaction.getOrderId()).ifPresent(order -> {
+                eventRecorder.record(order.getStoreId(), order.getId(), OrderEventType.REFUND, order.getPaymentStatus(),
+                        PaymentStatus.REFUNDED, refundAmount + (request.getReason() == null ? "" : ": " + request.getReason()));
                 order.setPaymentStatus(PaymentStatus.REFUNDED);
                 orderRepository.save(order);
             });
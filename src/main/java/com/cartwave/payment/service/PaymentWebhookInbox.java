@@ -0,0 +1,198 @@
+package com.cartwave.payment.service;
+
+import com.cartwave.exception.BusinessException;
+import com.cartwave.payment.dto.PaymentWebhookReceipt;
+import com.cartwave.payment.dto.PaymentWebhookRequest;
+import com.cartwave.payment.entity.PaymentWebhookEvent;
+import com.cartwave.payment.entity.PaymentWebhookStatus;
+import com.cartwave.payment.repository.PaymentWebhookEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Inbox between the payment provider and {@link PaymentService#webhook}. A webhook is only
+ * stored while the provider waits; the worker claims stored events and applies each in its own
+ * transaction, retrying failures with exponential backoff.
+ * <p>
+ * A redelivery carrying the same event id, or without one the same transaction and status, is
+ * acknowledged against the row already stored. Only the oldest unsettled event of a transaction
+ * can be claimed, so a transaction's events are applied one at a time in the order received
+ * while different transactions proceed in parallel.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentWebhookInbox {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int MAX_EVENT_ID_LENGTH = 128;
+
+    private final PaymentWebhookEventRepository repository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cartwave.payments.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${cartwave.payments.webhook.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${cartwave.payments.webhook.max-retry-backoff-ms:900000}")
+    private long maxRetryBackoffMs;
+
+    @Value("${cartwave.payments.webhook.claim-lease-ms:300000}")
+    private long claimLeaseMs;
+
+    /**
+     * Store a webhook for processing. Call outside of any transaction: the row must be committed
+     * before the provider is told it was received.
+     *
+     * @param deliveryId the request's Idempotency-Key, used in place of the body's event id when given
+     */
+    public PaymentWebhookReceipt receive(PaymentWebhookRequest request, String deliveryId) {
+        String eventId = hasText(deliveryId) ? deliveryId.trim() : hasText(request.getEventId()) ? request.getEventId().trim() : null;
+        if (eventId != null && eventId.length() > MAX_EVENT_ID_LENGTH) {
+            throw new BusinessException("WEBHOOK_EVENT_ID_INVALID",
+                    "Webhook event ids may be at most " + MAX_EVENT_ID_LENGTH + " characters.");
+        }
+        String transactionId = request.getTransactionId().trim();
+        String paymentStatus = request.getStatus().trim().toUpperCase(Locale.ROOT);
+        String dedupeKey = eventId != null ? "event:" + eventId : "status:" + transactionId + ":" + paymentStatus;
+
+        PaymentWebhookEvent existing = repository.findByDedupeKey(dedupeKey).orElse(null);
+        if (existing != null) {
+            return receipt(existing, true);
+        }
+        try {
+            PaymentWebhookEvent stored = transactionTemplate.execute(status -> repository.saveAndFlush(PaymentWebhookEvent.builder()
+                    .dedupeKey(dedupeKey)
+                    .eventId(eventId)
+                    .transactionId(transactionId)
+                    .paymentStatus(paymentStatus)
+                    .failureReason(request.getFailureReason())
+                    .status(PaymentWebhookStatus.PENDING)
+                    .nextAttemptAt(Instant.now())
+                    .build()));
+            return receipt(stored, false);
+        } catch (DataIntegrityViolationException duplicate) {
+            // A concurrent redelivery stored it first
+            return repository.findByDedupeKey(dedupeKey)
+                    .map(event -> receipt(event, true))
+                    .orElseThrow(() -> duplicate);
+        }
+    }
+
+    /**
+     * Claim up to {@code limit} due events, at most one per transaction, for this worker. The
+     * claim is a lease: events of a worker that dies become due again once it runs out.
+     *
+     * @return ids of the claimed events
+     */
+    public List<UUID> claimDue(int limit) {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<PaymentWebhookEvent> due = repository.lockDueHeads(now, PageRequest.of(0, limit));
+            for (PaymentWebhookEvent event : due) {
+                event.setStatus(PaymentWebhookStatus.PROCESSING);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(now.plusMillis(claimLeaseMs));
+            }
+            repository.saveAll(due);
+            return due.stream().map(PaymentWebhookEvent::getId).toList();
+        });
+    }
+
+    /**
+     * Apply one claimed event to its billing transaction. The event row stays locked until the
+     * payment changes commit, so a worker taking over an expired lease waits and then finds it
+     * settled.
+     *
+     * @return whether the event was applied
+     */
+    public boolean process(UUID eventId) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                PaymentWebhookEvent event = repository.lockById(eventId).orElse(null);
+                if (event == null || event.getStatus() != PaymentWebhookStatus.PROCESSING) {
+                    return false;
+                }
+                paymentService.webhook(toRequest(event));
+                event.setStatus(PaymentWebhookStatus.PROCESSED);
+                event.setProcessedAt(Instant.now());
+                event.setLastError(null);
+                repository.save(event);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            retryOrFail(eventId, e);
+            return false;
+        }
+    }
+
+    private void retryOrFail(UUID eventId, RuntimeException failure) {
+        String error = rootMessage(failure);
+        transactionTemplate.executeWithoutResult(status -> repository.lockById(eventId).ifPresent(event -> {
+            if (event.getStatus() != PaymentWebhookStatus.PROCESSING) {
+                return;
+            }
+            event.setLastError(error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+            if (event.getAttempts() >= maxAttempts) {
+                // Settled as failed: later events of the transaction are no longer held back by it
+                event.setStatus(PaymentWebhookStatus.FAILED);
+                log.error("Payment webhook {} for transaction {} failed after {} attempts: {}",
+                        event.getId(), event.getTransactionId(), event.getAttempts(), error);
+            } else {
+                event.setStatus(PaymentWebhookStatus.PENDING);
+                event.setNextAttemptAt(Instant.now().plusMillis(backoff(event.getAttempts())));
+                log.warn("Payment webhook {} for transaction {} failed (attempt {}), retrying: {}",
+                        event.getId(), event.getTransactionId(), event.getAttempts(), error);
+            }
+            repository.save(event);
+        }));
+    }
+
+    private long backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(retryBackoffMs << doublings, maxRetryBackoffMs);
+    }
+
+    private static PaymentWebhookRequest toRequest(PaymentWebhookEvent event) {
+        PaymentWebhookRequest request = new PaymentWebhookRequest();
+        request.setTransactionId(event.getTransactionId());
+        request.setStatus(event.getPaymentStatus());
+        request.setFailureReason(event.getFailureReason());
+        request.setEventId(event.getEventId());
+        return request;
+    }
+
+    private static PaymentWebhookReceipt receipt(PaymentWebhookEvent event, boolean duplicate) {
+        return PaymentWebhookReceipt.builder()
+                .id(event.getId())
+                .transactionId(event.getTransactionId())
+                .status(event.getStatus().name())
+                .duplicate(duplicate)
+                .build();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,10 +1,11 @@
 package com.cartwave.product.controller;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,11 +22,18 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.cartwave.common.dto.ApiResponse;
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.io.ExportFormat;
 import com.cartwave.product.dto.ProductDTO;
+import com.cartwave.product.dto.ProductImportJobDTO;
+import com.cartwave.product.dto.ProductSearchPage;
+import com.cartwave.product.service.ProductExportService;
+import com.cartwave.product.service.ProductImportService;
 import com.cartwave.product.service.ProductService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -36,6 +44,8 @@ import lombok.RequiredArgsConstructor;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
 
     @Operation(summary = "Create a product (enforces subscription limit)")
     @PostMapping
@@ -52,6 +62,15 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", productService.getAllProducts()));
     }
 
+    @Operation(summary = "List products in the current store (cursor paginated, newest first)")
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<CursorPage<ProductDTO>>> getProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", productService.getProductsPage(cursor, size)));
+    }
+
     @Operation(summary = "Get a product by ID")
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
@@ -96,6 +115,34 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Image removed", productService.removeImage(id, imageUrl)));
     }
 
+    // ── Bulk import ───────────────────────────────────────────────────────────
+
+    @Operation(summary = "Bulk import products from a CSV or JSONL file (async, upserts by SKU)")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<ProductImportJobDTO>> importProducts(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Product import started", productImportService.startImport(file)));
+    }
+
+    @Operation(summary = "Get progress and row errors of a product import")
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<ProductImportJobDTO>> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(ApiResponse.success("Product import retrieved", productImportService.getJob(jobId)));
+    }
+
+    @Operation(summary = "Export the store catalogue as CSV or JSONL (streamed)")
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
+    public void exportProducts(@RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        response.setContentType(exportFormat.contentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.extension() + "\"");
+        productExportService.export(exportFormat, response.getOutputStream());
+    }
+
     @Operation(summary = "Toggle product publish status")
     @PutMapping("/{id}/publish")
     @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF')")
@@ -103,23 +150,31 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Product publish status toggled", productService.togglePublish(id)));
     }
 
+    @Operation(summary = "Toggle flash-sale (hot SKU) stock handling")
+    @PutMapping("/{id}/hot-sku")
+    @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN')")
+    public ResponseEntity<ApiResponse<ProductDTO>> toggleHotSku(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success("Product hot SKU mode toggled", productService.toggleHotSku(id)));
+    }
+
     // ── Search / filter (store-scoped, authenticated) ─────────────────────────
 
     @Operation(summary = "Search products with filters")
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('BUSINESS_OWNER', 'ADMIN', 'STAFF', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<Page<ProductDTO>>> search(
+    public ResponseEntity<ApiResponse<ProductSearchPage<ProductDTO>>> search(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "false") boolean inStock,
             @RequestParam(defaultValue = "false") boolean publishedOnly,
+            @RequestParam(defaultValue = "false") boolean facets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         // storeId resolved by TenantContext inside service
-        Page<ProductDTO> results = productService.searchProducts(
-                null, q, category, minPrice, maxPrice, inStock, publishedOnly, page, size);
+        ProductSearchPage<ProductDTO> results = productService.searchProducts(
+                null, q, category, minPrice, maxPrice, inStock, publishedOnly, facets, page, size);
         return ResponseEntity.ok(ApiResponse.success("Search results", results));
     }
 }
@@ -15,6 +15,10 @@ public class ProductDTO {
     private BigDecimal price;
     private BigDecimal costPrice;
     private Long stock;
+    /** Stock minus units held for unpaid orders. */
+    private Long availableStock;
+    /** Flash-sale stock handling; toggled through its own endpoint. */
+    private Boolean hotSku;
     private Long lowStockThreshold;
     private String sku;
     private String status;
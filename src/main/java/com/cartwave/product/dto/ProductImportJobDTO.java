@@ -0,0 +1,41 @@
+package com.cartwave.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJobDTO {
+    private UUID id;
+    private UUID storeId;
+    private String fileName;
+    private String format;
+    private String status;
+    private Long processedRows;
+    private Long createdCount;
+    private Long updatedCount;
+    private Long failedCount;
+    private List<RowError> errors;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    /** {@code row} is the 1-based data row (CSV, excluding the header) or line (JSONL). */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String sku;
+        private String message;
+    }
+}
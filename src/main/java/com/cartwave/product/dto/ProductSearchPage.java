@@ -0,0 +1,27 @@
+package com.cartwave.product.dto;
+
+import com.cartwave.product.search.ProductSearchFacets;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of search results with optional facet counts for the same query.
+ * Serialises like a regular {@code Page}; {@code facets} is omitted unless requested.
+ */
+public class ProductSearchPage<T> extends PageImpl<T> {
+
+    private final transient ProductSearchFacets facets;
+
+    public ProductSearchPage(List<T> content, Pageable pageable, long total, ProductSearchFacets facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public ProductSearchFacets getFacets() {
+        return facets;
+    }
+}
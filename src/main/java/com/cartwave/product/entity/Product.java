@@ -3,15 +3,22 @@ package com.cartwave.product.entity;
 import com.cartwave.common.entity.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.util.UUID;
 
+// Only changed columns are written, so editing a product never overwrites stock moved by the set-based updates
+@DynamicUpdate
 @Entity
 @Table(name = "products", indexes = {
         @Index(name = "idx_products_store_id", columnList = "store_id"),
         @Index(name = "idx_products_status", columnList = "status"),
-        @Index(name = "idx_products_deleted", columnList = "deleted")
+        @Index(name = "idx_products_deleted", columnList = "deleted"),
+        @Index(name = "idx_products_store_created", columnList = "store_id, created_at DESC, id DESC"),
+        @Index(name = "idx_products_store_sku", columnList = "store_id, sku"),
+        @Index(name = "idx_products_hot_sku", columnList = "hot_sku")
 })
 @Data
 @Builder
@@ -39,6 +46,20 @@ public class Product extends BaseEntity {
     @Column(nullable = false)
     private Long stock = 0L;
 
+    /** Units held for unpaid orders; maintained only by the set-based updates in ProductRepositoryCustom. */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long reservedStock = 0L;
+
+    /**
+     * Flash-sale mode: checkouts take units from in-memory pools leased out of
+     * {@code reserved_stock} instead of updating this row per order.
+     */
+    @Builder.Default
+    @Column(name = "hot_sku", nullable = false)
+    private Boolean hotSku = false;
+
     @Column
     private Long lowStockThreshold;
 
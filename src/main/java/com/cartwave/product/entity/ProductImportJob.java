@@ -0,0 +1,65 @@
+package com.cartwave.product.entity;
+
+import com.cartwave.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress and outcome of one bulk catalogue upload. Rows are processed asynchronously;
+ * per-row failures are kept in {@code errorsJson} (capped), fatal failures in {@code errorMessage}.
+ */
+@Entity
+@Table(name = "product_import_jobs", indexes = {
+        @Index(name = "idx_product_import_jobs_store_id", columnList = "store_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class ProductImportJob extends BaseEntity {
+
+    @Column(nullable = false)
+    private UUID storeId;
+
+    @Column(length = 255)
+    private String fileName;
+
+    @Column(nullable = false, length = 10)
+    private String format;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductImportStatus status = ProductImportStatus.QUEUED;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long processedRows = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long createdCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long updatedCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long failedCount = 0L;
+
+    /** JSON array of {@code {row, sku, message}}, capped at the configured maximum. */
+    @Column(columnDefinition = "TEXT")
+    private String errorsJson;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.cartwave.product.entity;
+
+public enum ProductImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,31 @@
+package com.cartwave.product.repository;
+
+import com.cartwave.product.entity.ProductImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, UUID> {
+
+    @Query("SELECT j FROM ProductImportJob j WHERE j.id = :id AND j.storeId = :storeId AND j.deleted = false")
+    Optional<ProductImportJob> findByIdAndStoreId(@Param("id") UUID id, @Param("storeId") UUID storeId);
+
+    /** Fail queued or running jobs that have not recorded progress since {@code cutoff}. */
+    @Modifying
+    @Query("""
+            UPDATE ProductImportJob j
+            SET j.status = com.cartwave.product.entity.ProductImportStatus.FAILED,
+                j.errorMessage = :message, j.finishedAt = :now, j.updatedAt = :now
+            WHERE j.status IN (com.cartwave.product.entity.ProductImportStatus.QUEUED,
+                               com.cartwave.product.entity.ProductImportStatus.RUNNING)
+              AND j.updatedAt < :cutoff AND j.deleted = false
+            """)
+    int failStale(@Param("cutoff") Instant cutoff, @Param("now") Instant now, @Param("message") String message);
+}
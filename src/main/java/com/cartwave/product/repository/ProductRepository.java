@@ -1,64 +1,90 @@
 package com.cartwave.product.repository;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductRepositoryCustom {
 
     @Query("SELECT p FROM Product p WHERE p.id = :id AND p.storeId = :storeId AND p.deleted = false")
     Optional<Product> findByIdAndStoreId(@Param("id") UUID id, @Param("storeId") UUID storeId);
 
+    /** Read-only: the returned products are snapshots, changes to them are never flushed. */
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.storeId = :storeId AND p.deleted = false")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Product> findAllByIdInAndStoreId(@Param("ids") Collection<UUID> ids, @Param("storeId") UUID storeId);
+
     @Query("SELECT p FROM Product p WHERE p.storeId = :storeId AND p.deleted = false")
     Page<Product> findByStoreId(@Param("storeId") UUID storeId, Pageable pageable);
 
     @Query("SELECT p FROM Product p WHERE p.storeId = :storeId AND p.deleted = false ORDER BY p.createdAt DESC")
     List<Product> findAllByStoreId(@Param("storeId") UUID storeId);
 
+    @Query("""
+            SELECT new com.cartwave.product.repository.ProductSearchDocument(p.id, p.name, p.description, p.sku,
+                p.category, p.tags, p.price, p.stock, p.isPublished, p.createdAt)
+            FROM Product p WHERE p.storeId = :storeId AND p.deleted = false
+            """)
+    List<ProductSearchDocument> findSearchDocumentsByStoreId(@Param("storeId") UUID storeId);
+
+    @Query("SELECT p FROM Product p WHERE p.storeId = :storeId AND p.status = :status AND p.deleted = false ORDER BY p.createdAt DESC")
+    List<Product> findAllByStoreIdAndStatus(@Param("storeId") UUID storeId, @Param("status") ProductStatus status);
+
     @Query("SELECT p FROM Product p WHERE p.sku = :sku AND p.storeId = :storeId AND p.deleted = false")
     Optional<Product> findBySkuAndStoreId(@Param("sku") String sku, @Param("storeId") UUID storeId);
 
+    @Query("SELECT p FROM Product p WHERE p.sku IN :skus AND p.storeId = :storeId AND p.deleted = false")
+    List<Product> findAllBySkuInAndStoreId(@Param("skus") Collection<String> skus, @Param("storeId") UUID storeId);
+
     // count current non-deleted products for a store
     long countByStoreIdAndDeletedFalse(UUID storeId);
 
     long countByStoreIdAndStockLessThanEqualAndDeletedFalse(UUID storeId, Long stock);
 
-    // ── Search / filter ───────────────────────────────────────────────────────
+    // ── Keyset pagination (createdAt DESC, id DESC) ─────────────────────────
+
+    @Query("SELECT p FROM Product p WHERE p.storeId = :storeId AND p.deleted = false ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPageByStoreId(@Param("storeId") UUID storeId, Pageable limit);
 
     @Query("""
         SELECT p FROM Product p
-        WHERE p.deleted = false
-          AND (:storeId IS NULL OR p.storeId = :storeId)
-          AND (:q IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :q, '%'))
-               OR LOWER(p.description) LIKE LOWER(CONCAT('%', :q, '%')))
-          AND (:category IS NULL OR LOWER(p.category) = LOWER(:category))
-          AND (:minPrice IS NULL OR p.price >= :minPrice)
-          AND (:maxPrice IS NULL OR p.price <= :maxPrice)
-          AND (:inStockOnly = false OR p.stock > 0)
-          AND (:publishedOnly = false OR p.isPublished = true)
-        ORDER BY p.createdAt DESC
+        WHERE p.storeId = :storeId AND p.deleted = false
+          AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))
+        ORDER BY p.createdAt DESC, p.id DESC
     """)
-    Page<Product> search(
-            @Param("storeId") UUID storeId,
-            @Param("q") String q,
-            @Param("category") String category,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            @Param("inStockOnly") boolean inStockOnly,
-            @Param("publishedOnly") boolean publishedOnly,
-            Pageable pageable
-    );
+    List<Product> findPageByStoreIdAfter(@Param("storeId") UUID storeId,
+                                         @Param("createdAt") Instant createdAt,
+                                         @Param("id") UUID id,
+                                         Pageable limit);
 
-}
+    // ── Streaming export ────────────────────────────────────────────────────
 
+    /** Cursor-backed stream for exports; must be consumed inside a transaction and closed. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p WHERE p.storeId = :storeId AND p.deleted = false ORDER BY p.createdAt, p.id")
+    Stream<Product> streamAllByStoreId(@Param("storeId") UUID storeId);
+
+    @Query("SELECT p FROM Product p WHERE p.hotSku = true AND p.deleted = false")
+    List<Product> findAllHotSku();
+}
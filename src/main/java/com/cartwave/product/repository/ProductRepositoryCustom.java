@@ -0,0 +1,37 @@
+package com.cartwave.product.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based stock operations that bypass the entity read-modify-write cycle. Each takes
+ * {@code quantities} (product id to units), runs as one JDBC batch and updates rows in id
+ * order so concurrent callers lock them in the same order.
+ * <p>
+ * Available to sell is {@code stock - reserved_stock}; {@code reserved_stock} is only ever
+ * changed through these methods.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Hold units for a pending payment, only where enough is available.
+     *
+     * @return the ids that could not be held; empty when every line was held
+     */
+    List<UUID> reserveStock(UUID storeId, Map<UUID, Long> quantities);
+
+    /** Turn held units into sold units: both stock and reserved stock drop. */
+    void commitReservedStock(UUID storeId, Map<UUID, Long> quantities);
+
+    /** Return held units to available stock. */
+    void releaseReservedStock(UUID storeId, Map<UUID, Long> quantities);
+
+    /**
+     * Move up to {@code desired} available units of one product into reserved stock for a
+     * flash-sale pool, but only if at least {@code minimum} are available.
+     *
+     * @return the units moved; 0 when fewer than {@code minimum} were available
+     */
+    long leaseStock(UUID storeId, UUID productId, long desired, long minimum);
+}
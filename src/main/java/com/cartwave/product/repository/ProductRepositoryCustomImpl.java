@@ -0,0 +1,108 @@
+package com.cartwave.product.repository;
+
+import com.cartwave.product.entity.ProductStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String RESERVE_STOCK = """
+            UPDATE products
+               SET reserved_stock = reserved_stock + ?,
+                   updated_at = ?
+             WHERE id = ? AND store_id = ? AND deleted = FALSE AND stock - reserved_stock >= ?
+            """;
+
+    private static final String COMMIT_RESERVED = """
+            UPDATE products
+               SET stock = stock - ?,
+                   reserved_stock = reserved_stock - ?,
+                   status = CASE WHEN stock - ? <= 0 THEN ? ELSE status END,
+                   updated_at = ?
+             WHERE id = ? AND store_id = ?
+            """;
+
+    private static final String RELEASE_RESERVED = """
+            UPDATE products
+               SET reserved_stock = CASE WHEN reserved_stock >= ? THEN reserved_stock - ? ELSE 0 END,
+                   updated_at = ?
+             WHERE id = ? AND store_id = ?
+            """;
+
+    private static final String AVAILABLE = """
+            SELECT stock - reserved_stock FROM products WHERE id = ? AND store_id = ? AND deleted = FALSE
+            """;
+
+    private static final String OUT_OF_STOCK = ProductStatus.OUT_OF_STOCK.name();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<UUID> reserveStock(UUID storeId, Map<UUID, Long> quantities) {
+        return batch(RESERVE_STOCK, quantities, (id, qty, now) ->
+                new Object[]{qty, now, id, storeId, qty});
+    }
+
+    @Override
+    public void commitReservedStock(UUID storeId, Map<UUID, Long> quantities) {
+        batch(COMMIT_RESERVED, quantities, (id, qty, now) ->
+                new Object[]{qty, qty, qty, OUT_OF_STOCK, now, id, storeId});
+    }
+
+    @Override
+    public void releaseReservedStock(UUID storeId, Map<UUID, Long> quantities) {
+        batch(RELEASE_RESERVED, quantities, (id, qty, now) ->
+                new Object[]{qty, qty, now, id, storeId});
+    }
+
+    @Override
+    public long leaseStock(UUID storeId, UUID productId, long desired, long minimum) {
+        // Read-then-conditional-update: a concurrent change between the two only costs a retry
+        for (int attempt = 0; attempt < 3; attempt++) {
+            List<Long> available = jdbcTemplate.queryForList(AVAILABLE, Long.class, productId, storeId);
+            if (available.isEmpty() || available.get(0) < minimum) {
+                return 0;
+            }
+            long grant = Math.min(desired, available.get(0));
+            int updated = jdbcTemplate.update(RESERVE_STOCK, grant, Timestamp.from(Instant.now()), productId, storeId, grant);
+            if (updated == 1) {
+                return grant;
+            }
+        }
+        return 0;
+    }
+
+    /** Run {@code sql} once per product in id order; returns the ids whose row was not updated. */
+    private List<UUID> batch(String sql, Map<UUID, Long> quantities, LineArgs args) {
+        List<Map.Entry<UUID, Long>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        int[] updated = jdbcTemplate.batchUpdate(sql, lines.stream()
+                .map(line -> args.of(line.getKey(), line.getValue(), now))
+                .toList());
+
+        List<UUID> missed = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missed.add(lines.get(i).getKey());
+            }
+        }
+        return missed;
+    }
+
+    @FunctionalInterface
+    private interface LineArgs {
+        Object[] of(UUID productId, long quantity, Timestamp now);
+    }
+}
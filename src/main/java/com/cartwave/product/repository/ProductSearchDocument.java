@@ -0,0 +1,19 @@
+package com.cartwave.product.repository;
+
+import com.cartwave.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** The columns of a product that the search index reads; loaded in bulk without managing entities. */
+public record ProductSearchDocument(UUID id, String name, String description, String sku, String category,
+                                    String tags, BigDecimal price, Long stock, Boolean isPublished,
+                                    Instant createdAt) {
+
+    public static ProductSearchDocument of(Product product) {
+        return new ProductSearchDocument(product.getId(), product.getName(), product.getDescription(),
+                product.getSku(), product.getCategory(), product.getTags(), product.getPrice(), product.getStock(),
+                product.getIsPublished(), product.getCreatedAt());
+    }
+}
@@ -0,0 +1,99 @@
+package com.cartwave.product.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects facet counts while {@link StoreSearchIndex} walks the query's candidates, so facets
+ * cost one extra branch per candidate rather than one search per facet.
+ */
+final class FacetAccumulator {
+
+    private static final int TARGET_PRICE_BUCKETS = 5;
+    private static final double[] NICE_STEPS = {1, 2, 2.5, 5, 10};
+
+    private final Map<String, Long> categoryCounts = new HashMap<>();
+    private final Map<String, String> categoryLabels = new HashMap<>();
+    private final List<BigDecimal> prices = new ArrayList<>();
+    private long inStock;
+    private long outOfStock;
+
+    /**
+     * @param categoryOk whether the product passes the category filter
+     * @param priceOk    whether the product passes the price filter
+     * @param stockOk    whether the product passes the in-stock filter
+     */
+    void accept(String category, String categoryLabel, BigDecimal price, long stock,
+                boolean categoryOk, boolean priceOk, boolean stockOk) {
+        if (priceOk && stockOk && category != null) {
+            categoryCounts.merge(category, 1L, Long::sum);
+            categoryLabels.putIfAbsent(category, categoryLabel);
+        }
+        if (categoryOk && stockOk && price != null) {
+            prices.add(price);
+        }
+        if (categoryOk && priceOk) {
+            if (stock > 0) inStock++; else outOfStock++;
+        }
+    }
+
+    ProductSearchFacets build() {
+        Map<String, Long> categories = new LinkedHashMap<>();
+        categoryCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> categories.put(categoryLabels.get(e.getKey()), e.getValue()));
+        return new ProductSearchFacets(categories, priceRanges(), inStock, outOfStock);
+    }
+
+    /** Buckets on a 1/2/2.5/5 x 10^n step so boundaries read naturally in any currency. */
+    private List<ProductSearchFacets.PriceRange> priceRanges() {
+        if (prices.isEmpty()) {
+            return List.of();
+        }
+        BigDecimal min = prices.stream().min(BigDecimal::compareTo).orElseThrow();
+        BigDecimal max = prices.stream().max(BigDecimal::compareTo).orElseThrow();
+        if (min.compareTo(max) == 0) {
+            return List.of(new ProductSearchFacets.PriceRange(min, max, prices.size()));
+        }
+
+        BigDecimal step = niceStep(max.subtract(min).doubleValue() / TARGET_PRICE_BUCKETS);
+        BigDecimal start = min.divide(step, 0, RoundingMode.FLOOR).multiply(step);
+        int buckets = Math.max(1, max.subtract(start).divide(step, 0, RoundingMode.CEILING).intValue());
+
+        long[] counts = new long[buckets];
+        for (BigDecimal price : prices) {
+            int index = price.subtract(start).divide(step, 0, RoundingMode.FLOOR).intValue();
+            counts[Math.min(index, buckets - 1)]++;
+        }
+
+        List<ProductSearchFacets.PriceRange> ranges = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            BigDecimal lower = plain(start.add(step.multiply(BigDecimal.valueOf(i))));
+            BigDecimal upper = plain(start.add(step.multiply(BigDecimal.valueOf(i + 1L))));
+            ranges.add(new ProductSearchFacets.PriceRange(lower, upper, counts[i]));
+        }
+        return ranges;
+    }
+
+    /** 100 rather than 1E+2 or 100.00 in the JSON. */
+    private static BigDecimal plain(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+
+    private static BigDecimal niceStep(double rawStep) {
+        int exponent = (int) Math.floor(Math.log10(rawStep));
+        for (double nice : NICE_STEPS) {
+            BigDecimal step = BigDecimal.valueOf(nice).scaleByPowerOfTen(exponent);
+            if (step.doubleValue() >= rawStep) {
+                return step;
+            }
+        }
+        return BigDecimal.ONE.scaleByPowerOfTen(exponent + 1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.cartwave.product.search;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/** Free-text query plus the catalogue filters applied inside the search index. */
+@Value
+@Builder
+public class ProductSearchCriteria {
+    String query;
+    String category;
+    BigDecimal minPrice;
+    BigDecimal maxPrice;
+    boolean inStockOnly;
+    boolean publishedOnly;
+    boolean facets;
+    int offset;
+    int limit;
+}
@@ -0,0 +1,26 @@
+package com.cartwave.product.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter-sidebar counts for a search.
+ * <p>
+ * Each dimension is counted over the products matching the query and every <em>other</em> active
+ * filter, so selecting a category still shows how many hits the sibling categories would give.
+ *
+ * @param categories  category label to count, most populated first
+ * @param priceRanges contiguous price buckets sized to the matching products
+ * @param inStock     matching products with stock &gt; 0
+ * @param outOfStock  matching products with no stock
+ */
+public record ProductSearchFacets(Map<String, Long> categories,
+                                  List<PriceRange> priceRanges,
+                                  long inStock,
+                                  long outOfStock) {
+
+    /** {@code min} is inclusive; {@code max} is exclusive except on the last bucket. */
+    public record PriceRange(BigDecimal min, BigDecimal max, long count) {
+    }
+}
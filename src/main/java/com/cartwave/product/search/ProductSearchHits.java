@@ -0,0 +1,11 @@
+package com.cartwave.product.search;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of ranked product ids and the total number of matches.
+ * {@code facets} is only populated when the criteria asked for it.
+ */
+public record ProductSearchHits(List<UUID> productIds, long totalHits, ProductSearchFacets facets) {
+}
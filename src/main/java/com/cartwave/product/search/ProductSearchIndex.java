@@ -0,0 +1,162 @@
+package com.cartwave.product.search;
+
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.repository.ProductSearchDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Node-local full-text search over store catalogues.
+ * <p>
+ * A store's index is built from the database on its first search and then maintained
+ * incrementally from committed product writes. Indexes are rebuilt after
+ * {@code cartwave.search.index-ttl-ms} to pick up writes made on other nodes; while one
+ * request rebuilds, concurrent searches keep using the previous index. At most
+ * {@code cartwave.search.max-stores} indexes are kept, the oldest built dropped first.
+ * <p>
+ * A build reads only the indexed columns and runs without the store lock, so product writes
+ * are never held up by it; writes that commit meanwhile are replayed onto the new index before
+ * it is installed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+
+    @Value("${cartwave.search.index-ttl-ms:600000}")
+    private long indexTtlMs;
+
+    @Value("${cartwave.search.max-stores:2000}")
+    private int maxStores;
+
+    private final Map<UUID, StoreSearchIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<UUID, Object> storeLocks = new ConcurrentHashMap<>();
+    private final Map<UUID, Build> builds = new ConcurrentHashMap<>();
+
+    public ProductSearchHits search(UUID storeId, ProductSearchCriteria criteria) {
+        return indexFor(storeId).search(criteria);
+    }
+
+    /** Re-index a product once the current transaction commits. No-op for stores not yet indexed. */
+    public void indexAfterCommit(Product product) {
+        ProductSearchDocument document = ProductSearchDocument.of(product);
+        afterCommit(() -> withLoadedIndex(product.getStoreId(), index -> index.upsert(document)));
+    }
+
+    public void removeAfterCommit(UUID storeId, UUID productId) {
+        afterCommit(() -> withLoadedIndex(storeId, index -> index.remove(productId)));
+    }
+
+    public void evict(UUID storeId) {
+        synchronized (lockFor(storeId)) {
+            indexes.remove(storeId);
+            Build build = builds.get(storeId);
+            if (build != null) {
+                // loaded before the change that caused the eviction: serve it once, never install it
+                build.stale = true;
+            }
+        }
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    private StoreSearchIndex indexFor(UUID storeId) {
+        StoreSearchIndex index = indexes.get(storeId);
+        if (index != null && System.currentTimeMillis() - index.builtAt() < indexTtlMs) {
+            return index;
+        }
+        Build build = new Build();
+        Build running = builds.putIfAbsent(storeId, build);
+        if (running != null) {
+            // expired: keep serving the previous index; missing: wait for the build under way
+            return index != null ? index : running.result.join();
+        }
+        try {
+            StoreSearchIndex built = build(storeId, build);
+            build.result.complete(built);
+            return built;
+        } catch (RuntimeException e) {
+            build.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            builds.remove(storeId, build);
+        }
+    }
+
+    private StoreSearchIndex build(UUID storeId, Build build) {
+        long start = System.currentTimeMillis();
+        StoreSearchIndex index = new StoreSearchIndex(start);
+        productRepository.findSearchDocumentsByStoreId(storeId).forEach(index::upsert);
+        synchronized (lockFor(storeId)) {
+            build.missed.forEach(change -> change.accept(index));
+            if (!build.stale) {
+                if (!indexes.containsKey(storeId) && indexes.size() >= maxStores) {
+                    evictOldest();
+                }
+                indexes.put(storeId, index);
+            }
+        }
+        log.debug("Built search index for store {} in {} ms", storeId, System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private void evictOldest() {
+        indexes.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().builtAt()))
+                .ifPresent(oldest -> indexes.remove(oldest.getKey(), oldest.getValue()));
+        log.debug("Search index cache full ({} stores), evicted oldest entry", maxStores);
+    }
+
+    private void withLoadedIndex(UUID storeId, Consumer<StoreSearchIndex> change) {
+        synchronized (lockFor(storeId)) {
+            StoreSearchIndex index = indexes.get(storeId);
+            if (index != null) {
+                change.accept(index);
+            }
+            Build build = builds.get(storeId);
+            if (build != null) {
+                build.missed.add(change);
+            }
+        }
+    }
+
+    private Object lockFor(UUID storeId) {
+        return storeLocks.computeIfAbsent(storeId, id -> new Object());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** A build under way. {@code missed} and {@code stale} are guarded by the store lock. */
+    private static final class Build {
+        final CompletableFuture<StoreSearchIndex> result = new CompletableFuture<>();
+        final List<Consumer<StoreSearchIndex>> missed = new ArrayList<>();
+        boolean stale;
+    }
+}
@@ -0,0 +1,225 @@
+package com.cartwave.product.search;
+
+import com.cartwave.product.repository.ProductSearchDocument;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the products of a single store.
+ * <p>
+ * Each term maps to the products containing it together with a field-weighted score
+ * (SKU &gt; name &gt; tags/category &gt; description). Queries are AND-ed over their terms,
+ * the last term is also matched as a prefix so search-as-you-type works, and hits are
+ * ranked by the sum of {@code weight * idf} per term, newest product first on ties.
+ */
+class StoreSearchIndex {
+
+    private static final float SKU_WEIGHT = 4.0f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final NavigableMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+    private final Map<UUID, IndexedProduct> products = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long builtAt;
+
+    StoreSearchIndex(long builtAt) {
+        this.builtAt = builtAt;
+    }
+
+    long builtAt() {
+        return builtAt;
+    }
+
+    void upsert(ProductSearchDocument product) {
+        Map<String, Float> weights = termWeights(product);
+        IndexedProduct indexed = new IndexedProduct(
+                product.id(),
+                product.category() == null ? null : SearchTokenizer.normalize(product.category()),
+                product.category() == null ? null : product.category().trim(),
+                product.price(),
+                product.stock() == null ? 0L : product.stock(),
+                Boolean.TRUE.equals(product.isPublished()),
+                product.createdAt() == null ? 0L : product.createdAt().toEpochMilli(),
+                weights.keySet());
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.id());
+            products.put(indexed.id(), indexed);
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(indexed.id(), weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    ProductSearchHits search(ProductSearchCriteria criteria) {
+        List<String> terms = new ArrayList<>(SearchTokenizer.tokenize(criteria.getQuery()));
+        String category = criteria.getCategory() == null ? null : SearchTokenizer.normalize(criteria.getCategory());
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Float> scores = terms.isEmpty() ? null : score(terms);
+            Iterable<UUID> candidates = scores == null ? products.keySet() : scores.keySet();
+
+            FacetAccumulator facets = criteria.isFacets() ? new FacetAccumulator() : null;
+            List<IndexedProduct> matches = new ArrayList<>();
+            for (UUID id : candidates) {
+                IndexedProduct product = products.get(id);
+                if (product == null || (criteria.isPublishedOnly() && !product.published())) {
+                    continue;
+                }
+                boolean categoryOk = category == null || category.equals(product.category());
+                boolean priceOk = product.inPriceRange(criteria);
+                boolean stockOk = !criteria.isInStockOnly() || product.stock() > 0;
+                if (categoryOk && priceOk && stockOk) {
+                    matches.add(product);
+                }
+                if (facets != null) {
+                    facets.accept(product.category(), product.categoryLabel(), product.price(), product.stock(),
+                            categoryOk, priceOk, stockOk);
+                }
+            }
+
+            Comparator<IndexedProduct> newestFirst = Comparator.comparingLong(IndexedProduct::createdAt).reversed();
+            if (scores != null) {
+                matches.sort(Comparator.<IndexedProduct>comparingDouble(p -> scores.get(p.id())).reversed()
+                        .thenComparing(newestFirst));
+            } else {
+                matches.sort(newestFirst);
+            }
+
+            int from = Math.min(criteria.getOffset(), matches.size());
+            int to = Math.min(from + criteria.getLimit(), matches.size());
+            List<UUID> page = matches.subList(from, to).stream().map(IndexedProduct::id).toList();
+            return new ProductSearchHits(page, matches.size(), facets == null ? null : facets.build());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    /** Score products containing every term; returns an empty map as soon as a term has no hits. */
+    private Map<UUID, Float> score(List<String> terms) {
+        Map<UUID, Float> scores = null;
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            boolean prefix = i == terms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+            Map<UUID, Float> termScores = scoreTerm(term, prefix);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<UUID, Float> previous = scores;
+                termScores.keySet().retainAll(previous.keySet());
+                termScores.replaceAll((id, score) -> score + previous.get(id));
+                scores = termScores;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private Map<UUID, Float> scoreTerm(String term, boolean prefix) {
+        Map<UUID, Float> termScores = new HashMap<>();
+        Map<String, Map<UUID, Float>> expansions = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+        int expanded = 0;
+        for (Map.Entry<String, Map<UUID, Float>> entry : expansions.entrySet()) {
+            if (expanded++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Map<UUID, Float> docs = entry.getValue();
+            float idf = (float) Math.log(1.0 + (double) products.size() / docs.size());
+            // an exact term match outranks a prefix completion of the same word
+            float boost = entry.getKey().equals(term) ? 1.0f : 0.8f;
+            docs.forEach((id, weight) -> termScores.merge(id, weight * idf * boost, Math::max));
+        }
+        return termScores;
+    }
+
+    private void removeUnlocked(UUID productId) {
+        IndexedProduct existing = products.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Map<UUID, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Float> termWeights(ProductSearchDocument product) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, product.description(), DESCRIPTION_WEIGHT);
+        addTerms(weights, product.category(), CATEGORY_WEIGHT);
+        addTerms(weights, product.tags(), TAG_WEIGHT);
+        addTerms(weights, product.name(), NAME_WEIGHT);
+        addTerms(weights, product.sku(), SKU_WEIGHT);
+        if (product.sku() != null && !product.sku().isBlank()) {
+            // whole SKU as a single term so "AB-123" matches exactly, not just "ab" and "123"
+            weights.merge(SearchTokenizer.normalize(product.sku()), SKU_WEIGHT, Float::sum);
+        }
+        return weights;
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private record IndexedProduct(UUID id,
+                                  String category,
+                                  String categoryLabel,
+                                  BigDecimal price,
+                                  long stock,
+                                  boolean published,
+                                  long createdAt,
+                                  Set<String> terms) {
+
+        IndexedProduct {
+            terms = new HashSet<>(terms);
+        }
+
+        boolean inPriceRange(ProductSearchCriteria criteria) {
+            if (criteria.getMinPrice() != null && (price == null || price.compareTo(criteria.getMinPrice()) < 0)) return false;
+            return criteria.getMaxPrice() == null || (price != null && price.compareTo(criteria.getMaxPrice()) <= 0);
+        }
+    }
+}
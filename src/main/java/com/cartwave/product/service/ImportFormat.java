@@ -0,0 +1,33 @@
+package com.cartwave.product.service;
+
+import java.util.Locale;
+
+/** Upload formats accepted by the bulk product import. */
+enum ImportFormat {
+    CSV(".csv"),
+    JSONL(".jsonl");
+
+    private final String suffix;
+
+    ImportFormat(String suffix) {
+        this.suffix = suffix;
+    }
+
+    String suffix() {
+        return suffix;
+    }
+
+    /** Detect from the file name, falling back to the content type; {@code null} if unsupported. */
+    static ImportFormat detect(String fileName, String contentType) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || type.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")
+                || type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+            return JSONL;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.cartwave.product.service;
+
+import com.cartwave.common.io.ExportFormat;
+import com.cartwave.common.io.ExportWriter;
+import com.cartwave.product.dto.ProductDTO;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streams the current store's catalogue to an output stream. Rows come from a database cursor
+ * and are detached as soon as they are written, so memory stays flat regardless of catalogue size.
+ * The CSV columns match what {@code POST /products/import} accepts.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    private static final List<String> CSV_HEADER = List.of(
+            "id", "sku", "name", "description", "price", "costPrice", "stock", "lowStockThreshold",
+            "status", "category", "tags", "isPublished", "imageUrl", "images", "attributes",
+            "seoTitle", "seoDescription", "createdAt", "updatedAt");
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /** @return the number of products written */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        UUID storeId = TenantContext.getTenantId();
+        ExportWriter writer = ExportWriter.open(format, out, CSV_HEADER, objectMapper);
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllByStoreId(storeId)) {
+            for (Iterator<Product> it = products.iterator(); it.hasNext(); count++) {
+                Product product = it.next();
+                writer.write(productService.toDto(product), ProductExportService::csvFields);
+                entityManager.detach(product);
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static List<?> csvFields(ProductDTO p) {
+        return Arrays.asList(
+                p.getId(), p.getSku(), p.getName(), p.getDescription(), p.getPrice(), p.getCostPrice(),
+                p.getStock(), p.getLowStockThreshold(), p.getStatus(), p.getCategory(), p.getTags(),
+                p.getIsPublished(), p.getImageUrl(), p.getImages(), p.getAttributes(),
+                p.getSeoTitle(), p.getSeoDescription(), p.getCreatedAt(), p.getUpdatedAt());
+    }
+}
@@ -0,0 +1,134 @@
+package com.cartwave.product.service;
+
+import com.cartwave.exception.BusinessException;
+import com.cartwave.exception.ResourceNotFoundException;
+import com.cartwave.product.dto.ProductImportJobDTO;
+import com.cartwave.product.entity.ProductImportJob;
+import com.cartwave.product.repository.ProductImportJobRepository;
+import com.cartwave.tenant.TenantContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Accepts bulk catalogue uploads and reports their progress. The file is spooled to a temp
+ * file and handed to {@link ProductImportWorker} once the job row is committed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ProductImportService {
+
+    private static final TypeReference<List<ProductImportJobDTO.RowError>> ROW_ERRORS = new TypeReference<>() {};
+
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportWorker importWorker;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cartwave.products.import.stale-after-ms:1800000}")
+    private long staleAfterMs;
+
+    public ProductImportJobDTO startImport(MultipartFile file) {
+        UUID storeId = TenantContext.getTenantId();
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException("IMPORT_FILE_EMPTY", "Upload a non-empty .csv or .jsonl file.");
+        }
+        ImportFormat format = ImportFormat.detect(file.getOriginalFilename(), file.getContentType());
+        if (format == null) {
+            throw new BusinessException("IMPORT_FORMAT_UNSUPPORTED", "Only .csv and .jsonl product files are supported.");
+        }
+
+        Path spool;
+        try {
+            spool = Files.createTempFile("product-import-", format.suffix());
+            file.transferTo(spool);
+        } catch (IOException e) {
+            throw new BusinessException("IMPORT_UPLOAD_FAILED", "Could not store the uploaded file.", e);
+        }
+
+        ProductImportJob job = jobRepository.save(ProductImportJob.builder()
+                .storeId(storeId)
+                .fileName(file.getOriginalFilename())
+                .format(format.name())
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    importWorker.run(job.getId(), storeId, spool, format);
+                } else {
+                    ProductImportWorker.deleteQuietly(spool);
+                }
+            }
+        });
+        return toDto(job);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductImportJobDTO getJob(UUID jobId) {
+        UUID storeId = TenantContext.getTenantId();
+        return jobRepository.findByIdAndStoreId(jobId, storeId)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductImportJob", "id", jobId));
+    }
+
+    /**
+     * Fail imports that stopped making progress, typically because the node running them went
+     * down: the spooled file lived on that node, so the upload has to be repeated.
+     *
+     * @return the number of jobs failed
+     */
+    public int failStaleJobs() {
+        Instant now = Instant.now();
+        return jobRepository.failStale(now.minusMillis(staleAfterMs), now,
+                "Import stopped making progress and was abandoned; upload the file again.");
+    }
+
+    private ProductImportJobDTO toDto(ProductImportJob job) {
+        return ProductImportJobDTO.builder()
+                .id(job.getId())
+                .storeId(job.getStoreId())
+                .fileName(job.getFileName())
+                .format(job.getFormat())
+                .status(job.getStatus().name())
+                .processedRows(job.getProcessedRows())
+                .createdCount(job.getCreatedCount())
+                .updatedCount(job.getUpdatedCount())
+                .failedCount(job.getFailedCount())
+                .errors(readErrors(job.getErrorsJson()))
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private List<ProductImportJobDTO.RowError> readErrors(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, ROW_ERRORS);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable import error log: {}", e.getMessage());
+            return List.of();
+        }
+    }
+}
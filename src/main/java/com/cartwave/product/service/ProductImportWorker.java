@@ -0,0 +1,430 @@
+package com.cartwave.product.service;
+
+import com.cartwave.common.io.CsvReader;
+import com.cartwave.exception.BusinessException;
+import com.cartwave.product.dto.ProductDTO;
+import com.cartwave.product.dto.ProductImportJobDTO;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductImportJob;
+import com.cartwave.product.entity.ProductImportStatus;
+import com.cartwave.product.repository.ProductImportJobRepository;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.subscription.service.SubscriptionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Runs a bulk product import off the request thread.
+ * <p>
+ * The spooled file is read one row at a time and written in chunks: each chunk looks up its
+ * SKUs with a single query, upserts by SKU (rows without a SKU always create), and flushes as
+ * JDBC batches in its own transaction. The plan's product limit is read once per job and
+ * tracked locally, so rows beyond it fail individually instead of aborting the import.
+ * A job already failed as stale by {@link ProductImportService#failStaleJobs()} before it
+ * started is not run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductImportWorker {
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_SKU_LENGTH = 100;
+
+    private final ProductRepository productRepository;
+    private final ProductImportJobRepository jobRepository;
+    private final ProductService productService;
+    private final SubscriptionService subscriptionService;
+    private final StorefrontCatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cartwave.products.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cartwave.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Async
+    public void run(UUID jobId, UUID storeId, Path file, ImportFormat format) {
+        Progress progress = new Progress();
+        if (!start(jobId)) {
+            log.warn("Product import {} for store {} is no longer queued; not running it", jobId, storeId);
+            deleteQuietly(file);
+            return;
+        }
+        try {
+            long remaining = remainingCapacity(storeId);
+            try (RowSource rows = format == ImportFormat.CSV ? new CsvRows(file) : new JsonLines(file)) {
+                List<Row> chunk = new ArrayList<>(chunkSize);
+                for (Row row = rows.next(); row != null; row = rows.next()) {
+                    chunk.add(row);
+                    if (chunk.size() >= chunkSize) {
+                        remaining = writeChunk(jobId, storeId, chunk, remaining, progress);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    writeChunk(jobId, storeId, chunk, remaining, progress);
+                }
+            }
+            finish(jobId, progress, ProductImportStatus.COMPLETED, null);
+            log.info("Product import {} for store {} finished: {} created, {} updated, {} failed",
+                    jobId, storeId, progress.created, progress.updated, progress.failed);
+        } catch (Exception e) {
+            log.error("Product import {} for store {} failed: {}", jobId, storeId, e.getMessage(), e);
+            finish(jobId, progress, ProductImportStatus.FAILED, e.getMessage());
+        } finally {
+            deleteQuietly(file);
+            catalogCache.invalidate(storeId);
+            searchIndex.evict(storeId);
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import spool file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // ── chunk processing ──────────────────────────────────────────────────────
+
+    /** @return the remaining product allowance after this chunk */
+    private long writeChunk(UUID jobId, UUID storeId, List<Row> chunk, long remaining, Progress progress) {
+        ChunkOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+                ChunkOutcome result = applyChunk(storeId, chunk, remaining);
+                productRepository.saveAll(result.toSave);
+                productRepository.flush();
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // the chunk rolled back as a whole; report every row in it rather than guessing which one broke it
+            log.warn("Product import {} chunk write failed: {}", jobId, e.getMessage());
+            outcome = new ChunkOutcome(remaining);
+            for (Row row : chunk) {
+                outcome.fail(row, "Batch write failed: " + rootMessage(e));
+            }
+        }
+        progress.add(outcome, maxReportedErrors);
+        String errorsJson = progress.errorsJson();
+        updateJob(jobId, job -> {
+            job.setProcessedRows(progress.processed);
+            job.setCreatedCount(progress.created);
+            job.setUpdatedCount(progress.updated);
+            job.setFailedCount(progress.failed);
+            job.setErrorsJson(errorsJson);
+        });
+        return outcome.remaining;
+    }
+
+    private ChunkOutcome applyChunk(UUID storeId, List<Row> chunk, long remaining) {
+        ChunkOutcome outcome = new ChunkOutcome(remaining);
+        List<String> skus = chunk.stream()
+                .filter(row -> row.dto() != null && hasText(row.dto().getSku()))
+                .map(row -> row.dto().getSku().trim())
+                .distinct()
+                .toList();
+        Map<String, Product> bySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            productRepository.findAllBySkuInAndStoreId(skus, storeId).forEach(p -> bySku.putIfAbsent(p.getSku(), p));
+        }
+
+        for (Row row : chunk) {
+            if (row.error() != null) {
+                outcome.fail(row, row.error());
+                continue;
+            }
+            ProductDTO dto = row.dto();
+            try {
+                validate(dto);
+                String sku = hasText(dto.getSku()) ? dto.getSku().trim() : null;
+                dto.setSku(sku);
+                Product existing = sku == null ? null : bySku.get(sku);
+                if (existing != null) {
+                    productService.applyProduct(existing, dto, false);
+                    outcome.updated++;
+                    // a SKU repeated within the chunk updates the row created a few lines earlier
+                    outcome.save(existing);
+                } else if (outcome.remaining <= 0) {
+                    outcome.fail(row, "Product limit exceeded for the current plan.");
+                } else {
+                    Product created = productService.newProduct(storeId, dto);
+                    outcome.remaining--;
+                    outcome.created++;
+                    outcome.save(created);
+                    if (sku != null) {
+                        bySku.put(sku, created);
+                    }
+                }
+            } catch (BusinessException | IllegalArgumentException e) {
+                outcome.fail(row, e.getMessage());
+            }
+        }
+        return outcome;
+    }
+
+    private void validate(ProductDTO dto) {
+        // id/storeId in a file never address existing rows; upserts go by SKU only
+        dto.setId(null);
+        dto.setStoreId(null);
+        if (dto.getName() != null && dto.getName().length() > MAX_NAME_LENGTH) {
+            throw new BusinessException("PRODUCT_NAME_TOO_LONG", "Product name exceeds " + MAX_NAME_LENGTH + " characters.");
+        }
+        if (dto.getSku() != null && dto.getSku().trim().length() > MAX_SKU_LENGTH) {
+            throw new BusinessException("PRODUCT_SKU_TOO_LONG", "SKU exceeds " + MAX_SKU_LENGTH + " characters.");
+        }
+        if (dto.getPrice() != null && dto.getPrice().signum() < 0) {
+            throw new BusinessException("PRODUCT_PRICE_INVALID", "Product price cannot be negative.");
+        }
+    }
+
+    private long remainingCapacity(UUID storeId) {
+        Integer limit = subscriptionService.getProductLimit(storeId);
+        if (limit == null || limit <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, limit - productRepository.countByStoreIdAndDeletedFalse(storeId));
+    }
+
+    private void finish(UUID jobId, Progress progress, ProductImportStatus status, String errorMessage) {
+        try {
+            updateJob(jobId, job -> {
+                job.setStatus(status);
+                job.setErrorMessage(errorMessage);
+                job.setFinishedAt(Instant.now());
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not record final state of product import {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private boolean start(UUID jobId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> jobRepository.findById(jobId)
+                .filter(job -> job.getStatus() == ProductImportStatus.QUEUED)
+                .map(job -> {
+                    job.setStatus(ProductImportStatus.RUNNING);
+                    job.setStartedAt(Instant.now());
+                    jobRepository.save(job);
+                    return true;
+                })
+                .orElse(false)));
+    }
+
+    private void updateJob(UUID jobId, Consumer<ProductImportJob> change) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+            change.accept(job);
+            jobRepository.save(job);
+        }));
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // ── bookkeeping ───────────────────────────────────────────────────────────
+
+    private record Row(long number, ProductDTO dto, String error) {
+    }
+
+    private static final class ChunkOutcome {
+        private final Set<Product> toSave = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<ProductImportJobDTO.RowError> errors = new ArrayList<>();
+        private long remaining;
+        private long created;
+        private long updated;
+        private long rows;
+
+        ChunkOutcome(long remaining) {
+            this.remaining = remaining;
+        }
+
+        void save(Product product) {
+            rows++;
+            toSave.add(product);
+        }
+
+        void fail(Row row, String message) {
+            rows++;
+            String sku = row.dto() == null ? null : row.dto().getSku();
+            errors.add(new ProductImportJobDTO.RowError(row.number(), sku, message));
+        }
+    }
+
+    private final class Progress {
+        private final List<ProductImportJobDTO.RowError> errors = new ArrayList<>();
+        private long processed;
+        private long created;
+        private long updated;
+        private long failed;
+
+        void add(ChunkOutcome outcome, int maxErrors) {
+            processed += outcome.rows;
+            created += outcome.created;
+            updated += outcome.updated;
+            failed += outcome.errors.size();
+            for (ProductImportJobDTO.RowError error : outcome.errors) {
+                if (errors.size() >= maxErrors) {
+                    break;
+                }
+                errors.add(error);
+            }
+        }
+
+        String errorsJson() {
+            if (errors.isEmpty()) {
+                return null;
+            }
+            try {
+                return objectMapper.writeValueAsString(errors);
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+    }
+
+    // ── row sources ───────────────────────────────────────────────────────────
+
+    private interface RowSource extends Closeable {
+        /** @return the next non-blank row, or {@code null} at end of file */
+        Row next() throws IOException;
+    }
+
+    /** CSV with a header row; headers may be camelCase ({@code costPrice}) or snake_case ({@code cost_price}). */
+    private final class CsvRows implements RowSource {
+        private final CsvReader reader;
+        private final List<String> header;
+        private long number;
+
+        CsvRows(Path file) throws IOException {
+            reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+            List<String> raw = reader.next();
+            if (raw == null) {
+                throw new BusinessException("IMPORT_FILE_EMPTY", "The CSV file has no header row.");
+            }
+            header = raw.stream().map(CsvRows::propertyName).toList();
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            do {
+                fields = reader.next();
+                if (fields == null) {
+                    return null;
+                }
+                number++;
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            if (fields.size() != header.size()) {
+                return new Row(number, null, "Row has " + fields.size() + " columns, header has " + header.size() + ".");
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).trim();
+                if (!value.isEmpty()) {
+                    values.put(header.get(i), value);
+                }
+            }
+            try {
+                return new Row(number, objectMapper.convertValue(values, ProductDTO.class), null);
+            } catch (IllegalArgumentException e) {
+                return new Row(number, null, "Invalid value: " + rootMessage(e));
+            }
+        }
+
+        private static String propertyName(String column) {
+            String name = column.replace("\uFEFF", "").trim();
+            StringBuilder camel = new StringBuilder(name.length());
+            boolean upper = false;
+            for (char c : name.toCharArray()) {
+                if (c == '_' || c == '-' || c == ' ') {
+                    upper = camel.length() > 0;
+                } else {
+                    camel.append(upper ? Character.toUpperCase(c) : c);
+                    upper = false;
+                }
+            }
+            return camel.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /** One JSON object per line, using the same property names as {@link ProductDTO}. */
+    private final class JsonLines implements RowSource {
+        private final BufferedReader reader;
+        private long number;
+
+        JsonLines(Path file) throws IOException {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                number++;
+            } while (line.isBlank());
+
+            try {
+                return new Row(number, objectMapper.readValue(line, ProductDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(number, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.cartwave.product.service;
 
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.pagination.KeysetCursor;
 import com.cartwave.config.AwsS3Service;
 import com.cartwave.exception.BusinessException;
 import com.cartwave.exception.ResourceNotFoundException;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
 import com.cartwave.product.dto.ProductDTO;
+import com.cartwave.product.dto.ProductSearchPage;
 import com.cartwave.product.entity.Product;
 import com.cartwave.product.entity.ProductStatus;
 import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchCriteria;
+import com.cartwave.product.search.ProductSearchHits;
+import com.cartwave.product.search.ProductSearchIndex;
 import com.cartwave.store.entity.Store;
 import com.cartwave.store.repository.StoreRepository;
 import com.cartwave.subscription.service.SubscriptionService;
@@ -16,15 +23,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,25 +44,20 @@ public class ProductService {
     private final StoreRepository storeRepository;
     private final SubscriptionService subscriptionService;
     private final AwsS3Service awsS3Service;
+    private final StorefrontCatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final HotSkuStockAllocator hotSkuStockAllocator;
 
     public ProductDTO createProduct(ProductDTO productDto) {
         UUID storeId = TenantContext.getTenantId();
         long currentCount = productRepository.countByStoreIdAndDeletedFalse(storeId);
         subscriptionService.assertCanCreateProducts(storeId, currentCount, 1);
 
-        Product product = new Product();
-        applyProduct(product, productDto, true);
-        product.setStoreId(storeId);
-        if (product.getStatus() == null) {
-            product.setStatus(ProductStatus.ACTIVE);
-        }
-        if (product.getStock() == null) {
-            product.setStock(0L);
-        }
-        if (product.getIsPublished() == null) {
-            product.setIsPublished(false);
-        }
-        return toDto(productRepository.save(product));
+        Product product = newProduct(storeId, productDto);
+        Product saved = productRepository.save(product);
+        catalogCache.invalidateAfterCommit(storeId);
+        searchIndex.indexAfterCommit(saved);
+        return toDto(saved);
     }
 
     @Transactional(readOnly = true)
@@ -63,6 +66,18 @@ public class ProductService {
         return productRepository.findAllByStoreId(storeId).stream().map(this::toDto).toList();
     }
 
+    /** Keyset-paginated variant of {@link #getAllProducts()}, newest first. */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getProductsPage(String cursor, int size) {
+        UUID storeId = TenantContext.getTenantId();
+        int pageSize = KeysetCursor.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Product> rows = after == null
+                ? productRepository.findPageByStoreId(storeId, KeysetCursor.limit(pageSize))
+                : productRepository.findPageByStoreIdAfter(storeId, after.createdAt(), after.id(), KeysetCursor.limit(pageSize));
+        return KeysetCursor.page(rows, pageSize, this::toDto);
+    }
+
     @Transactional(readOnly = true)
     public ProductDTO getProductById(UUID id) {
         UUID storeId = TenantContext.getTenantId();
@@ -76,6 +91,8 @@ public class ProductService {
         Product product = productRepository.findByIdAndStoreId(id, storeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         applyProduct(product, productDto, false);
+        catalogCache.invalidateAfterCommit(storeId);
+        searchIndex.indexAfterCommit(product);
         return toDto(productRepository.save(product));
     }
 
@@ -85,24 +102,20 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         product.setDeleted(true);
         productRepository.save(product);
+        catalogCache.invalidateAfterCommit(storeId);
+        searchIndex.removeAfterCommit(storeId, id);
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getPublicProducts(String slug) {
         Store store = storeRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Store", "slug", slug));
-        return productRepository.findAllByStoreId(store.getId()).stream()
-                .filter(product -> product.getStatus() == ProductStatus.ACTIVE)
-                .map(this::toDto)
-                .toList();
+        return catalogCache.get(store.getId(), this::loadActiveCatalog).activeProducts();
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getPublishedProductsByStoreId(UUID storeId) {
-        return productRepository.findAllByStoreId(storeId).stream()
-                .filter(p -> Boolean.TRUE.equals(p.getIsPublished()) && p.getStatus() == ProductStatus.ACTIVE)
-                .map(this::toDto)
-                .toList();
+        return catalogCache.get(storeId, this::loadActiveCatalog).publishedProducts();
     }
 
     /** Upload images to S3 and append their URLs to the product's images field. */
@@ -120,6 +133,8 @@ public class ProductService {
         if (product.getImageUrl() == null && !urls.isEmpty()) {
             product.setImageUrl(urls.get(0));
         }
+        catalogCache.invalidateAfterCommit(storeId);
+        searchIndex.indexAfterCommit(product);
         return toDto(productRepository.save(product));
     }
 
@@ -138,6 +153,8 @@ public class ProductService {
         if (imageUrl.equals(product.getImageUrl())) {
             product.setImageUrl(urls.isEmpty() ? null : urls.get(0));
         }
+        catalogCache.invalidateAfterCommit(storeId);
+        searchIndex.indexAfterCommit(product);
         return toDto(productRepository.save(product));
     }
 
@@ -147,11 +164,36 @@ public class ProductService {
         Product product = productRepository.findByIdAndStoreId(productId, storeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         product.setIsPublished(!Boolean.TRUE.equals(product.getIsPublished()));
+        catalogCache.invalidateAfterCommit(storeId);
+        searchIndex.indexAfterCommit(product);
+        return toDto(productRepository.save(product));
+    }
+
+    /**
+     * Toggle flash-sale stock handling. Switching it off hands this node's unsold pooled units
+     * back to the product once the change commits; other nodes follow on their next
+     * reconciliation pass.
+     */
+    public ProductDTO toggleHotSku(UUID productId) {
+        UUID storeId = TenantContext.getTenantId();
+        Product product = productRepository.findByIdAndStoreId(productId, storeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        product.setHotSku(!Boolean.TRUE.equals(product.getHotSku()));
+        if (!product.getHotSku()) {
+            hotSkuStockAllocator.closeAfterCommit(productId);
+        }
+        catalogCache.invalidateAfterCommit(storeId);
         return toDto(productRepository.save(product));
     }
 
     // ── helpers ───────────────────────────────────────────────────────────────
 
+    private List<ProductDTO> loadActiveCatalog(UUID storeId) {
+        return productRepository.findAllByStoreIdAndStatus(storeId, ProductStatus.ACTIVE).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
     private List<String> existingImages(Product product) {
         if (product.getImages() == null || product.getImages().isBlank()) return new ArrayList<>();
         return Arrays.stream(product.getImages().split(","))
@@ -160,7 +202,24 @@ public class ProductService {
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    private void applyProduct(Product product, ProductDTO dto, boolean creating) {
+    /** Build an unsaved product from {@code dto} with the same defaults as the create endpoint. */
+    Product newProduct(UUID storeId, ProductDTO dto) {
+        Product product = new Product();
+        applyProduct(product, dto, true);
+        product.setStoreId(storeId);
+        if (product.getStatus() == null) {
+            product.setStatus(ProductStatus.ACTIVE);
+        }
+        if (product.getStock() == null) {
+            product.setStock(0L);
+        }
+        if (product.getIsPublished() == null) {
+            product.setIsPublished(false);
+        }
+        return product;
+    }
+
+    void applyProduct(Product product, ProductDTO dto, boolean creating) {
         if (dto.getName() != null) {
             product.setName(dto.getName());
         } else if (creating) {
@@ -197,6 +256,9 @@ public class ProductService {
         dto.setPrice(product.getPrice());
         dto.setCostPrice(product.getCostPrice());
         dto.setStock(product.getStock());
+        dto.setAvailableStock(product.getStock() == null ? null
+                : product.getStock() - (product.getReservedStock() == null ? 0L : product.getReservedStock()));
+        dto.setHotSku(product.getHotSku());
         dto.setLowStockThreshold(product.getLowStockThreshold());
         dto.setSku(product.getSku());
         dto.setStatus(product.getStatus() == null ? null : product.getStatus().name());
@@ -216,8 +278,12 @@ public class ProductService {
 
     // ── Search / Filter ───────────────────────────────────────────────────────────────
 
+    /**
+     * Ranked product search. When {@code facets} is set, category, price-range and stock counts
+     * for the same query are computed in the same pass over the index.
+     */
     @Transactional(readOnly = true)
-    public Page<ProductDTO> searchProducts(
+    public ProductSearchPage<ProductDTO> searchProducts(
             UUID storeId,
             String q,
             String category,
@@ -225,12 +291,36 @@ public class ProductService {
             BigDecimal maxPrice,
             boolean inStockOnly,
             boolean publishedOnly,
+            boolean facets,
             int page,
             int size) {
         // If no storeId provided, resolve from tenant context (authenticated endpoints)
         UUID resolvedStoreId = storeId != null ? storeId : TenantContext.getTenantId();
-        Pageable pageable = PageRequest.of(page, Math.min(size, 100));
-        return productRepository.search(resolvedStoreId, q, category, minPrice, maxPrice, inStockOnly, publishedOnly, pageable)
-                .map(this::toDto);
+        if (resolvedStoreId == null) {
+            throw new BusinessException("STORE_REQUIRED", "Product search requires a store context.");
+        }
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)));
+        ProductSearchHits hits = searchIndex.search(resolvedStoreId, ProductSearchCriteria.builder()
+                .query(q)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStockOnly(inStockOnly)
+                .publishedOnly(publishedOnly)
+                .facets(facets)
+                .offset((int) Math.min(pageable.getOffset(), Integer.MAX_VALUE))
+                .limit(pageable.getPageSize())
+                .build());
+
+        // the index only ranks ids; rows are hydrated in one query and put back in rank order
+        Map<UUID, Product> byId = productRepository.findAllById(hits.productIds()).stream()
+                .filter(p -> !Boolean.TRUE.equals(p.getDeleted()))
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDTO> content = hits.productIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .toList();
+        return new ProductSearchPage<>(content, pageable, hits.totalHits(), hits.facets());
     }
 }
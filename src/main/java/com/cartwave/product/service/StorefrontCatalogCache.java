@@ -0,0 +1,101 @@
+package com.cartwave.product.service;
+
+import com.cartwave.product.dto.ProductDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory, per-store snapshot of the public storefront catalogue.
+ * <p>
+ * A snapshot is an immutable list of ACTIVE products (plus its published subset) built once
+ * from the database and replaced wholesale after a committed product write for that store.
+ * Readers always see either the previous or the next snapshot, never a partially built one.
+ * Snapshots also expire after {@code cartwave.catalog.snapshot-ttl-ms} so that writes made on
+ * other nodes become visible without cross-node messaging.
+ */
+@Slf4j
+@Component
+public class StorefrontCatalogCache {
+
+    @Value("${cartwave.catalog.snapshot-ttl-ms:300000}")
+    private long snapshotTtlMs;
+
+    @Value("${cartwave.catalog.max-stores:2000}")
+    private int maxStores;
+
+    private final Map<UUID, CatalogSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Return the current snapshot for a store, building it with {@code loader} when missing or expired.
+     * A snapshot built concurrently with an invalidation is returned to its caller but never installed.
+     */
+    public CatalogSnapshot get(UUID storeId, Function<UUID, List<ProductDTO>> loader) {
+        long now = System.currentTimeMillis();
+        CatalogSnapshot current = snapshots.get(storeId);
+        if (current != null && now - current.builtAt() < snapshotTtlMs) {
+            return current;
+        }
+
+        long version = versions.getOrDefault(storeId, 0L);
+        CatalogSnapshot fresh = CatalogSnapshot.of(loader.apply(storeId), version, now);
+        if (current == null && snapshots.size() >= maxStores) {
+            evictOldest();
+        }
+        snapshots.compute(storeId, (id, existing) ->
+                versions.getOrDefault(id, 0L) == version ? fresh : existing);
+        return fresh;
+    }
+
+    /** Drop the snapshot for a store once the surrounding transaction commits (or immediately if none). */
+    public void invalidateAfterCommit(UUID storeId) {
+        if (storeId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(storeId);
+                }
+            });
+        } else {
+            invalidate(storeId);
+        }
+    }
+
+    public void invalidate(UUID storeId) {
+        versions.merge(storeId, 1L, Long::sum);
+        snapshots.remove(storeId);
+    }
+
+    private void evictOldest() {
+        snapshots.values().stream()
+                .min(Comparator.comparingLong(CatalogSnapshot::builtAt))
+                .ifPresent(oldest -> snapshots.values().remove(oldest));
+        log.debug("Catalog snapshot cache full ({} stores), evicted oldest entry", maxStores);
+    }
+
+    /** Immutable catalogue view: ACTIVE products newest-first, and the published subset of them. */
+    public record CatalogSnapshot(List<ProductDTO> activeProducts,
+                                  List<ProductDTO> publishedProducts,
+                                  long version,
+                                  long builtAt) {
+
+        static CatalogSnapshot of(List<ProductDTO> activeProducts, long version, long builtAt) {
+            List<ProductDTO> active = List.copyOf(activeProducts);
+            List<ProductDTO> published = active.stream()
+                    .filter(p -> Boolean.TRUE.equals(p.getIsPublished()))
+                    .toList();
+            return new CatalogSnapshot(active, published, version, builtAt);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -19,6 +20,15 @@ public class CurrentUserService {
         return principal;
     }
 
+    /** The authenticated user, or empty outside a request (webhooks, scheduled jobs). */
+    public Optional<CurrentUserPrincipal> findCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CurrentUserPrincipal principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+
     public UUID requireCurrentUserId() {
         return requireCurrentUser().getUserId();
     }
@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +13,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.cartwave.common.dto.ApiResponse;
 import com.cartwave.product.dto.ProductDTO;
+import com.cartwave.product.dto.ProductSearchPage;
 import com.cartwave.product.service.ProductService;
 import com.cartwave.store.dto.StoreDTO;
 import com.cartwave.store.service.StoreService;
@@ -41,17 +41,18 @@ public class PublicCatalogController {
     // ── Public product search (no auth required) ──────────────────────────────
 
     @GetMapping("/{storeId}/products/search")
-    public ResponseEntity<ApiResponse<Page<ProductDTO>>> searchProducts(
+    public ResponseEntity<ApiResponse<ProductSearchPage<ProductDTO>>> searchProducts(
             @PathVariable UUID storeId,
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "false") boolean facets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Page<ProductDTO> results = productService.searchProducts(
-                storeId, q, category, minPrice, maxPrice, inStock, true, page, size);
+        ProductSearchPage<ProductDTO> results = productService.searchProducts(
+                storeId, q, category, minPrice, maxPrice, inStock, true, facets, page, size);
         return ResponseEntity.ok(ApiResponse.success("Search results", results));
     }
 }
@@ -0,0 +1,28 @@
+-- ============================================================
+-- V10__hot_sku_stock.sql
+-- Flash-sale mode: hot products are sold from in-memory stock pools that each node leases
+-- from products.reserved_stock in blocks; sold units are applied to products.stock in batches.
+-- ============================================================
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS hot_sku BOOLEAN NOT NULL DEFAULT FALSE;
+CREATE INDEX IF NOT EXISTS idx_products_hot_sku ON products(id) WHERE hot_sku = TRUE AND deleted = FALSE;
+
+CREATE TABLE IF NOT EXISTS inventory_stock_leases (
+    id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    store_id      UUID NOT NULL REFERENCES stores(id),
+    product_id    UUID NOT NULL REFERENCES products(id),
+    node_id       VARCHAR(64) NOT NULL,
+    granted       BIGINT NOT NULL DEFAULT 0,
+    heartbeat_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted       BOOLEAN NOT NULL DEFAULT FALSE
+);
+CREATE INDEX IF NOT EXISTS idx_inventory_stock_leases_heartbeat ON inventory_stock_leases(heartbeat_at);
+
+-- lease_id: the pool a hold was taken from; stock_applied = FALSE marks paid hot holds whose
+-- units have not left products.stock yet
+ALTER TABLE inventory_reservations ADD COLUMN IF NOT EXISTS lease_id UUID;
+ALTER TABLE inventory_reservations ADD COLUMN IF NOT EXISTS stock_applied BOOLEAN NOT NULL DEFAULT TRUE;
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_lease ON inventory_reservations(lease_id) WHERE lease_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_unapplied ON inventory_reservations(product_id) WHERE stock_applied = FALSE;
@@ -0,0 +1,7 @@
+-- ============================================================
+-- V11__order_coupon_code.sql
+-- Coupons redeemed at checkout: the order keeps the code so an unpaid, cancelled order can
+-- hand its redemption back.
+-- ============================================================
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS coupon_code VARCHAR(64);
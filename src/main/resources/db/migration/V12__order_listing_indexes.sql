@@ -0,0 +1,9 @@
+-- ============================================================
+-- V12__order_listing_indexes.sql
+-- Order listings filtered by status or payment status, and a customer's orders across the
+-- (single) store they belong to, read newest first without a sort.
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_orders_store_status_created  ON orders(store_id, status, created_at DESC, id DESC) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_orders_store_payment_created ON orders(store_id, payment_status, created_at DESC, id DESC) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_orders_customer_only_created ON orders(customer_id, created_at DESC, id DESC) WHERE deleted = FALSE;
@@ -0,0 +1,23 @@
+-- ============================================================
+-- V13__order_search.sql
+-- Order search by fragment of order number, customer email or phone. Trigram GIN indexes
+-- (led by store_id through btree_gin) serve LIKE '%term%' for terms of 3+ characters.
+-- ============================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS customer_email_normalized VARCHAR(255);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS customer_phone_normalized VARCHAR(20);
+
+UPDATE orders
+   SET customer_email_normalized = NULLIF(lower(btrim(customer_email)), ''),
+       customer_phone_normalized = NULLIF(regexp_replace(customer_phone_number, '\D', '', 'g'), '')
+ WHERE customer_email IS NOT NULL OR customer_phone_number IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_orders_search_number ON orders
+    USING gin (store_id, upper(order_number) gin_trgm_ops) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_orders_search_email ON orders
+    USING gin (store_id, customer_email_normalized gin_trgm_ops) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_orders_search_phone ON orders
+    USING gin (store_id, customer_phone_normalized gin_trgm_ops) WHERE deleted = FALSE;
@@ -0,0 +1,22 @@
+-- ============================================================
+-- V14__order_events.sql
+-- Append-only history of order status, payment, escrow and refund changes. Rows are only
+-- ever inserted, in the transaction that made the change; an order's timeline is one range
+-- of the (store_id, order_id, created_at, id) index.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS order_events (
+    id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    store_id      UUID NOT NULL,
+    order_id      UUID NOT NULL,
+    type          VARCHAR(20) NOT NULL,
+    from_value    VARCHAR(50),
+    to_value      VARCHAR(50),
+    detail        VARCHAR(500),
+    actor_id      UUID,
+    actor_role    VARCHAR(50),
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted       BOOLEAN NOT NULL DEFAULT FALSE
+);
+CREATE INDEX IF NOT EXISTS idx_order_events_timeline ON order_events(store_id, order_id, created_at, id);
@@ -0,0 +1,29 @@
+-- ============================================================
+-- V15__payment_webhook_inbox.sql
+-- Provider payment webhooks are stored here on receipt and settled by a background worker.
+-- dedupe_key (provider event id, or transaction id + status) absorbs redeliveries; a
+-- transaction's events are applied one at a time in arrival order.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS payment_webhook_events (
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    dedupe_key      VARCHAR(255) NOT NULL,
+    event_id        VARCHAR(128),
+    transaction_id  VARCHAR(64) NOT NULL,
+    payment_status  VARCHAR(32) NOT NULL,
+    failure_reason  VARCHAR(500),
+    status          VARCHAR(20) NOT NULL,
+    attempts        INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(500),
+    processed_at    TIMESTAMP WITH TIME ZONE,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted         BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_payment_webhook_events_dedupe_key UNIQUE (dedupe_key)
+);
+-- only unsettled events are indexed: the worker's due scan and its per-transaction ordering check
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_events_due ON payment_webhook_events(next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_events_open ON payment_webhook_events(transaction_id, created_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,17 @@
+-- ============================================================
+-- V16__order_coupon_id.sql
+-- Orders reference the redeemed coupon by id, so a redemption is handed back to exactly the
+-- coupon that counted it even after the code is reused or re-cased. Existing orders are
+-- matched on their stored code.
+-- ============================================================
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS coupon_id UUID;
+
+UPDATE orders o
+SET coupon_id = c.id
+FROM coupons c
+WHERE o.coupon_id IS NULL
+  AND o.coupon_code IS NOT NULL
+  AND c.store_id = o.store_id
+  AND UPPER(c.code) = UPPER(o.coupon_code)
+  AND c.deleted = FALSE;
@@ -0,0 +1,18 @@
+-- ============================================================
+-- V17__id_node_leases.sql
+-- Snowflake node ids (0-1023) held by running instances. An instance without a configured
+-- CARTWAVE_NODE_ID leases a free or expired one at startup and heartbeats it; last_millis is the
+-- newest millisecond it issued ids for, where a restart with a clock behind it picks up.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS id_node_leases (
+    id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    node_id       INTEGER NOT NULL,
+    holder        VARCHAR(128) NOT NULL,
+    heartbeat_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_millis   BIGINT NOT NULL DEFAULT 0,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted       BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_id_node_leases_node UNIQUE (node_id)
+);
@@ -0,0 +1,7 @@
+-- ============================================================
+-- V18__fraud_scan_indexes.sql
+-- The fraud scan reads a store's recently changed orders and the flags already raised on them.
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_orders_store_updated    ON orders(store_id, updated_at) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_fraud_flags_order_reason ON fraud_flags(order_id, reason) WHERE deleted = FALSE;
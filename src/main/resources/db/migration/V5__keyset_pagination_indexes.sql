@@ -0,0 +1,9 @@
+-- ============================================================
+-- V5__keyset_pagination_indexes.sql
+-- Composite indexes backing cursor pagination on (created_at DESC, id DESC)
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_products_store_created   ON products(store_id, created_at DESC, id DESC) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_orders_store_created     ON orders(store_id, created_at DESC, id DESC) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created  ON orders(customer_id, store_id, created_at DESC, id DESC) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS idx_escrow_store_created     ON escrow_transactions(store_id, created_at DESC, id DESC) WHERE deleted = FALSE;
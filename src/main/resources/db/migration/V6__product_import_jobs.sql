@@ -0,0 +1,26 @@
+-- ============================================================
+-- V6__product_import_jobs.sql
+-- Bulk product import job tracking + SKU lookup index for upserts
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS product_import_jobs (
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    store_id        UUID NOT NULL REFERENCES stores(id),
+    file_name       VARCHAR(255),
+    format          VARCHAR(10) NOT NULL,
+    status          VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    processed_rows  BIGINT NOT NULL DEFAULT 0,
+    created_count   BIGINT NOT NULL DEFAULT 0,
+    updated_count   BIGINT NOT NULL DEFAULT 0,
+    failed_count    BIGINT NOT NULL DEFAULT 0,
+    errors_json     TEXT,
+    error_message   TEXT,
+    started_at      TIMESTAMP WITH TIME ZONE,
+    finished_at     TIMESTAMP WITH TIME ZONE,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted         BOOLEAN NOT NULL DEFAULT FALSE
+);
+CREATE INDEX IF NOT EXISTS idx_product_import_jobs_store_id ON product_import_jobs(store_id);
+
+CREATE INDEX IF NOT EXISTS idx_products_store_sku ON products(store_id, sku) WHERE deleted = FALSE AND sku IS NOT NULL;
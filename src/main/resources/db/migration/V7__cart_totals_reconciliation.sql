@@ -0,0 +1,7 @@
+-- ============================================================
+-- V7__cart_totals_reconciliation.sql
+-- Cart totals are maintained incrementally; the reconciliation job re-derives them for
+-- recently changed active carts, which this index finds without scanning old carts.
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS idx_carts_active_updated ON carts(updated_at) WHERE status = 'ACTIVE' AND deleted = FALSE;
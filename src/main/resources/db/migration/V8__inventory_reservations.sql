@@ -0,0 +1,23 @@
+-- ============================================================
+-- V8__inventory_reservations.sql
+-- Stock holds between checkout and payment: a per-product reserved counter plus one
+-- reservation row per order line. Available to sell = stock - reserved_stock.
+-- ============================================================
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS reserved_stock BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS inventory_reservations (
+    id          UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    store_id    UUID NOT NULL REFERENCES stores(id),
+    order_id    UUID NOT NULL REFERENCES orders(id),
+    product_id  UUID NOT NULL REFERENCES products(id),
+    quantity    BIGINT NOT NULL,
+    status      VARCHAR(20) NOT NULL,
+    expires_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted     BOOLEAN NOT NULL DEFAULT FALSE
+);
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_order ON inventory_reservations(order_id);
+-- only live holds are indexed, so the expiry sweep never reads settled reservations
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_held_expiry ON inventory_reservations(expires_at) WHERE status = 'HELD';
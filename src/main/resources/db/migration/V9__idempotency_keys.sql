@@ -0,0 +1,20 @@
+-- ============================================================
+-- V9__idempotency_keys.sql
+-- Replay store for retried checkout / payment requests, keyed by client or provider key
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id               UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    scope            VARCHAR(32) NOT NULL,
+    owner            VARCHAR(128) NOT NULL,
+    idempotency_key  VARCHAR(255) NOT NULL,
+    request_hash     VARCHAR(64) NOT NULL,
+    status           VARCHAR(20) NOT NULL,
+    response_json    TEXT,
+    expires_at       TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at       TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at       TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted          BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_idempotency_keys_scope_owner_key UNIQUE (scope, owner, idempotency_key)
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,225 @@
+package com.cartwave;
+
+import com.cartwave.cart.dto.CartBatchRequest;
+import com.cartwave.cart.dto.CartDTO;
+import com.cartwave.cart.dto.CartItemRequest;
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.entity.CartItem;
+import com.cartwave.cart.entity.CartStatus;
+import com.cartwave.cart.service.CartService;
+import com.cartwave.cart.service.DatabaseCartStore;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.customer.entity.Customer;
+import com.cartwave.customer.service.CustomerService;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.tenant.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, CartService.class, DatabaseCartStore.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CartReadModelQueryCountTest {
+
+    @Autowired
+    CartService cartService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void cartReadsAndWritesIssueTheSameStatementsForOneOrTwentyItems() {
+        long[] small = measure(1);
+        long[] large = measure(20);
+
+        assertThat(large[0]).isEqualTo(small[0]);
+        assertThat(large[1]).isEqualTo(small[1]);
+    }
+
+    @Test
+    void addItemReturnsTheMergedCartWithProductNames() {
+        UUID storeId = UUID.randomUUID();
+        Cart cart = cartFor(storeId, 2);
+        Product extra = product(storeId, "Extra");
+        entityManager.flush();
+        entityManager.clear();
+
+        CartDTO dto = cartService.addItem(request(extra.getId(), 3));
+
+        assertThat(dto.getId()).isEqualTo(cart.getId());
+        assertThat(dto.getItems()).hasSize(3);
+        assertThat(dto.getItems().get(2).getProductName()).isEqualTo("Extra");
+        assertThat(dto.getSubtotal()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void batchAppliesAllOperationsWithOneProductQuery() {
+        UUID storeId = UUID.randomUUID();
+        cartFor(storeId, 2);
+        Product mug = product(storeId, "Mug");
+        Product tea = product(storeId, "Tea");
+        entityManager.flush();
+        entityManager.clear();
+        CartDTO before = cartService.getCurrentCart();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CartDTO after = cartService.applyBatch(batch(
+                operation(CartBatchRequest.Action.ADD, null, mug.getId(), 2),
+                operation(CartBatchRequest.Action.ADD, null, tea.getId(), 1),
+                operation(CartBatchRequest.Action.ADD, null, tea.getId(), 1),
+                operation(CartBatchRequest.Action.UPDATE, null, before.getItems().get(0).getProductId(), 4),
+                operation(CartBatchRequest.Action.REMOVE, before.getItems().get(1).getId(), null, null)));
+
+        // cart, lines and products: one query each, however many operations
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+        assertThat(after.getItems()).extracting("productName").containsExactly("Product 0", "Mug", "Tea");
+        assertThat(after.getItems()).extracting("quantity").containsExactly(4, 2, 2);
+        assertThat(after.getSubtotal()).isEqualByComparingTo("80.00");
+        entityManager.flush();
+        assertThat(cartService.reconcileTotals(Instant.now().minusSeconds(60))).isZero();
+    }
+
+    @Test
+    void totalsMoveByTheLineDeltaAndReconciliationRepairsDrift() {
+        UUID storeId = UUID.randomUUID();
+        Cart cart = cartFor(storeId, 2);
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Cart c SET c.subtotal = 0, c.total = 0 WHERE c.id = :id")
+                .setParameter("id", cart.getId())
+                .executeUpdate();
+        entityManager.clear();
+        UUID lineId = cartService.getCurrentCart().getItems().get(0).getId();
+
+        CartDTO updated = cartService.updateItem(lineId, request(null, 3));
+        assertThat(updated.getSubtotal()).isEqualByComparingTo("20.00");
+
+        assertThat(cartService.reconcileTotals(Instant.now().minusSeconds(60))).isEqualTo(1);
+        entityManager.clear();
+        assertThat(entityManager.find(Cart.class, cart.getId()).getSubtotal()).isEqualByComparingTo("40.00");
+        assertThat(cartService.reconcileTotals(Instant.now().minusSeconds(60))).isZero();
+    }
+
+    /** @return statements for {@code getCurrentCart} and for an {@code addItem} on an existing line */
+    private long[] measure(int itemCount) {
+        UUID storeId = UUID.randomUUID();
+        Cart cart = cartFor(storeId, itemCount);
+        UUID firstProductId = entityManager.getEntityManager()
+                .createQuery("SELECT ci.productId FROM CartItem ci WHERE ci.cartId = :cartId", UUID.class)
+                .setParameter("cartId", cart.getId())
+                .setMaxResults(1)
+                .getSingleResult();
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CartDTO read = cartService.getCurrentCart();
+        long reads = statistics.getPrepareStatementCount();
+        assertThat(read.getItems()).hasSize(itemCount).allSatisfy(item -> assertThat(item.getProductName()).isNotNull());
+
+        entityManager.clear();
+        statistics.clear();
+        cartService.addItem(request(firstProductId, 1));
+        entityManager.flush();
+        long writes = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return new long[]{reads, writes};
+    }
+
+    private Cart cartFor(UUID storeId, int itemCount) {
+        Customer customer = Customer.builder().userId(UUID.randomUUID()).storeId(storeId).build();
+        customer.setId(UUID.randomUUID());
+        TenantContext.setTenantId(storeId);
+        when(customerService.requireCurrentCustomer()).thenReturn(customer);
+
+        Cart cart = entityManager.persist(Cart.builder()
+                .storeId(storeId)
+                .customerId(customer.getId())
+                .status(CartStatus.ACTIVE)
+                .subtotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(itemCount)))
+                .total(BigDecimal.TEN.multiply(BigDecimal.valueOf(itemCount)))
+                .currency("USD")
+                .build());
+        for (int i = 0; i < itemCount; i++) {
+            Product product = product(storeId, "Product " + i);
+            entityManager.persist(CartItem.builder()
+                    .cartId(cart.getId())
+                    .productId(product.getId())
+                    .quantity(1)
+                    .unitPrice(product.getPrice())
+                    .lineTotal(product.getPrice())
+                    .build());
+        }
+        return cart;
+    }
+
+    private Product product(UUID storeId, String name) {
+        return entityManager.persist(Product.builder()
+                .storeId(storeId)
+                .name(name)
+                .sku(name.replace(' ', '-'))
+                .price(BigDecimal.TEN)
+                .stock(100L)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build());
+    }
+
+    private CartBatchRequest batch(CartBatchRequest.Operation... operations) {
+        CartBatchRequest request = new CartBatchRequest();
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private CartBatchRequest.Operation operation(CartBatchRequest.Action action, UUID itemId, UUID productId, Integer quantity) {
+        CartBatchRequest.Operation operation = new CartBatchRequest.Operation();
+        operation.setAction(action);
+        operation.setItemId(itemId);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private CartItemRequest request(UUID productId, int quantity) {
+        CartItemRequest request = new CartItemRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
@@ -0,0 +1,406 @@
+package com.cartwave;
+
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.entity.CartItem;
+import com.cartwave.cart.entity.CartStatus;
+import com.cartwave.cart.repository.CartItemRepository;
+import com.cartwave.cart.repository.CartRepository;
+import com.cartwave.cart.service.CartService;
+import com.cartwave.cart.service.DatabaseCartStore;
+import com.cartwave.checkout.dto.CheckoutRequest;
+import com.cartwave.checkout.service.CheckoutService;
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.customer.entity.Customer;
+import com.cartwave.customer.repository.CustomerRepository;
+import com.cartwave.customer.service.CustomerService;
+import com.cartwave.exception.BusinessException;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.marketing.service.CouponCache;
+import com.cartwave.marketing.service.CouponService;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import com.cartwave.security.service.CurrentUserService;
+import com.cartwave.store.entity.Store;
+import com.cartwave.store.repository.StoreRepository;
+import com.cartwave.tenant.TenantContext;
+import com.cartwave.user.entity.User;
+import com.cartwave.user.entity.UserRole;
+import com.cartwave.user.entity.UserStatus;
+import com.cartwave.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Concurrent checkout load harness: seeds a store, hot and cold products and one cart per
+ * shopper, then drives {@link CheckoutService#checkout} from a thread pool and reports
+ * throughput, latency percentiles, sold-out, oversell and lock-failure/retry counts.
+ * <p>
+ * Off by default. Run with
+ * {@code mvn test -Dtest=CheckoutLoadHarnessTest -Dcartwave.load-tests=true} and tune with
+ * {@code -Dcartwave.load.<setting>=<value>}:
+ * <ul>
+ *   <li>{@code db}: {@code h2} (default), or {@code postgres} for a throwaway Testcontainers
+ *       Postgres, or the database at {@code jdbc-url}/{@code username}/{@code password} when
+ *       set (migrated by Flyway; the run adds its own store and leaves its rows behind)</li>
+ *   <li>{@code checkouts} (5000), {@code threads} (32), {@code pool-size} (20)</li>
+ *   <li>{@code hot-share} (0.8): fraction of shoppers buying a hot product</li>
+ *   <li>{@code hot-products} (1), {@code hot-stock} (2000), {@code cold-products} (500)</li>
+ *   <li>{@code hot-sku-mode} (false): flag hot products for in-memory stock pools</li>
+ *   <li>{@code max-retries} (3): retries of a checkout that lost a lock or deadlocked</li>
+ * </ul>
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AuditAwareImpl.class, CheckoutService.class, SnowflakeIdGenerator.class, CartService.class,
+        DatabaseCartStore.class, InventoryReservationService.class, HotSkuStockAllocator.class,
+        StorefrontCatalogCache.class, ProductSearchIndex.class, CouponService.class, CouponCache.class,
+        OrderEventRecorder.class, CurrentUserService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "cartwave.load-tests", matches = "true")
+class CheckoutLoadHarnessTest {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        String db = setting("db", "h2");
+        String jdbcUrl = System.getProperty("cartwave.load.jdbc-url");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> setting("pool-size", "20"));
+        if (jdbcUrl != null) {
+            registry.add("spring.datasource.url", () -> jdbcUrl);
+            registry.add("spring.datasource.username", () -> setting("username", "cartwave"));
+            registry.add("spring.datasource.password", () -> setting("password", ""));
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        } else if ("postgres".equals(db)) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            registry.add("spring.datasource.url", postgres::getJdbcUrl);
+            registry.add("spring.datasource.username", postgres::getUsername);
+            registry.add("spring.datasource.password", postgres::getPassword);
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        } else {
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:checkout-load;DB_CLOSE_DELAY=-1");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            registry.add("spring.flyway.enabled", () -> "false");
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Autowired
+    CheckoutService checkoutService;
+
+    @Autowired
+    HotSkuStockAllocator allocator;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    StoreRepository storeRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    CartRepository cartRepository;
+
+    @Autowired
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    private final ThreadLocal<Customer> shopper = new ThreadLocal<>();
+
+    @Test
+    void concurrentCheckoutsOnHotAndColdSkus() throws Exception {
+        int checkouts = Integer.parseInt(setting("checkouts", "5000"));
+        int threads = Integer.parseInt(setting("threads", "32"));
+        int maxRetries = Integer.parseInt(setting("max-retries", "3"));
+        Seed seed = inTransaction(() -> seed(checkouts));
+        when(customerService.requireCurrentCustomer()).thenAnswer(invocation -> shopper.get());
+
+        Report report = run(seed, threads, maxRetries);
+        allocator.closeAll();
+        report.oversold = inTransaction(() -> oversold(seed));
+        System.out.println(report.render(seed, threads));
+
+        assertThat(report.oversold).as("units sold beyond stock").isZero();
+        assertThat(report.outcomes.values().stream().mapToInt(AtomicInteger::get).sum()).isEqualTo(checkouts);
+        assertThat(report.outcomes.get(Outcome.ERROR).get()).as("unexpected failures").isZero();
+    }
+
+    // ── driving ───────────────────────────────────────────────────────────────
+
+    private Report run(Seed seed, int threads, int maxRetries) throws Exception {
+        Report report = new Report(seed.shoppers().size());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> futures = IntStream.range(0, seed.shoppers().size())
+                    .<Future<?>>mapToObj(i -> pool.submit(() -> checkout(seed, seed.shoppers().get(i), i, maxRetries, report)))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+            report.elapsedNanos = System.nanoTime() - started;
+        } finally {
+            pool.shutdown();
+        }
+        return report;
+    }
+
+    private void checkout(Seed seed, Customer customer, int index, int maxRetries, Report report) {
+        shopper.set(customer);
+        TenantContext.setTenantId(seed.storeId());
+        CheckoutRequest request = new CheckoutRequest();
+        request.setDeliveryAddress("1 Load Test Street");
+        request.setPaymentMethod("CARD");
+        request.setPaymentProvider("LOAD");
+        long started = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    checkoutService.checkout(request);
+                    outcome = Outcome.ORDERED;
+                    break;
+                } catch (BusinessException e) {
+                    outcome = "INSUFFICIENT_STOCK".equals(e.getErrorCode()) ? Outcome.SOLD_OUT : Outcome.ERROR;
+                    break;
+                } catch (PessimisticLockingFailureException
+                         | ObjectOptimisticLockingFailureException e) {
+                    report.lockFailures.incrementAndGet();
+                    if (attempt == maxRetries) {
+                        outcome = Outcome.LOCK_FAILED;
+                        break;
+                    }
+                    report.retries.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            report.firstError.compareAndSet(null, e.toString());
+        } finally {
+            report.latencies[index] = System.nanoTime() - started;
+            report.outcomes.get(outcome).incrementAndGet();
+            shopper.remove();
+            TenantContext.clear();
+        }
+    }
+
+    // ── seeding and checks ────────────────────────────────────────────────────
+
+    private Seed seed(int shoppers) {
+        int hotProducts = Integer.parseInt(setting("hot-products", "1"));
+        long hotStock = Long.parseLong(setting("hot-stock", "2000"));
+        int coldProducts = Integer.parseInt(setting("cold-products", "500"));
+        double hotShare = Double.parseDouble(setting("hot-share", "0.8"));
+        boolean hotSkuMode = Boolean.parseBoolean(setting("hot-sku-mode", "false"));
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        User owner = userRepository.save(user("owner-" + run, UserRole.BUSINESS_OWNER));
+        Store store = storeRepository.save(Store.builder()
+                .name("Load test " + run)
+                .slug("load-test-" + run)
+                .ownerId(owner.getId())
+                .currency("USD")
+                .build());
+        List<Product> hot = productRepository.saveAll(IntStream.range(0, hotProducts)
+                .mapToObj(i -> product(store.getId(), "HOT-" + run + "-" + i, hotStock, hotSkuMode))
+                .toList());
+        List<Product> cold = productRepository.saveAll(IntStream.range(0, coldProducts)
+                .mapToObj(i -> product(store.getId(), "COLD-" + run + "-" + i, (long) shoppers, false))
+                .toList());
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> users = userRepository.saveAll(IntStream.range(0, shoppers)
+                .mapToObj(i -> user("shopper-" + i + "-" + run, UserRole.CUSTOMER))
+                .toList());
+        List<Customer> customers = customerRepository.saveAll(users.stream()
+                .map(user -> Customer.builder().userId(user.getId()).storeId(store.getId()).build())
+                .toList());
+        List<Cart> carts = cartRepository.saveAll(customers.stream()
+                .map(customer -> Cart.builder()
+                        .storeId(store.getId())
+                        .customerId(customer.getId())
+                        .status(CartStatus.ACTIVE)
+                        .subtotal(BigDecimal.TEN)
+                        .total(BigDecimal.TEN)
+                        .currency("USD")
+                        .build())
+                .toList());
+        cartItemRepository.saveAll(carts.stream()
+                .map(cart -> {
+                    Product product = random.nextDouble() < hotShare
+                            ? hot.get(random.nextInt(hot.size()))
+                            : cold.get(random.nextInt(cold.size()));
+                    return CartItem.builder()
+                            .cartId(cart.getId())
+                            .productId(product.getId())
+                            .quantity(1)
+                            .unitPrice(BigDecimal.TEN)
+                            .lineTotal(BigDecimal.TEN)
+                            .build();
+                })
+                .toList());
+
+        Map<UUID, Long> initialStock = new HashMap<>();
+        hot.forEach(product -> initialStock.put(product.getId(), product.getStock()));
+        cold.forEach(product -> initialStock.put(product.getId(), product.getStock()));
+        return new Seed(store.getId(), customers, initialStock, hotProducts, coldProducts, hotShare, hotSkuMode);
+    }
+
+    /** Units ordered beyond each product's starting stock, summed over the store's products. */
+    private long oversold(Seed seed) {
+        List<Object[]> ordered = entityManager.createQuery("""
+                        SELECT oi.productId, SUM(oi.quantity) FROM OrderItem oi, Order o
+                        WHERE oi.orderId = o.id AND o.storeId = :storeId
+                        GROUP BY oi.productId
+                        """, Object[].class)
+                .setParameter("storeId", seed.storeId())
+                .getResultList();
+        return ordered.stream()
+                .mapToLong(row -> Math.max(0, ((Number) row[1]).longValue() - seed.initialStock().get((UUID) row[0])))
+                .sum();
+    }
+
+    private static User user(String name, UserRole role) {
+        return User.builder()
+                .email(name + "@load.cartwave.test")
+                .password("not-a-real-hash")
+                .role(role)
+                .status(UserStatus.ACTIVE)
+                .build();
+    }
+
+    private static Product product(UUID storeId, String sku, long stock, boolean hotSku) {
+        return Product.builder()
+                .storeId(storeId)
+                .name(sku)
+                .sku(sku)
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .hotSku(hotSku)
+                .build();
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private static String setting(String name, String defaultValue) {
+        return System.getProperty("cartwave.load." + name, defaultValue);
+    }
+
+    // ── reporting ─────────────────────────────────────────────────────────────
+
+    private enum Outcome { ORDERED, SOLD_OUT, LOCK_FAILED, ERROR }
+
+    private record Seed(UUID storeId, List<Customer> shoppers, Map<UUID, Long> initialStock,
+                        int hotProducts, int coldProducts, double hotShare, boolean hotSkuMode) {
+    }
+
+    private static final class Report {
+        final long[] latencies;
+        final Map<Outcome, AtomicInteger> outcomes = new EnumMap<>(Outcome.class);
+        final AtomicInteger lockFailures = new AtomicInteger();
+        final AtomicInteger retries = new AtomicInteger();
+        final AtomicReference<String> firstError = new AtomicReference<>();
+        long elapsedNanos;
+        long oversold;
+
+        Report(int checkouts) {
+            latencies = new long[checkouts];
+            Arrays.stream(Outcome.values()).forEach(outcome -> outcomes.put(outcome, new AtomicInteger()));
+        }
+
+        String render(Seed seed, int threads) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            List<String> lines = new ArrayList<>();
+            lines.add("-- checkout load ------------------------------------------");
+            lines.add(String.format("shoppers %d, threads %d, hot products %d (share %.0f%%, pooled %s), cold products %d",
+                    sorted.length, threads, seed.hotProducts(), seed.hotShare() * 100, seed.hotSkuMode(), seed.coldProducts()));
+            lines.add(String.format("throughput  %.0f checkouts/s over %.2f s",
+                    sorted.length / (elapsedNanos / 1e9), elapsedNanos / 1e9));
+            lines.add(String.format("latency ms  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f",
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), sorted[sorted.length - 1] / 1e6));
+            lines.add(String.format("outcomes    ordered %d  sold out %d  lock failed %d  error %d",
+                    outcomes.get(Outcome.ORDERED).get(), outcomes.get(Outcome.SOLD_OUT).get(),
+                    outcomes.get(Outcome.LOCK_FAILED).get(), outcomes.get(Outcome.ERROR).get()));
+            lines.add(String.format("contention  lock failures/deadlocks %d  retries %d  oversold units %d",
+                    lockFailures.get(), retries.get(), oversold));
+            if (firstError.get() != null) {
+                lines.add("first error " + firstError.get());
+            }
+            return String.join(System.lineSeparator(), lines);
+        }
+
+        private static double percentile(long[] sorted, int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.cartwave;
+
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.entity.CartItem;
+import com.cartwave.cart.entity.CartStatus;
+import com.cartwave.cart.service.CartService;
+import com.cartwave.cart.service.DatabaseCartStore;
+import com.cartwave.checkout.dto.CheckoutRequest;
+import com.cartwave.checkout.service.CheckoutService;
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.customer.entity.Customer;
+import com.cartwave.customer.service.CustomerService;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.marketing.service.CouponCache;
+import com.cartwave.marketing.service.CouponService;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import com.cartwave.security.service.CurrentUserService;
+import com.cartwave.tenant.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, CheckoutService.class, SnowflakeIdGenerator.class, CartService.class, DatabaseCartStore.class,
+        InventoryReservationService.class, HotSkuStockAllocator.class, StorefrontCatalogCache.class, ProductSearchIndex.class,
+        CouponService.class, CouponCache.class,
+        OrderEventRecorder.class, CurrentUserService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CheckoutWriteBatchingTest {
+
+    @Autowired
+    CheckoutService checkoutService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void checkoutSendsTheSameStatementsForOneOrTwentyLines() {
+        long one = statementsForCheckout(1);
+        long twenty = statementsForCheckout(20);
+
+        // order items, reservations and cart line soft deletes go out as one batch or statement each,
+        // so twenty lines cost no more than one, and fewer statements than there are lines
+        assertThat(twenty).isEqualTo(one);
+        assertThat(twenty).isLessThanOrEqualTo(10);
+    }
+
+    private long statementsForCheckout(int lines) {
+        UUID storeId = UUID.randomUUID();
+        Cart cart = cartFor(storeId, lines);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        UUID orderId = checkoutService.checkout(request()).getOrderId();
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(oi) FROM OrderItem oi WHERE oi.orderId = :orderId", Long.class)
+                .setParameter("orderId", orderId)
+                .getSingleResult()).isEqualTo(lines);
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cartId = :cartId AND ci.deleted = false", Long.class)
+                .setParameter("cartId", cart.getId())
+                .getSingleResult()).isZero();
+        entityManager.clear();
+        return statements;
+    }
+
+    private Cart cartFor(UUID storeId, int lines) {
+        Customer customer = Customer.builder().userId(UUID.randomUUID()).storeId(storeId).build();
+        customer.setId(UUID.randomUUID());
+        TenantContext.setTenantId(storeId);
+        when(customerService.requireCurrentCustomer()).thenReturn(customer);
+
+        BigDecimal total = BigDecimal.TEN.multiply(BigDecimal.valueOf(lines));
+        Cart cart = entityManager.persist(Cart.builder()
+                .storeId(storeId)
+                .customerId(customer.getId())
+                .status(CartStatus.ACTIVE)
+                .subtotal(total)
+                .total(total)
+                .currency("USD")
+                .build());
+        for (int i = 0; i < lines; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .storeId(storeId)
+                    .name("Product " + i)
+                    .sku("P-" + i)
+                    .price(BigDecimal.TEN)
+                    .stock(100L)
+                    .status(ProductStatus.ACTIVE)
+                    .isPublished(true)
+                    .build());
+            entityManager.persist(CartItem.builder()
+                    .cartId(cart.getId())
+                    .productId(product.getId())
+                    .quantity(1)
+                    .unitPrice(BigDecimal.TEN)
+                    .lineTotal(BigDecimal.TEN)
+                    .build());
+        }
+        return cart;
+    }
+
+    private CheckoutRequest request() {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setDeliveryAddress("1 Main Street");
+        request.setPaymentMethod("CARD");
+        request.setPaymentProvider("TEST");
+        return request;
+    }
+}
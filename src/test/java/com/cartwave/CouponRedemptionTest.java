@@ -0,0 +1,126 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.exception.BusinessException;
+import com.cartwave.marketing.dto.CouponValidateRequest;
+import com.cartwave.marketing.entity.Coupon;
+import com.cartwave.marketing.entity.DiscountType;
+import com.cartwave.marketing.repository.CouponRepository;
+import com.cartwave.marketing.service.CouponCache;
+import com.cartwave.marketing.service.CouponCache.CachedCoupon;
+import com.cartwave.marketing.service.CouponService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, CouponService.class, CouponCache.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CouponRedemptionTest {
+
+    @Autowired
+    CouponService couponService;
+
+    @Autowired
+    CouponRepository couponRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    UUID storeId = UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        couponRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRedemptionsNeverExceedMaxUses() throws Exception {
+        couponRepository.save(coupon("FLASH10", 10));
+        CachedCoupon coupon = couponService.requireApplicable(storeId, "flash10", new BigDecimal("50.00"));
+
+        int attempts = 40;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        new TransactionTemplate(transactionManager).executeWithoutResult(status -> couponService.redeem(coupon));
+                        return true;
+                    } catch (BusinessException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int redeemed = 0;
+            for (Future<Boolean> result : results) {
+                redeemed += result.get() ? 1 : 0;
+            }
+            assertThat(redeemed).isEqualTo(10);
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(couponRepository.findAll().get(0).getUsedCount()).isEqualTo(10);
+    }
+
+    @Test
+    void repeatedValidationsReadTheStoreCouponsOnce() {
+        couponRepository.save(coupon("SAVE20", null));
+        CouponValidateRequest request = new CouponValidateRequest();
+        request.setStoreId(storeId);
+        request.setOrderAmount(new BigDecimal("80.00"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (String typed : List.of("S", "SA", "SAV", "SAVE", "SAVE2", "save20")) {
+            request.setCode(typed);
+            assertThat(couponService.validateCoupon(request).isValid()).isEqualTo(typed.equalsIgnoreCase("SAVE20"));
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        request.setCode("SAVE20");
+        assertThat(couponService.validateCoupon(request).getDiscountAmount()).isEqualByComparingTo("16.00");
+    }
+
+    private Coupon coupon(String code, Integer maxUses) {
+        return Coupon.builder()
+                .storeId(storeId)
+                .code(code)
+                .discountType(DiscountType.PERCENT)
+                .discountValue(new BigDecimal("20"))
+                .maxUses(maxUses)
+                .build();
+    }
+}
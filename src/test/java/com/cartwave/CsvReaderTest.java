@@ -0,0 +1,47 @@
+package com.cartwave;
+
+import com.cartwave.common.io.CsvReader;
+import com.cartwave.common.io.CsvWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsEscapedQuotesAndEmbeddedNewlines() throws IOException {
+        String csv = "name,description,price\r\n"
+                + "\"Mug, large\",\"Says \"\"hi\"\"\nand more\",12.50\r\n"
+                + "Plain,,3\n";
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            assertThat(reader.next()).containsExactly("name", "description", "price");
+            assertThat(reader.next()).containsExactly("Mug, large", "Says \"hi\"\nand more", "12.50");
+            assertThat(reader.next()).containsExactly("Plain", "", "3");
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void writerOutputRoundTripsAndNeutralisesFormulas() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        writer.writeRow(Arrays.asList("a,b", "say \"x\"", null, "line\nbreak", "=SUM(A1)", "-12.5"));
+        writer.flush();
+
+        try (CsvReader reader = new CsvReader(new StringReader(out.toString()))) {
+            assertThat(reader.next()).containsExactly("a,b", "say \"x\"", "", "line\nbreak", "'=SUM(A1)", "-12.5");
+        }
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("\"never closed,1\n"));
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+    }
+}
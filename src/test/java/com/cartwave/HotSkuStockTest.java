@@ -0,0 +1,244 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.inventory.entity.InventoryReservation;
+import com.cartwave.inventory.repository.InventoryReservationRepository;
+import com.cartwave.inventory.repository.InventoryStockLeaseRepository;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.marketing.service.CouponCache;
+import com.cartwave.marketing.service.CouponService;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import com.cartwave.security.service.CurrentUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, InventoryReservationService.class, HotSkuStockAllocator.class,
+        StorefrontCatalogCache.class, ProductSearchIndex.class,
+        CouponService.class, CouponCache.class,
+        OrderEventRecorder.class, CurrentUserService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotSkuStockTest {
+
+    @Autowired
+    InventoryReservationService reservationService;
+
+    @Autowired
+    HotSkuStockAllocator allocator;
+
+    @Autowired
+    InventoryReservationRepository reservationRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    InventoryStockLeaseRepository leaseRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    UUID storeId = UUID.randomUUID();
+
+    @AfterEach
+    void closePools() {
+        allocator.closeAll();
+    }
+
+    @Test
+    void concurrentCheckoutsOfOneHotSkuNeverOversell() throws Exception {
+        Product product = hotProduct(600);
+
+        Throughput run = checkoutConcurrently(product, 1_000, 32);
+
+        assertThat(run.sold()).isEqualTo(600);
+        assertThat(reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getProductId().equals(product.getId()))
+                .mapToLong(InventoryReservation::getQuantity)
+                .sum()).isEqualTo(600);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getReservedStock()).isEqualTo(600);
+        assertThat(allocator.pooled(product.getId())).isZero();
+    }
+
+    /** Load check for real hardware: {@code mvn test -Dtest=HotSkuStockTest -Dcartwave.load-tests=true}. */
+    @Test
+    @EnabledIfSystemProperty(named = "cartwave.load-tests", matches = "true")
+    void sustainsThousandsOfCheckoutsPerSecondOnOneHotSku() throws Exception {
+        Product product = hotProduct(20_000);
+
+        Throughput run = checkoutConcurrently(product, 25_000, 64);
+
+        assertThat(run.sold()).isEqualTo(20_000);
+        assertThat(run.perSecond()).as("checkouts per second").isGreaterThan(1_000);
+    }
+
+    @Test
+    void paidHoldsReachStockInBatchesAndUnsoldUnitsReturnWhenTheModeIsSwitchedOff() {
+        Product product = hotProduct(500);
+        List<UUID> orders = IntStream.range(0, 3).mapToObj(i -> UUID.randomUUID()).toList();
+        orders.forEach(orderId -> inTransaction(() ->
+                reservationService.reserve(storeId, orderId, Map.of(product.getId(), 2L), Set.of(product.getId()))));
+
+        inTransaction(() -> {
+            reservationService.commit(orders.get(0));
+            reservationService.commit(orders.get(1));
+            reservationService.release(orders.get(2));
+            return null;
+        });
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(500);
+
+        assertThat(inTransaction(() -> reservationService.applyDeferredCommits(100))).isEqualTo(2);
+        Product applied = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(applied.getStock()).isEqualTo(496);
+        assertThat(inTransaction(() -> reservationService.applyDeferredCommits(100))).isZero();
+
+        Product switchedOff = productRepository.findById(product.getId()).orElseThrow();
+        switchedOff.setHotSku(false);
+        productRepository.save(switchedOff);
+        allocator.maintain();
+
+        Product settled = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(settled.getStock()).isEqualTo(496);
+        assertThat(settled.getReservedStock()).isZero();
+        assertThat(leaseRepository.findAll()).noneMatch(lease -> lease.getProductId().equals(product.getId()));
+    }
+
+    @Test
+    void checkoutThatOutwaitsARefillHoldsOnTheProductRowInstead() throws Exception {
+        Product product = hotProduct(500);
+        ReflectionTestUtils.setField(allocator, "refillWaitMs", 0L);
+        CountDownLatch refilling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService refiller = Executors.newFixedThreadPool(2);
+        try {
+            // The first checkout leases a block and keeps its transaction open: the pool stays empty meanwhile
+            Future<Boolean> first = refiller.submit(() -> inTransaction(() -> {
+                boolean held = reservationService.reserve(storeId, UUID.randomUUID(), Map.of(product.getId(), 1L),
+                        Set.of(product.getId())).isEmpty();
+                refilling.countDown();
+                awaitQuietly(release);
+                return held;
+            }));
+            refilling.await(30, TimeUnit.SECONDS);
+
+            // The fallback waits on the row lock the refill holds, i.e. for the refill's outcome
+            UUID orderId = UUID.randomUUID();
+            Future<Boolean> second = refiller.submit(() -> checkout(product, orderId, 2));
+            Thread.sleep(200);
+            release.countDown();
+            assertThat(first.get(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(second.get(30, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(reservationRepository.findAll())
+                    .filteredOn(reservation -> reservation.getOrderId().equals(orderId))
+                    .singleElement()
+                    .satisfies(reservation -> assertThat(reservation.getLeaseId()).isNull());
+        } finally {
+            release.countDown();
+            refiller.shutdown();
+            ReflectionTestUtils.setField(allocator, "refillWaitMs", 250L);
+        }
+    }
+
+    private Throughput checkoutConcurrently(Product product, int attempts, int threads) throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> checkouts = IntStream.range(0, attempts)
+                    .<Future<?>>mapToObj(i -> pool.submit(() -> {
+                        if (checkout(product, 1)) {
+                            sold.incrementAndGet();
+                        }
+                    }))
+                    .toList();
+            for (Future<?> checkout : checkouts) {
+                checkout.get(120, TimeUnit.SECONDS);
+            }
+            return new Throughput(sold.get(), attempts / ((System.nanoTime() - started) / 1e9));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private boolean checkout(Product product, long quantity) {
+        return checkout(product, UUID.randomUUID(), quantity);
+    }
+
+    /** One checkout's stock step: hold the line, rolling back when it could not be held. */
+    private boolean checkout(Product product, UUID orderId, long quantity) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            List<UUID> unavailable = reservationService.reserve(storeId, orderId,
+                    Map.of(product.getId(), quantity), Set.of(product.getId()));
+            if (!unavailable.isEmpty()) {
+                status.setRollbackOnly();
+            }
+            return unavailable.isEmpty();
+        }));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Throughput(int sold, double perSecond) {
+    }
+
+    private Product hotProduct(long stock) {
+        return productRepository.saveAndFlush(Product.builder()
+                .storeId(storeId)
+                .name("Drop sneaker")
+                .sku("DROP-" + stock)
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .hotSku(true)
+                .build());
+    }
+}
@@ -0,0 +1,88 @@
+package com.cartwave;
+
+import com.cartwave.common.entity.IdNodeLease;
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import com.cartwave.common.repository.IdNodeLeaseRepository;
+import com.cartwave.config.AuditAwareImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(AuditAwareImpl.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdNodeLeaseTest {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    @Autowired
+    IdNodeLeaseRepository leaseRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    void instancesWithoutAConfiguredNodeIdLeaseDistinctOnes() {
+        SnowflakeIdGenerator first = generator(null);
+        SnowflakeIdGenerator second = generator(null);
+
+        assertThat(first.nodeId()).isEqualTo(0);
+        assertThat(second.nodeId()).isEqualTo(1);
+        assertThat(leaseRepository.findAllByOrderByNodeIdAsc()).extracting(IdNodeLease::getNodeId).containsExactly(0, 1);
+
+        first.release();
+        assertThat(generator(null).nodeId()).as("a released node id is free at once").isEqualTo(0);
+    }
+
+    @Test
+    void restartWithTheClockBehindStartsPastTheIdsAlreadyIssued() {
+        SnowflakeIdGenerator before = generator("5");
+        before.nextId();
+        // The previous run issued ids an hour ahead of where the restarted node's clock now is
+        long aheadMillis = System.currentTimeMillis() - EPOCH_MILLIS + TimeUnit.HOURS.toMillis(1);
+        IdNodeLease lease = leaseRepository.findAllByOrderByNodeIdAsc().get(0);
+        lease.setLastMillis(aheadMillis);
+        leaseRepository.save(lease);
+
+        SnowflakeIdGenerator restarted = generator("5");
+
+        assertThat(restarted.nodeId()).isEqualTo(5);
+        assertThat(restarted.nextId() >>> 22).isGreaterThan(aheadMillis);
+    }
+
+    @Test
+    void heartbeatRecordsTheNewestMillisecondIssued() {
+        SnowflakeIdGenerator generator = generator(null);
+        long id = generator.nextId();
+
+        generator.heartbeat();
+
+        IdNodeLease lease = leaseRepository.findAllByOrderByNodeIdAsc().get(0);
+        assertThat(lease.getLastMillis()).isEqualTo(id >>> 22);
+        assertThat(lease.getHeartbeatAt()).isAfter(Instant.now().minusSeconds(5));
+    }
+
+    private SnowflakeIdGenerator generator(String configuredNodeId) {
+        return new SnowflakeIdGenerator(configuredNodeId, 60_000, 10_000, leaseRepository, transactionManager);
+    }
+}
@@ -0,0 +1,99 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.exception.BusinessException;
+import com.cartwave.idempotency.entity.IdempotencyScope;
+import com.cartwave.idempotency.entity.IdempotencyStatus;
+import com.cartwave.idempotency.repository.IdempotencyKeyRepository;
+import com.cartwave.idempotency.service.IdempotencyService;
+import com.cartwave.payment.dto.PaymentConfirmRequest;
+import com.cartwave.payment.dto.PaymentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, IdempotencyService.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    @Autowired
+    IdempotencyService idempotencyService;
+
+    @Autowired
+    IdempotencyKeyRepository repository;
+
+    String owner = "txn-" + UUID.randomUUID();
+    AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void retriesWithTheSameKeyReplayTheStoredResponse() {
+        PaymentResponse first = confirm("key-1", request("SUCCESS"));
+        PaymentResponse retry = confirm("key-1", request("SUCCESS"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry).isEqualTo(first);
+        assertThat(repository.findAll())
+                .filteredOn(key -> key.getOwner().equals(owner))
+                .singleElement()
+                .satisfies(key -> assertThat(key.getStatus()).isEqualTo(IdempotencyStatus.COMPLETED));
+
+        confirm("key-2", request("SUCCESS"));
+        confirm(null, request("SUCCESS"));
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        confirm("key-1", request("SUCCESS"));
+
+        assertThatThrownBy(() -> confirm("key-1", request("FAILED")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("different request");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void aFailedRunReleasesTheKeyForTheNextRetry() {
+        assertThatThrownBy(() -> idempotencyService.execute(IdempotencyScope.PAYMENT_CONFIRM, owner, "key-1",
+                request("SUCCESS"), PaymentResponse.class, () -> {
+                    runs.incrementAndGet();
+                    throw new IllegalStateException("provider timeout");
+                })).isInstanceOf(IllegalStateException.class);
+
+        confirm("key-1", request("SUCCESS"));
+
+        assertThat(runs).hasValue(2);
+    }
+
+    private PaymentResponse confirm(String key, PaymentConfirmRequest request) {
+        return idempotencyService.execute(IdempotencyScope.PAYMENT_CONFIRM, owner, key, request, PaymentResponse.class,
+                () -> PaymentResponse.builder()
+                        .transactionId(request.getTransactionId())
+                        .status("HOLD")
+                        .paymentProvider("run-" + runs.incrementAndGet())
+                        .build());
+    }
+
+    private PaymentConfirmRequest request(String status) {
+        PaymentConfirmRequest request = new PaymentConfirmRequest();
+        request.setTransactionId(owner);
+        request.setStatus(status);
+        return request;
+    }
+}
@@ -0,0 +1,204 @@
+package com.cartwave;
+
+import com.cartwave.cart.dto.CartDTO;
+import com.cartwave.cart.dto.CartItemRequest;
+import com.cartwave.cart.entity.Cart;
+import com.cartwave.cart.entity.CartItem;
+import com.cartwave.cart.entity.CartStatus;
+import com.cartwave.cart.repository.CartItemRepository;
+import com.cartwave.cart.repository.CartRepository;
+import com.cartwave.cart.service.CartService;
+import com.cartwave.cart.service.InMemoryCartStore;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.customer.entity.Customer;
+import com.cartwave.customer.service.CustomerService;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.store.entity.Store;
+import com.cartwave.store.repository.StoreRepository;
+import com.cartwave.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuditAwareImpl.class, CartService.class, InMemoryCartStore.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cartwave.cart.storage=memory"
+})
+class InMemoryCartStoreTest {
+
+    @Autowired
+    CartService cartService;
+
+    @Autowired
+    InMemoryCartStore cartStore;
+
+    @Autowired
+    CartRepository cartRepository;
+
+    @Autowired
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    StoreRepository storeRepository;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void mutationsStayInMemoryUntilWrittenBehind() {
+        UUID storeId = storeRepository.save(store()).getId();
+        Customer customer = Customer.builder().userId(UUID.randomUUID()).storeId(storeId).build();
+        customer.setId(UUID.randomUUID());
+        TenantContext.setTenantId(storeId);
+        when(customerService.requireCurrentCustomer()).thenReturn(customer);
+        Product mug = productRepository.save(product(storeId, "Mug", "10.00"));
+        Product tea = productRepository.save(product(storeId, "Tea", "5.00"));
+
+        cartService.addItem(request(mug.getId(), 2));
+        CartDTO cart = cartService.addItem(request(tea.getId(), 1));
+
+        assertThat(cart.getItems()).extracting("productName").containsExactly("Mug", "Tea");
+        assertThat(cart.getItems()).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+        assertThat(cartRepository.findById(cart.getId())).isEmpty();
+
+        assertThat(cartStore.flushPending()).isEqualTo(1);
+        Cart stored = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(CartStatus.ACTIVE);
+        assertThat(stored.getSubtotal()).isEqualByComparingTo("25.00");
+        assertThat(cartItemRepository.findByCartId(cart.getId())).hasSize(2);
+
+        UUID mugLine = cart.getItems().get(0).getId();
+        UUID teaLine = cart.getItems().get(1).getId();
+        cartService.updateItem(mugLine, request(mug.getId(), 5));
+        cartService.removeItem(teaLine);
+        assertThat(cartStore.flushPending()).isEqualTo(1);
+        assertThat(cartStore.flushPending()).isZero();
+
+        List<CartItem> lines = cartItemRepository.findByCartId(cart.getId());
+        assertThat(lines).singleElement().satisfies(line -> {
+            assertThat(line.getId()).isEqualTo(mugLine);
+            assertThat(line.getQuantity()).isEqualTo(5);
+        });
+        assertThat(cartItemRepository.findById(teaLine).orElseThrow().getDeleted()).isTrue();
+        assertThat(cartRepository.findById(cart.getId()).orElseThrow().getSubtotal()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void checkoutBetweenAMutationAndTheFlushKeepsTheCheckedOutCart() {
+        UUID storeId = storeRepository.save(store()).getId();
+        signIn(storeId);
+        Product mug = productRepository.save(product(storeId, "Mug", "10.00"));
+        Product tea = productRepository.save(product(storeId, "Tea", "5.00"));
+
+        CartDTO cart = cartService.addItem(request(mug.getId(), 1));
+        assertThat(cartStore.flushPending()).isEqualTo(1);
+        cartService.addItem(request(tea.getId(), 3));
+        // Checked out through another node before this one writes the tea line behind
+        Cart stored = cartRepository.findById(cart.getId()).orElseThrow();
+        stored.setStatus(CartStatus.CHECKED_OUT);
+        cartRepository.save(stored);
+
+        assertThat(cartStore.flushPending()).isZero();
+
+        Cart checkedOut = cartRepository.findById(cart.getId()).orElseThrow();
+        assertThat(checkedOut.getStatus()).isEqualTo(CartStatus.CHECKED_OUT);
+        assertThat(checkedOut.getSubtotal()).isEqualByComparingTo("10.00");
+        assertThat(cartItemRepository.findByCartId(cart.getId()))
+                .extracting(CartItem::getProductId).containsExactly(mug.getId());
+        assertThat(cartRepository.findActiveIds(checkedOut.getCustomerId(), storeId)).isEmpty();
+        assertThat(cartService.getCurrentCart().getId()).isNotEqualTo(cart.getId());
+    }
+
+    @Test
+    void heldCartIsMergedIntoAnActiveCartCreatedElsewhere() {
+        UUID storeId = storeRepository.save(store()).getId();
+        Customer customer = signIn(storeId);
+        Product mug = productRepository.save(product(storeId, "Mug", "10.00"));
+        Product tea = productRepository.save(product(storeId, "Tea", "5.00"));
+
+        CartDTO held = cartService.addItem(request(mug.getId(), 2));
+        cartService.addItem(request(tea.getId(), 1));
+        // Another node wrote a cart for the same customer first
+        Cart other = Cart.builder().storeId(storeId).customerId(customer.getId()).status(CartStatus.ACTIVE)
+                .subtotal(new BigDecimal("30.00")).total(new BigDecimal("30.00")).currency("EUR").build();
+        other = cartRepository.save(other);
+        CartItem storedMug = cartItemRepository.save(CartItem.builder().cartId(other.getId()).productId(mug.getId())
+                .quantity(3).unitPrice(new BigDecimal("10.00")).lineTotal(new BigDecimal("30.00")).build());
+
+        assertThat(cartStore.flushPending()).isEqualTo(1);
+
+        assertThat(cartRepository.findById(held.getId())).isEmpty();
+        assertThat(cartRepository.findActiveIds(customer.getId(), storeId)).containsExactly(other.getId());
+        assertThat(cartRepository.findById(other.getId()).orElseThrow().getSubtotal()).isEqualByComparingTo("25.00");
+        List<CartItem> lines = cartItemRepository.findByCartId(other.getId());
+        assertThat(lines).hasSize(2);
+        assertThat(lines).filteredOn(line -> line.getProductId().equals(mug.getId())).singleElement().satisfies(line -> {
+            assertThat(line.getId()).isEqualTo(storedMug.getId());
+            assertThat(line.getQuantity()).isEqualTo(2);
+        });
+        assertThat(cartService.getCurrentCart().getId()).isEqualTo(other.getId());
+    }
+
+    private Customer signIn(UUID storeId) {
+        Customer customer = Customer.builder().userId(UUID.randomUUID()).storeId(storeId).build();
+        customer.setId(UUID.randomUUID());
+        TenantContext.setTenantId(storeId);
+        when(customerService.requireCurrentCustomer()).thenReturn(customer);
+        return customer;
+    }
+
+    private Store store() {
+        return Store.builder()
+                .name("Tea House")
+                .slug("tea-house-" + UUID.randomUUID())
+                .currency("EUR")
+                .ownerId(UUID.randomUUID())
+                .build();
+    }
+
+    private Product product(UUID storeId, String name, String price) {
+        return Product.builder()
+                .storeId(storeId)
+                .name(name)
+                .sku(name.toUpperCase())
+                .price(new BigDecimal(price))
+                .stock(100L)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build();
+    }
+
+    private CartItemRequest request(UUID productId, int quantity) {
+        CartItemRequest request = new CartItemRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
@@ -0,0 +1,128 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.inventory.entity.InventoryReservation;
+import com.cartwave.inventory.entity.ReservationStatus;
+import com.cartwave.inventory.repository.InventoryReservationRepository;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.marketing.service.CouponCache;
+import com.cartwave.marketing.service.CouponService;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import com.cartwave.security.service.CurrentUserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, InventoryReservationService.class, HotSkuStockAllocator.class,
+        StorefrontCatalogCache.class, ProductSearchIndex.class,
+        CouponService.class, CouponCache.class,
+        OrderEventRecorder.class, CurrentUserService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class InventoryReservationServiceTest {
+
+    @Autowired
+    InventoryReservationService reservationService;
+
+    @Autowired
+    InventoryReservationRepository reservationRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    UUID storeId = UUID.randomUUID();
+
+    @Test
+    void holdsCountAgainstAvailableStockUntilPaymentSettles() {
+        Product product = product(5);
+        UUID paid = UUID.randomUUID();
+        UUID failed = UUID.randomUUID();
+
+        assertThat(reservationService.reserve(storeId, paid, Map.of(product.getId(), 3L))).isEmpty();
+        assertThat(reservationService.reserve(storeId, UUID.randomUUID(), Map.of(product.getId(), 3L)))
+                .containsExactly(product.getId());
+        assertThat(reservationService.reserve(storeId, failed, Map.of(product.getId(), 2L))).isEmpty();
+        assertThat(reload(product).getReservedStock()).isEqualTo(5);
+
+        reservationService.commit(paid);
+        reservationService.release(failed);
+
+        Product settled = reload(product);
+        assertThat(settled.getStock()).isEqualTo(2);
+        assertThat(settled.getReservedStock()).isZero();
+        assertThat(statusOf(paid)).isEqualTo(ReservationStatus.COMMITTED);
+        assertThat(statusOf(failed)).isEqualTo(ReservationStatus.RELEASED);
+    }
+
+    @Test
+    void expiredHoldsAreReleasedAndRetakenIfPaidLate() {
+        Product product = product(2);
+        UUID lateOrder = UUID.randomUUID();
+        ReflectionTestUtils.setField(reservationService, "reservationTtlMs", -1_000L);
+        reservationService.reserve(storeId, lateOrder, Map.of(product.getId(), 2L));
+        entityManager.flush();
+
+        assertThat(reservationService.findExpiredOrderIds(10)).containsExactly(lateOrder);
+        reservationService.expire(lateOrder);
+        assertThat(reload(product).getReservedStock()).isZero();
+        assertThat(statusOf(lateOrder)).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(reservationService.findExpiredOrderIds(10)).isEmpty();
+
+        reservationService.commit(lateOrder);
+        Product sold = reload(product);
+        assertThat(sold.getStock()).isZero();
+        assertThat(sold.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        assertThat(statusOf(lateOrder)).isEqualTo(ReservationStatus.COMMITTED);
+    }
+
+    private Product reload(Product product) {
+        entityManager.flush();
+        entityManager.clear();
+        return productRepository.findById(product.getId()).orElseThrow();
+    }
+
+    private ReservationStatus statusOf(UUID orderId) {
+        entityManager.flush();
+        return reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getOrderId().equals(orderId))
+                .map(InventoryReservation::getStatus)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Product product(long stock) {
+        Product product = productRepository.saveAndFlush(Product.builder()
+                .storeId(storeId)
+                .name("Limited print")
+                .sku("LP-1")
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build());
+        entityManager.clear();
+        return product;
+    }
+}
@@ -0,0 +1,136 @@
+package com.cartwave;
+
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.pagination.KeysetCursor;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.order.dto.OrderSummaryDTO;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.repository.OrderListFilter;
+import com.cartwave.order.repository.OrderRepository;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(AuditAwareImpl.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class KeysetPaginationRepositoryTest {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    void walksEveryRowExactlyOnceIncludingTimestampTies() {
+        UUID storeId = UUID.randomUUID();
+        Instant tie = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 7; i++) {
+            // three products share a createdAt so the id tie-breaker is exercised
+            product(storeId, "p" + i, i < 3 ? tie : tie.plusSeconds(i));
+        }
+        product(UUID.randomUUID(), "other store", tie);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<Product> rows = after == null
+                    ? productRepository.findPageByStoreId(storeId, KeysetCursor.limit(3))
+                    : productRepository.findPageByStoreIdAfter(storeId, after.createdAt(), after.id(), KeysetCursor.limit(3));
+            CursorPage<String> page = KeysetCursor.page(rows, 3, Product::getName);
+            seen.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates().startsWith("p6", "p5", "p4", "p3");
+    }
+
+    @Test
+    void orderSummariesPageThroughFilteredRowsNewestFirst() {
+        UUID storeId = UUID.randomUUID();
+        Instant start = Instant.parse("2025-03-01T00:00:00Z");
+        for (int i = 0; i < 10; i++) {
+            order(storeId, "CW-" + i, i % 2 == 0 ? OrderStatus.SHIPPED : OrderStatus.PENDING, start.plusSeconds(i * 60L));
+        }
+        order(UUID.randomUUID(), "CW-OTHER", OrderStatus.SHIPPED, start);
+        entityManager.flush();
+        entityManager.clear();
+
+        // shipped orders 0, 2, 4, 6, 8 minus 8 (created at the `to` bound, exclusive)
+        OrderListFilter filter = new OrderListFilter(storeId, null, OrderStatus.SHIPPED, null, start, start.plusSeconds(8 * 60L));
+        List<String> seen = new ArrayList<>();
+        KeysetCursor after = null;
+        do {
+            CursorPage<OrderSummaryDTO> page = KeysetCursor.pageOf(orderRepository.findSummaries(filter, after, 3), 2,
+                    row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+            page.getContent().forEach(row -> seen.add(row.getOrderNumber()));
+            after = KeysetCursor.decode(page.getNextCursor());
+        } while (after != null);
+
+        assertThat(seen).containsExactly("CW-6", "CW-4", "CW-2", "CW-0");
+    }
+
+    private void order(UUID storeId, String orderNumber, OrderStatus status, Instant createdAt) {
+        Order order = orderRepository.saveAndFlush(Order.builder()
+                .storeId(storeId)
+                .customerId(UUID.randomUUID())
+                .orderNumber(orderNumber)
+                .totalAmount(BigDecimal.TEN)
+                .status(status)
+                .paymentStatus(PaymentStatus.COMPLETED)
+                .deliveryAddress("not part of the summary")
+                .build());
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Order o SET o.createdAt = :createdAt WHERE o.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", order.getId())
+                .executeUpdate();
+    }
+
+    private Product product(UUID storeId, String name, Instant createdAt) {
+        Product product = productRepository.saveAndFlush(Product.builder()
+                .storeId(storeId)
+                .name(name)
+                .price(BigDecimal.ONE)
+                .stock(1L)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build());
+        // auditing stamps createdAt on insert, so pin it afterwards
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Product p SET p.createdAt = :createdAt WHERE p.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", product.getId())
+                .executeUpdate();
+        return product;
+    }
+}
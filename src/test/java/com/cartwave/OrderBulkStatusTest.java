@@ -0,0 +1,263 @@
+package com.cartwave;
+
+import com.cartwave.billing.entity.BillingStatus;
+import com.cartwave.billing.entity.BillingTransaction;
+import com.cartwave.billing.service.BillingService;
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.customer.service.CustomerService;
+import com.cartwave.email.entity.EmailQueue;
+import com.cartwave.email.service.EmailQueueService;
+import com.cartwave.escrow.entity.EscrowStatus;
+import com.cartwave.escrow.entity.EscrowTransaction;
+import com.cartwave.escrow.service.EscrowService;
+import com.cartwave.exception.BusinessException;
+import com.cartwave.order.dto.OrderBulkStatusRequest;
+import com.cartwave.order.dto.OrderBulkStatusResponse;
+import com.cartwave.order.dto.OrderEventDTO;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderEventType;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.mapper.OrderMapperImpl;
+import com.cartwave.order.service.OrderDetailAssembler;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.order.service.OrderService;
+import com.cartwave.security.model.CurrentUserPrincipal;
+import com.cartwave.security.service.CurrentUserService;
+import com.cartwave.subscription.service.SubscriptionService;
+import com.cartwave.tenant.TenantContext;
+import com.cartwave.user.entity.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.thymeleaf.TemplateEngine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, OrderService.class, OrderDetailAssembler.class, BillingService.class,
+        EscrowService.class, EmailQueueService.class, SnowflakeIdGenerator.class, OrderEventRecorder.class, OrderMapperImpl.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderBulkStatusTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    CurrentUserService currentUserService;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    @MockitoBean
+    SubscriptionService subscriptionService;
+
+    @MockitoBean
+    JavaMailSender mailSender;
+
+    @MockitoBean
+    TemplateEngine templateEngine;
+
+    @MockitoBean
+    ObjectMapper objectMapper;
+
+    UUID storeId = UUID.randomUUID();
+
+    @BeforeEach
+    void staff() {
+        TenantContext.setTenantId(storeId);
+        CurrentUserPrincipal staff = new CurrentUserPrincipal(
+                UUID.randomUUID(), "staff@example.com", "", UserRole.STAFF, storeId, true, List.of());
+        when(currentUserService.requireCurrentUser()).thenReturn(staff);
+        when(currentUserService.findCurrentUser()).thenReturn(Optional.of(staff));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void deliversEligibleOrdersAndReportsTheRest() {
+        Order paid = paidShippedOrder();
+        Order unpaid = order(OrderStatus.SHIPPED, PaymentStatus.PENDING);
+        Order pending = order(OrderStatus.PENDING, PaymentStatus.PENDING);
+        Order delivered = order(OrderStatus.DELIVERED, PaymentStatus.COMPLETED);
+        Order otherStore = order(OrderStatus.SHIPPED, PaymentStatus.PENDING);
+        otherStore.setStoreId(UUID.randomUUID());
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderBulkStatusResponse response = orderService.bulkUpdateStatus(request("delivered",
+                paid.getId(), unpaid.getId(), pending.getId(), delivered.getId(), otherStore.getId(), paid.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(response.getUpdated()).containsExactly(paid.getId(), unpaid.getId());
+        assertThat(response.getSkipped()).extracting("orderId", "reason").containsExactly(
+                tuple(pending.getId(), "TRANSITION_NOT_ALLOWED"),
+                tuple(delivered.getId(), "ALREADY_IN_STATUS"),
+                tuple(otherStore.getId(), "ORDER_NOT_FOUND"));
+
+        Order paidAfter = entityManager.find(Order.class, paid.getId());
+        assertThat(paidAfter.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(paidAfter.getCompletedAt()).isNotNull();
+        assertThat(paidAfter.getReleaseAt()).isGreaterThan(paidAfter.getCompletedAt());
+        Order unpaidAfter = entityManager.find(Order.class, unpaid.getId());
+        assertThat(unpaidAfter.getCompletedAt()).isNotNull();
+        assertThat(unpaidAfter.getReleaseAt()).isNull();
+        assertThat(entityManager.find(Order.class, pending.getId()).getStatus()).isEqualTo(OrderStatus.PENDING);
+
+        BillingTransaction billing = single(BillingTransaction.class);
+        assertThat(billing.getReleaseAt()).isEqualTo(paidAfter.getReleaseAt());
+        EscrowTransaction escrow = single(EscrowTransaction.class);
+        assertThat(escrow.getStatus()).isEqualTo(EscrowStatus.RELEASED);
+        assertThat(escrow.getReleasedAt()).isNotNull();
+        assertThat(all(EmailQueue.class)).extracting(EmailQueue::getTemplateName)
+                .containsExactlyInAnyOrder("order_delivered", "order_delivered", "escrow_released");
+    }
+
+    @Test
+    void rejectsAnUnknownStatusForOneOrManyOrders() {
+        Order order = order(OrderStatus.SHIPPED, PaymentStatus.PENDING);
+
+        assertThatThrownBy(() -> orderService.bulkUpdateStatus(request("LOST", order.getId())))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo("INVALID_ORDER_STATUS"));
+        assertThatThrownBy(() -> orderService.updateStatus(order.getId(), "LOST"))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo("INVALID_ORDER_STATUS"));
+    }
+
+    @Test
+    void issuesTheSameStatementsForFiveOrFiftyOrders() {
+        long five = statementsForDelivering(5);
+        long fifty = statementsForDelivering(50);
+
+        assertThat(fifty).isEqualTo(five);
+    }
+
+    @Test
+    void timelineListsEachTransitionWithItsActorInOneQuery() {
+        Order order = order(OrderStatus.PENDING, PaymentStatus.PENDING);
+        entityManager.flush();
+        orderService.updateStatus(order.getId(), "confirmed");
+        orderService.bulkUpdateStatus(request("SHIPPED", order.getId()));
+        orderService.bulkUpdateStatus(request("PENDING", order.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<OrderEventDTO> timeline = orderService.getOrderTimeline(order.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(timeline).extracting("type", "from", "to").containsExactly(
+                tuple(OrderEventType.STATUS, "PENDING", "CONFIRMED"),
+                tuple(OrderEventType.STATUS, "CONFIRMED", "SHIPPED"));
+        assertThat(timeline).allSatisfy(event -> {
+            assertThat(event.getActorId()).isNotNull();
+            assertThat(event.getActorRole()).isEqualTo("STAFF");
+        });
+    }
+
+    private long statementsForDelivering(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(paidShippedOrder().getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        OrderBulkStatusResponse response = orderService.bulkUpdateStatus(request("DELIVERED", ids.toArray(UUID[]::new)));
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(response.getUpdated()).hasSize(count);
+        entityManager.clear();
+        return statements;
+    }
+
+    private OrderBulkStatusRequest request(String status, UUID... orderIds) {
+        OrderBulkStatusRequest request = new OrderBulkStatusRequest();
+        request.setStatus(status);
+        request.setOrderIds(List.of(orderIds));
+        return request;
+    }
+
+    private Order paidShippedOrder() {
+        Order order = order(OrderStatus.SHIPPED, PaymentStatus.COMPLETED);
+        entityManager.persist(BillingTransaction.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .transactionId("txn_" + order.getOrderNumber())
+                .amount(order.getTotalAmount())
+                .status(BillingStatus.HOLD)
+                .build());
+        entityManager.persist(EscrowTransaction.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .holdAmount(order.getTotalAmount())
+                .sellerAmount(order.getTotalAmount())
+                .status(EscrowStatus.HELD)
+                .build());
+        return order;
+    }
+
+    private Order order(OrderStatus status, PaymentStatus paymentStatus) {
+        return entityManager.persist(Order.builder()
+                .storeId(storeId)
+                .customerId(UUID.randomUUID())
+                .orderNumber("CW-" + UUID.randomUUID().toString().substring(0, 8))
+                .totalAmount(BigDecimal.TEN)
+                .status(status)
+                .paymentStatus(paymentStatus)
+                .customerEmail("buyer@example.com")
+                .build());
+    }
+
+    private <T> T single(Class<T> type) {
+        List<T> rows = all(type);
+        assertThat(rows).hasSize(1);
+        return rows.get(0);
+    }
+
+    private <T> List<T> all(Class<T> type) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT e FROM " + type.getSimpleName() + " e", type)
+                .getResultList();
+    }
+}
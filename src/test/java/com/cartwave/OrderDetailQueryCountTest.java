@@ -0,0 +1,212 @@
+package com.cartwave;
+
+import com.cartwave.billing.entity.BillingStatus;
+import com.cartwave.billing.entity.BillingTransaction;
+import com.cartwave.billing.service.BillingService;
+import com.cartwave.common.dto.CursorPage;
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.customer.service.CustomerService;
+import com.cartwave.email.service.EmailQueueService;
+import com.cartwave.escrow.entity.EscrowStatus;
+import com.cartwave.escrow.entity.EscrowTransaction;
+import com.cartwave.escrow.service.EscrowService;
+import com.cartwave.order.dto.OrderDetailDTO;
+import com.cartwave.order.dto.OrderListRequest;
+import com.cartwave.order.dto.OrderSummaryDTO;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderItem;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.mapper.OrderMapperImpl;
+import com.cartwave.order.service.OrderDetailAssembler;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.order.service.OrderService;
+import com.cartwave.payment.entity.Payment;
+import com.cartwave.security.model.CurrentUserPrincipal;
+import com.cartwave.security.service.CurrentUserService;
+import com.cartwave.subscription.service.SubscriptionService;
+import com.cartwave.tenant.TenantContext;
+import com.cartwave.user.entity.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, OrderService.class, OrderDetailAssembler.class, BillingService.class,
+        EscrowService.class, SnowflakeIdGenerator.class, OrderEventRecorder.class, OrderMapperImpl.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderDetailQueryCountTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    CurrentUserService currentUserService;
+
+    @MockitoBean
+    CustomerService customerService;
+
+    @MockitoBean
+    SubscriptionService subscriptionService;
+
+    @MockitoBean
+    EmailQueueService emailQueueService;
+
+    UUID storeId = UUID.randomUUID();
+
+    @BeforeEach
+    void merchant() {
+        TenantContext.setTenantId(storeId);
+        when(currentUserService.requireCurrentUser()).thenReturn(new CurrentUserPrincipal(
+                UUID.randomUUID(), "owner@example.com", "", UserRole.BUSINESS_OWNER, storeId, true, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void detailJoinsEveryPartInTheSameQueriesForOneOrTwentyItems() {
+        Order small = paidOrder(1);
+        Order large = paidOrder(20);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        OrderDetailDTO one = orderService.getOrderDetail(small.getId());
+        long smallQueries = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+        OrderDetailDTO twenty = orderService.getOrderDetail(large.getId());
+
+        // order, items, payment, billing transaction, escrow
+        assertThat(smallQueries).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(smallQueries);
+        assertThat(one.getItems()).hasSize(1);
+        assertThat(twenty.getItems()).hasSize(20);
+        assertThat(twenty.getOrder().getOrderNumber()).isEqualTo(large.getOrderNumber());
+        assertThat(twenty.getPayment().getTransactionId()).isEqualTo("txn_" + large.getOrderNumber());
+        assertThat(twenty.getBillingTransaction().getStatus()).isEqualTo("HOLD");
+        assertThat(twenty.getEscrow().getStatus()).isEqualTo("HELD");
+    }
+
+    @Test
+    void unpaidOrderHasItemsButNoPaymentParts() {
+        Order order = order(3);
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderDetailDTO detail = orderService.getOrderDetail(order.getId());
+
+        assertThat(detail.getItems()).extracting("quantity").containsExactly(1, 2, 3);
+        assertThat(detail.getPayment()).isNull();
+        assertThat(detail.getBillingTransaction()).isNull();
+        assertThat(detail.getEscrow()).isNull();
+    }
+
+    @Test
+    void listingEmbedsItemsOfTheWholePageInOneQuery() {
+        for (int i = 1; i <= 5; i++) {
+            order(i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        OrderListRequest request = new OrderListRequest();
+        request.setSize(10);
+
+        Statistics statistics = statistics();
+        CursorPage<OrderSummaryDTO> plain = orderService.listOrders(request);
+        long plainQueries = statistics.getPrepareStatementCount();
+        request.setIncludeItems(true);
+        statistics.clear();
+        CursorPage<OrderSummaryDTO> withItems = orderService.listOrders(request);
+
+        assertThat(plain.getContent()).allSatisfy(row -> assertThat(row.getItems()).isNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(plainQueries + 1);
+        assertThat(withItems.getContent()).hasSize(5)
+                .allSatisfy(row -> assertThat(row.getItems()).isNotEmpty());
+        assertThat(withItems.getContent()).extracting(row -> row.getItems().size())
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private Order paidOrder(int itemCount) {
+        Order order = order(itemCount);
+        String transactionId = "txn_" + order.getOrderNumber();
+        entityManager.persist(Payment.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .transactionId(transactionId)
+                .status(PaymentStatus.COMPLETED)
+                .amount(order.getTotalAmount())
+                .build());
+        entityManager.persist(BillingTransaction.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .transactionId(transactionId)
+                .amount(order.getTotalAmount())
+                .status(BillingStatus.HOLD)
+                .build());
+        entityManager.persist(EscrowTransaction.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .holdAmount(order.getTotalAmount())
+                .status(EscrowStatus.HELD)
+                .build());
+        return order;
+    }
+
+    private Order order(int itemCount) {
+        Order order = entityManager.persist(Order.builder()
+                .storeId(storeId)
+                .customerId(UUID.randomUUID())
+                .orderNumber("CW-" + UUID.randomUUID().toString().substring(0, 8))
+                .totalAmount(BigDecimal.TEN.multiply(BigDecimal.valueOf(itemCount)))
+                .status(OrderStatus.PENDING)
+                .paymentStatus(PaymentStatus.PENDING)
+                .build());
+        for (int i = 1; i <= itemCount; i++) {
+            entityManager.persist(OrderItem.builder()
+                    .orderId(order.getId())
+                    .productId(UUID.randomUUID())
+                    .quantity(i)
+                    .unitPrice(BigDecimal.TEN)
+                    .lineTotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(i)))
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,118 @@
+package com.cartwave;
+
+import com.cartwave.common.io.ExportFormat;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.mapper.OrderMapperImpl;
+import com.cartwave.order.service.OrderExportService;
+import com.cartwave.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, OrderExportService.class, OrderMapperImpl.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class OrderExportServiceTest {
+
+    @Autowired
+    OrderExportService exportService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    UUID storeId = UUID.randomUUID();
+    List<Order> exported = new ArrayList<>();
+
+    @BeforeEach
+    void orders() {
+        TenantContext.setTenantId(storeId);
+        exported.add(order(storeId, "Leave at the door, \"back\" gate"));
+        exported.add(order(storeId, "=HYPERLINK(\"http://example.com\")"));
+        order(storeId, null).setDeleted(true);
+        order(UUID.randomUUID(), null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void csvHoldsTheStoresLiveOrdersWithQuotedAndDefusedFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.export(ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("id,orderNumber,createdAt,status,paymentStatus,totalAmount");
+        assertThat(lines.subList(1, 3)).extracting(line -> line.substring(0, 36))
+                .containsExactlyInAnyOrderElementsOf(exported.stream().map(order -> order.getId().toString()).toList());
+        assertThat(String.join("\n", lines))
+                .contains("\"Leave at the door, \"\"back\"\" gate\"")
+                .contains("'=HYPERLINK");
+    }
+
+    @Test
+    void jsonLinesCarryOneOrderPerLineAndLeaveNothingInThePersistenceContext() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.export(ExportFormat.JSONL, out);
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).lines().toList()) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertThat(count).isEqualTo(2);
+        assertThat(rows).extracting(row -> row.get("id").asText())
+                .containsExactlyInAnyOrderElementsOf(exported.stream().map(order -> order.getId().toString()).toList());
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.get("storeId").asText()).isEqualTo(storeId.toString());
+            assertThat(row.get("status").asText()).isEqualTo("PENDING");
+        });
+        // each order is detached once written, so a large export does not pile up in the session
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    private Order order(UUID store, String notes) {
+        return entityManager.persist(Order.builder()
+                .storeId(store)
+                .customerId(UUID.randomUUID())
+                .orderNumber("CW-" + UUID.randomUUID().toString().substring(0, 8))
+                .totalAmount(BigDecimal.TEN)
+                .notes(notes)
+                .status(OrderStatus.PENDING)
+                .paymentStatus(PaymentStatus.PENDING)
+                .build());
+    }
+}
@@ -0,0 +1,76 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.order.dto.OrderSummaryDTO;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.repository.OrderListFilter;
+import com.cartwave.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(AuditAwareImpl.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class OrderSearchRepositoryTest {
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    UUID storeId = UUID.randomUUID();
+
+    @BeforeEach
+    void orders() {
+        order(storeId, "CW-0K7QX2", " Ada.Lovelace@Example.com ", "+234 (803) 555-0101", OrderStatus.PENDING);
+        order(storeId, "CW-0K7QZ9", "grace@example.com", "0803 555 0199", OrderStatus.SHIPPED);
+        order(storeId, "CW-MANUAL-100_A", "linus@example.org", null, OrderStatus.PENDING);
+        order(UUID.randomUUID(), "CW-0K7QX3", "ada.lovelace@example.com", "+2348035550101", OrderStatus.PENDING);
+    }
+
+    @Test
+    void matchesFragmentsOfNumberNormalizedEmailAndPhoneWithinTheStore() {
+        assertThat(search("0k7q", null)).containsExactlyInAnyOrder("CW-0K7QX2", "CW-0K7QZ9");
+        assertThat(search("LOVELACE@example", null)).containsExactly("CW-0K7QX2");
+        assertThat(search("555-0101", null)).containsExactly("CW-0K7QX2");
+        assertThat(search("803 555", OrderStatus.SHIPPED)).containsExactly("CW-0K7QZ9");
+    }
+
+    @Test
+    void treatsLikeWildcardsAsText() {
+        assertThat(search("100_A", null)).containsExactly("CW-MANUAL-100_A");
+        assertThat(search("0_A", null)).containsExactly("CW-MANUAL-100_A");
+        assertThat(search("CW-%", null)).isEmpty();
+    }
+
+    private List<String> search(String term, OrderStatus status) {
+        OrderListFilter filter = new OrderListFilter(storeId, null, status, null, null, null, term);
+        return orderRepository.findSummaries(filter, null, 50).stream().map(OrderSummaryDTO::getOrderNumber).toList();
+    }
+
+    private void order(UUID storeId, String number, String email, String phone, OrderStatus status) {
+        orderRepository.saveAndFlush(Order.builder()
+                .storeId(storeId)
+                .customerId(UUID.randomUUID())
+                .orderNumber(number)
+                .totalAmount(BigDecimal.TEN)
+                .status(status)
+                .paymentStatus(PaymentStatus.PENDING)
+                .customerEmail(email)
+                .customerPhoneNumber(phone)
+                .build());
+    }
+}
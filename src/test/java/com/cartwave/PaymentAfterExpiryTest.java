@@ -0,0 +1,228 @@
+package com.cartwave;
+
+import com.cartwave.billing.entity.BillingStatus;
+import com.cartwave.billing.entity.BillingTransaction;
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.email.service.EmailQueueService;
+import com.cartwave.escrow.entity.EscrowTransaction;
+import com.cartwave.escrow.service.EscrowService;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.inventory.service.InventoryReservationService;
+import com.cartwave.marketing.entity.Coupon;
+import com.cartwave.marketing.entity.DiscountType;
+import com.cartwave.marketing.service.CouponCache;
+import com.cartwave.marketing.service.CouponService;
+import com.cartwave.order.entity.Order;
+import com.cartwave.order.entity.OrderStatus;
+import com.cartwave.order.entity.PaymentStatus;
+import com.cartwave.order.service.OrderEventRecorder;
+import com.cartwave.payment.dto.PaymentConfirmRequest;
+import com.cartwave.payment.dto.PaymentResponse;
+import com.cartwave.payment.service.PaymentService;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import com.cartwave.security.service.CurrentUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, PaymentService.class, InventoryReservationService.class, HotSkuStockAllocator.class,
+        StorefrontCatalogCache.class, ProductSearchIndex.class, CouponService.class, CouponCache.class,
+        EscrowService.class, OrderEventRecorder.class, CurrentUserService.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PaymentAfterExpiryTest {
+
+    @Autowired
+    PaymentService paymentService;
+
+    @Autowired
+    InventoryReservationService reservationService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @MockitoBean
+    EmailQueueService emailQueueService;
+
+    UUID storeId = UUID.randomUUID();
+
+    @BeforeEach
+    void holdsExpireImmediately() {
+        ReflectionTestUtils.setField(reservationService, "reservationTtlMs", -1_000L);
+    }
+
+    @Test
+    void latePaymentRetakesStockAndReopensTheOrder() {
+        Product product = product(2);
+        Order order = expiredOrder(Map.of(product.getId(), 2L));
+
+        PaymentResponse response = paymentService.confirm(confirmation(order));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(response.getStatus()).isEqualTo(BillingStatus.HOLD.name());
+        Order paid = entityManager.find(Order.class, order.getId());
+        assertThat(paid.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(paid.getPaymentStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(entityManager.find(Product.class, product.getId()).getStock()).isZero();
+        assertThat(all(EscrowTransaction.class)).hasSize(1);
+    }
+
+    @Test
+    void paymentSucceedingAfterAFailureRetakesStockAndCoupon() {
+        Coupon coupon = coupon();
+        Product product = product(2);
+        Order order = heldOrder(Map.of(product.getId(), 1L), coupon);
+
+        paymentService.confirm(confirmation(order, "FAILED"));
+        entityManager.flush();
+        assertThat(usedCount(coupon)).isZero();
+
+        paymentService.confirm(confirmation(order));
+        entityManager.flush();
+        assertThat(usedCount(coupon)).isEqualTo(1);
+        Product taken = entityManager.find(Product.class, product.getId());
+        assertThat(taken.getStock()).isEqualTo(1);
+        assertThat(taken.getReservedStock()).isZero();
+    }
+
+    @Test
+    void couponUseIsGivenBackOnceWhenAnExpiredOrderAlsoFailsPayment() {
+        Coupon coupon = coupon();
+        Order order = heldOrder(Map.of(product(2).getId(), 1L), coupon);
+        reservationService.expire(order.getId());
+        entityManager.flush();
+        assertThat(usedCount(coupon)).isZero();
+
+        paymentService.confirm(confirmation(order, "FAILED"));
+        entityManager.flush();
+        assertThat(usedCount(coupon)).isZero();
+
+        paymentService.confirm(confirmation(order));
+        entityManager.flush();
+        assertThat(usedCount(coupon)).isEqualTo(1);
+    }
+
+    @Test
+    void latePaymentForSoldOutStockIsMarkedForRefundWithoutEscrow() {
+        Product soldOut = product(1);
+        Product inStock = product(5);
+        Order order = expiredOrder(Map.of(soldOut.getId(), 1L, inStock.getId(), 2L));
+        // Someone else buys the last unit while the order sits expired
+        assertThat(reservationService.reserve(storeId, UUID.randomUUID(), Map.of(soldOut.getId(), 1L))).isEmpty();
+
+        PaymentResponse response = paymentService.confirm(confirmation(order));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(response.getStatus()).isEqualTo(BillingStatus.REFUND_PENDING.name());
+        BillingTransaction transaction = all(BillingTransaction.class).get(0);
+        assertThat(transaction.getFailureReason()).isEqualTo("STOCK_UNAVAILABLE");
+        Order cancelled = entityManager.find(Order.class, order.getId());
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(cancelled.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(all(EscrowTransaction.class)).isEmpty();
+        Product untouched = entityManager.find(Product.class, inStock.getId());
+        assertThat(untouched.getStock()).isEqualTo(5);
+        assertThat(untouched.getReservedStock()).isZero();
+    }
+
+    private Order expiredOrder(Map<UUID, Long> quantities) {
+        Order order = heldOrder(quantities, null);
+        reservationService.expire(order.getId());
+        entityManager.flush();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        return order;
+    }
+
+    private Order heldOrder(Map<UUID, Long> quantities, Coupon coupon) {
+        Order order = entityManager.persist(Order.builder()
+                .storeId(storeId)
+                .customerId(UUID.randomUUID())
+                .orderNumber("CW-" + UUID.randomUUID().toString().substring(0, 8))
+                .totalAmount(BigDecimal.TEN)
+                .couponCode(coupon == null ? null : coupon.getCode())
+                .couponId(coupon == null ? null : coupon.getId())
+                .status(OrderStatus.PENDING)
+                .paymentStatus(PaymentStatus.PROCESSING)
+                .build());
+        entityManager.persist(BillingTransaction.builder()
+                .storeId(storeId)
+                .orderId(order.getId())
+                .transactionId("txn_" + order.getOrderNumber())
+                .amount(order.getTotalAmount())
+                .status(BillingStatus.PROCESSING)
+                .build());
+        assertThat(reservationService.reserve(storeId, order.getId(), quantities)).isEmpty();
+        entityManager.flush();
+        return order;
+    }
+
+    private PaymentConfirmRequest confirmation(Order order) {
+        return confirmation(order, "SUCCESS");
+    }
+
+    private PaymentConfirmRequest confirmation(Order order, String status) {
+        PaymentConfirmRequest request = new PaymentConfirmRequest();
+        request.setTransactionId("txn_" + order.getOrderNumber());
+        request.setStatus(status);
+        return request;
+    }
+
+    /** A coupon with the use of the order about to be created already counted, as checkout leaves it. */
+    private Coupon coupon() {
+        Coupon coupon = entityManager.persist(Coupon.builder()
+                .storeId(storeId)
+                .code("LATE-" + UUID.randomUUID().toString().substring(0, 8))
+                .discountType(DiscountType.PERCENT)
+                .discountValue(BigDecimal.TEN)
+                .usedCount(1)
+                .build());
+        entityManager.flush();
+        return coupon;
+    }
+
+    private int usedCount(Coupon coupon) {
+        entityManager.clear();
+        return entityManager.find(Coupon.class, coupon.getId()).getUsedCount();
+    }
+
+    private Product product(long stock) {
+        Product product = entityManager.persist(Product.builder()
+                .storeId(storeId)
+                .name("Limited print")
+                .sku("LP-" + UUID.randomUUID().toString().substring(0, 8))
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build());
+        entityManager.flush();
+        return product;
+    }
+
+    private <T> List<T> all(Class<T> type) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT e FROM " + type.getSimpleName() + " e", type)
+                .getResultList();
+    }
+}
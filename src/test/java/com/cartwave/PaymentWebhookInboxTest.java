@@ -0,0 +1,134 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.payment.dto.PaymentWebhookReceipt;
+import com.cartwave.payment.dto.PaymentWebhookRequest;
+import com.cartwave.payment.entity.PaymentWebhookEvent;
+import com.cartwave.payment.entity.PaymentWebhookStatus;
+import com.cartwave.payment.repository.PaymentWebhookEventRepository;
+import com.cartwave.payment.service.PaymentService;
+import com.cartwave.payment.service.PaymentWebhookInbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, PaymentWebhookInbox.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentWebhookInboxTest {
+
+    @Autowired
+    PaymentWebhookInbox inbox;
+
+    @Autowired
+    PaymentWebhookEventRepository repository;
+
+    @MockitoBean
+    PaymentService paymentService;
+
+    String txnA = "txn-" + UUID.randomUUID().toString().substring(0, 8);
+    String txnB = "txn-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void redeliveriesAreAcknowledgedWithoutBeingStoredTwice() {
+        PaymentWebhookReceipt first = inbox.receive(request(txnA, "SUCCESS", "evt-1"), null);
+        PaymentWebhookReceipt redelivered = inbox.receive(request(txnA, "SUCCESS", "evt-1"), null);
+        PaymentWebhookReceipt byHeader = inbox.receive(request(txnA, "SUCCESS", null), "evt-1");
+        PaymentWebhookReceipt withoutId = inbox.receive(request(txnB, "success", null), null);
+        PaymentWebhookReceipt sameStatus = inbox.receive(request(txnB, "SUCCESS", null), null);
+        PaymentWebhookReceipt otherStatus = inbox.receive(request(txnB, "FAILED", null), null);
+
+        assertThat(first.isDuplicate()).isFalse();
+        assertThat(redelivered.isDuplicate()).isTrue();
+        assertThat(redelivered.getId()).isEqualTo(first.getId());
+        assertThat(byHeader.getId()).isEqualTo(first.getId());
+        assertThat(sameStatus.isDuplicate()).isTrue();
+        assertThat(sameStatus.getId()).isEqualTo(withoutId.getId());
+        assertThat(otherStatus.isDuplicate()).isFalse();
+        assertThat(repository.count()).isEqualTo(3);
+        assertThat(first.getStatus()).isEqualTo("PENDING");
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void eventsOfOneTransactionAreAppliedInArrivalOrderAcrossClaims() {
+        UUID paid = inbox.receive(request(txnA, "SUCCESS", "evt-a1"), null).getId();
+        UUID refunded = inbox.receive(request(txnA, "FAILED", "evt-a2"), null).getId();
+        UUID other = inbox.receive(request(txnB, "SUCCESS", "evt-b1"), null).getId();
+        List<String> applied = new ArrayList<>();
+        doAnswer(call -> {
+            PaymentWebhookRequest request = call.getArgument(0);
+            applied.add(request.getTransactionId() + ":" + request.getStatus());
+            return null;
+        }).when(paymentService).webhook(any());
+
+        List<UUID> firstClaim = inbox.claimDue(10);
+        assertThat(firstClaim).containsExactlyInAnyOrder(paid, other);
+        assertThat(inbox.claimDue(10)).as("the next event of txnA waits for the first").isEmpty();
+        firstClaim.forEach(inbox::process);
+
+        List<UUID> secondClaim = inbox.claimDue(10);
+        assertThat(secondClaim).containsExactly(refunded);
+        secondClaim.forEach(inbox::process);
+
+        assertThat(applied.stream().filter(event -> event.startsWith(txnA)))
+                .containsExactly(txnA + ":SUCCESS", txnA + ":FAILED");
+        assertThat(repository.findAll()).allSatisfy(event -> {
+            assertThat(event.getStatus()).isEqualTo(PaymentWebhookStatus.PROCESSED);
+            assertThat(event.getProcessedAt()).isNotNull();
+        });
+    }
+
+    @Test
+    void failedEventIsRetriedLaterAndHoldsBackItsTransaction() {
+        UUID first = inbox.receive(request(txnA, "SUCCESS", "evt-a1"), null).getId();
+        inbox.receive(request(txnA, "FAILED", "evt-a2"), null);
+        doAnswer(call -> {
+            throw new IllegalStateException("billing row locked");
+        }).when(paymentService).webhook(any());
+
+        List<UUID> claimed = inbox.claimDue(10);
+        assertThat(claimed).containsExactly(first);
+        assertThat(inbox.process(first)).isFalse();
+
+        PaymentWebhookEvent retried = repository.findById(first).orElseThrow();
+        assertThat(retried.getStatus()).isEqualTo(PaymentWebhookStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(retried.getLastError()).isEqualTo("billing row locked");
+        assertThat(inbox.claimDue(10)).isEmpty();
+    }
+
+    private PaymentWebhookRequest request(String transactionId, String status, String eventId) {
+        PaymentWebhookRequest request = new PaymentWebhookRequest();
+        request.setTransactionId(transactionId);
+        request.setStatus(status);
+        request.setEventId(eventId);
+        return request;
+    }
+}
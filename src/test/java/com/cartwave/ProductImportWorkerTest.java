@@ -0,0 +1,191 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.config.AwsS3Service;
+import com.cartwave.inventory.service.HotSkuStockAllocator;
+import com.cartwave.product.dto.ProductImportJobDTO;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductImportJob;
+import com.cartwave.product.entity.ProductImportStatus;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductImportJobRepository;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.search.ProductSearchIndex;
+import com.cartwave.product.service.ProductImportService;
+import com.cartwave.product.service.ProductImportWorker;
+import com.cartwave.product.service.ProductService;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import com.cartwave.store.repository.StoreRepository;
+import com.cartwave.subscription.service.SubscriptionService;
+import com.cartwave.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AuditAwareImpl.class, ProductImportService.class, ProductImportWorker.class, ProductService.class,
+        JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "cartwave.products.import.chunk-size=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductImportWorkerTest {
+
+    @Autowired
+    ProductImportService importService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductImportJobRepository jobRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @MockitoBean
+    SubscriptionService subscriptionService;
+
+    @MockitoBean
+    StoreRepository storeRepository;
+
+    @MockitoBean
+    AwsS3Service awsS3Service;
+
+    @MockitoBean
+    StorefrontCatalogCache catalogCache;
+
+    @MockitoBean
+    ProductSearchIndex searchIndex;
+
+    @MockitoBean
+    HotSkuStockAllocator hotSkuStockAllocator;
+
+    UUID storeId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(storeId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        productRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    void importUpdatesBySkuStopsAtThePlanLimitAndReportsAFailedChunk() throws Exception {
+        productRepository.save(Product.builder()
+                .storeId(storeId)
+                .name("Mug")
+                .sku("MUG-1")
+                .price(new BigDecimal("10.00"))
+                .stock(1L)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build());
+        // One product exists, so a plan of three leaves room for two more
+        when(subscriptionService.getProductLimit(storeId)).thenReturn(3);
+        String tooLong = "c".repeat(300);
+        String csv = """
+                name,sku,price,stock,category
+                Mug Deluxe,MUG-1,12.50,5,
+                Tea,TEA-1,4.00,10,
+                Bowl,BOWL-1,9.00,3,%s
+                Plate,PLATE-1,7.00,3,
+                Cup,CUP-1,3.00,1,
+                Spoon,SPOON-1,1.00,1,
+                """.formatted(tooLong);
+
+        ProductImportJobDTO started = importService.startImport(
+                new MockMultipartFile("file", "catalogue.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)));
+        ProductImportJobDTO job = awaitFinished(started.getId());
+
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.getProcessedRows()).isEqualTo(6);
+        assertThat(job.getCreatedCount()).isEqualTo(2);
+        assertThat(job.getUpdatedCount()).isEqualTo(1);
+        assertThat(job.getFailedCount()).isEqualTo(3);
+        assertThat(job.getErrors()).extracting(ProductImportJobDTO.RowError::getRow).containsExactly(3L, 4L, 6L);
+        assertThat(job.getErrors().get(0).getMessage()).startsWith("Batch write failed");
+        assertThat(job.getErrors().get(2).getMessage()).isEqualTo("Product limit exceeded for the current plan.");
+
+        Map<String, Product> bySku = productRepository.findAll().stream()
+                .collect(Collectors.toMap(Product::getSku, product -> product));
+        assertThat(bySku).containsOnlyKeys("MUG-1", "TEA-1", "CUP-1");
+        assertThat(bySku.get("MUG-1").getName()).isEqualTo("Mug Deluxe");
+        assertThat(bySku.get("MUG-1").getStock()).isEqualTo(5);
+    }
+
+    @Test
+    void sweepFailsImportsThatStoppedMakingProgress() {
+        ProductImportJob stale = jobRepository.save(job(ProductImportStatus.RUNNING));
+        ProductImportJob queued = jobRepository.save(job(ProductImportStatus.QUEUED));
+        ProductImportJob active = jobRepository.save(job(ProductImportStatus.RUNNING));
+        ProductImportJob done = jobRepository.save(job(ProductImportStatus.COMPLETED));
+        Instant longAgo = Instant.now().minus(2, ChronoUnit.HOURS);
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("UPDATE ProductImportJob j SET j.updatedAt = :at WHERE j.id IN :ids")
+                .setParameter("at", longAgo)
+                .setParameter("ids", List.of(stale.getId(), queued.getId(), done.getId()))
+                .executeUpdate());
+
+        assertThat(importService.failStaleJobs()).isEqualTo(2);
+
+        assertThat(jobRepository.findById(stale.getId()).orElseThrow().getStatus()).isEqualTo(ProductImportStatus.FAILED);
+        assertThat(jobRepository.findById(queued.getId()).orElseThrow().getErrorMessage()).contains("upload the file again");
+        assertThat(jobRepository.findById(active.getId()).orElseThrow().getStatus()).isEqualTo(ProductImportStatus.RUNNING);
+        assertThat(jobRepository.findById(done.getId()).orElseThrow().getStatus()).isEqualTo(ProductImportStatus.COMPLETED);
+    }
+
+    /** The worker runs on the async executor once the upload commits. */
+    private ProductImportJobDTO awaitFinished(UUID jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ProductImportJobDTO job = importService.getJob(jobId);
+        while (Set.of("QUEUED", "RUNNING").contains(job.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            job = importService.getJob(jobId);
+        }
+        return job;
+    }
+
+    private ProductImportJob job(ProductImportStatus status) {
+        return ProductImportJob.builder()
+                .storeId(storeId)
+                .fileName("catalogue.csv")
+                .format("CSV")
+                .status(status)
+                .build();
+    }
+}
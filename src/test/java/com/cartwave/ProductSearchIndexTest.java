@@ -0,0 +1,164 @@
+package com.cartwave;
+
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import com.cartwave.product.repository.ProductSearchDocument;
+import com.cartwave.product.search.ProductSearchCriteria;
+import com.cartwave.product.search.ProductSearchFacets;
+import com.cartwave.product.search.ProductSearchHits;
+import com.cartwave.product.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    ProductSearchIndex index;
+    UUID storeId = UUID.randomUUID();
+
+    Product shoe = product("Trail Running Shoe", "Lightweight shoe for muddy trails", "Footwear", "TR-100", 10, 1);
+    Product sock = product("Merino Socks", "Warm socks, pairs well with a running shoe", "Apparel", "SK-200", 0, 2);
+    Product cafe = product("Café Mug", "Ceramic mug", "Kitchen", "MG-300", 5, 3);
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository);
+        ReflectionTestUtils.setField(index, "indexTtlMs", 60_000L);
+        ReflectionTestUtils.setField(index, "maxStores", 2);
+        when(productRepository.findSearchDocumentsByStoreId(storeId)).thenReturn(documents(shoe, sock, cafe));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatchesAndBuildsOnce() {
+        ProductSearchHits hits = index.search(storeId, criteria("running shoe").build());
+        index.search(storeId, criteria("mug").build());
+
+        assertThat(hits.productIds()).containsExactly(shoe.getId(), sock.getId());
+        assertThat(hits.totalHits()).isEqualTo(2);
+        verify(productRepository, times(1)).findSearchDocumentsByStoreId(storeId);
+    }
+
+    @Test
+    void matchesPrefixesAccentsSkusAndFilters() {
+        assertThat(index.search(storeId, criteria("run").build()).productIds()).hasSize(2);
+        assertThat(index.search(storeId, criteria("cafe").build()).productIds()).containsExactly(cafe.getId());
+        assertThat(index.search(storeId, criteria("sk-200").build()).productIds()).containsExactly(sock.getId());
+        assertThat(index.search(storeId, criteria("running").inStockOnly(true).build()).productIds())
+                .containsExactly(shoe.getId());
+        assertThat(index.search(storeId, criteria(null).category("kitchen").build()).productIds())
+                .containsExactly(cafe.getId());
+    }
+
+    @Test
+    void appliesCommittedWritesWithoutRebuilding() {
+        index.search(storeId, criteria("mug").build());
+
+        cafe.setName("Espresso Cup");
+        index.indexAfterCommit(cafe);
+        index.removeAfterCommit(storeId, shoe.getId());
+
+        assertThat(index.search(storeId, criteria("espresso").build()).productIds()).containsExactly(cafe.getId());
+        assertThat(index.search(storeId, criteria("trail").build()).totalHits()).isZero();
+        verify(productRepository, times(1)).findSearchDocumentsByStoreId(storeId);
+    }
+
+    @Test
+    void facetsCountSiblingCategoriesPriceBucketsAndStock() {
+        ProductSearchFacets facets = index.search(storeId, criteria(null).category("Footwear").facets(true).build()).facets();
+
+        assertThat(facets.categories()).containsEntry("Footwear", 1L).containsEntry("Apparel", 1L).containsEntry("Kitchen", 1L);
+        assertThat(facets.inStock()).isEqualTo(1);
+        assertThat(facets.outOfStock()).isZero();
+        assertThat(facets.priceRanges()).hasSize(1);
+        assertThat(facets.priceRanges().get(0).count()).isEqualTo(1);
+
+        sock.setPrice(new BigDecimal("3.50"));
+        cafe.setPrice(new BigDecimal("48"));
+        index.indexAfterCommit(sock);
+        index.indexAfterCommit(cafe);
+        List<ProductSearchFacets.PriceRange> ranges = index.search(storeId, criteria(null).facets(true).build())
+                .facets().priceRanges();
+
+        assertThat(ranges).extracting(ProductSearchFacets.PriceRange::min).first().isEqualTo(BigDecimal.ZERO);
+        assertThat(ranges).extracting(ProductSearchFacets.PriceRange::count).containsOnly(0L, 1L).contains(1L);
+        assertThat(ranges.stream().mapToLong(ProductSearchFacets.PriceRange::count).sum()).isEqualTo(3);
+    }
+
+    @Test
+    void dropsTheOldestIndexPastTheStoreCap() throws InterruptedException {
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(productRepository.findSearchDocumentsByStoreId(second)).thenReturn(List.of());
+        when(productRepository.findSearchDocumentsByStoreId(third)).thenReturn(List.of());
+
+        index.search(storeId, criteria("mug").build());
+        Thread.sleep(2);
+        index.search(second, criteria("mug").build());
+        Thread.sleep(2);
+        index.search(third, criteria("mug").build());
+        index.search(second, criteria("mug").build());
+        index.search(storeId, criteria("mug").build());
+
+        verify(productRepository, times(2)).findSearchDocumentsByStoreId(storeId);
+        verify(productRepository, times(1)).findSearchDocumentsByStoreId(second);
+    }
+
+    @Test
+    void keepsWritesCommittedWhileTheIndexIsBuilding() {
+        when(productRepository.findSearchDocumentsByStoreId(storeId)).thenAnswer(call -> {
+            List<ProductSearchDocument> read = documents(shoe, sock, cafe);
+            // committed after the catalogue was read, before the new index is installed
+            cafe.setName("Espresso Cup");
+            index.indexAfterCommit(cafe);
+            index.removeAfterCommit(storeId, shoe.getId());
+            return read;
+        });
+
+        assertThat(index.search(storeId, criteria("espresso").build()).productIds()).containsExactly(cafe.getId());
+        assertThat(index.search(storeId, criteria("trail").build()).totalHits()).isZero();
+    }
+
+    private ProductSearchCriteria.ProductSearchCriteriaBuilder criteria(String q) {
+        return ProductSearchCriteria.builder().query(q).offset(0).limit(20);
+    }
+
+    private static List<ProductSearchDocument> documents(Product... products) {
+        return Stream.of(products).map(ProductSearchDocument::of).toList();
+    }
+
+    private Product product(String name, String description, String category, String sku, long stock, int ageDays) {
+        Product product = Product.builder()
+                .storeId(storeId)
+                .name(name)
+                .description(description)
+                .category(category)
+                .sku(sku)
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build();
+        product.setId(UUID.randomUUID());
+        product.setCreatedAt(Instant.now().minusSeconds(ageDays * 86_400L));
+        return product;
+    }
+}
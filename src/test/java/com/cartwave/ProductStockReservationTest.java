@@ -0,0 +1,118 @@
+package com.cartwave;
+
+import com.cartwave.config.AuditAwareImpl;
+import com.cartwave.product.entity.Product;
+import com.cartwave.product.entity.ProductStatus;
+import com.cartwave.product.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(AuditAwareImpl.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ProductStockReservationTest {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void holdsOnlyLinesWithEnoughAvailableStockAndMarksSoldOutOnCommit() {
+        UUID storeId = UUID.randomUUID();
+        Product plenty = productRepository.save(product(storeId, "Plenty", 5));
+        Product scarce = productRepository.save(product(storeId, "Scarce", 1));
+
+        List<UUID> rejected = inTransaction(() -> productRepository.reserveStock(storeId,
+                Map.of(plenty.getId(), 3L, scarce.getId(), 2L, UUID.randomUUID(), 1L)));
+
+        assertThat(rejected).hasSize(2).contains(scarce.getId());
+        Product held = productRepository.findById(plenty.getId()).orElseThrow();
+        assertThat(held.getStock()).isEqualTo(5);
+        assertThat(held.getReservedStock()).isEqualTo(3);
+
+        assertThat(inTransaction(() -> productRepository.reserveStock(storeId, Map.of(plenty.getId(), 3L))))
+                .containsExactly(plenty.getId());
+        assertThat(inTransaction(() -> productRepository.reserveStock(storeId, Map.of(plenty.getId(), 2L)))).isEmpty();
+        inTransaction(() -> {
+            productRepository.commitReservedStock(storeId, Map.of(plenty.getId(), 5L));
+            return null;
+        });
+        Product soldOut = productRepository.findById(plenty.getId()).orElseThrow();
+        assertThat(soldOut.getStock()).isZero();
+        assertThat(soldOut.getReservedStock()).isZero();
+        assertThat(soldOut.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStatus()).isEqualTo(ProductStatus.ACTIVE);
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        UUID storeId = UUID.randomUUID();
+        Product product = productRepository.save(product(storeId, "Flash sale", 5));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<UUID>>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < 12; i++) {
+                attempts.add(pool.submit(() -> inTransaction(() ->
+                        productRepository.reserveStock(storeId, Map.of(product.getId(), 1L)))));
+            }
+            int held = 0;
+            for (Future<List<UUID>> attempt : attempts) {
+                held += attempt.get().isEmpty() ? 1 : 0;
+            }
+            assertThat(held).isEqualTo(5);
+        } finally {
+            pool.shutdownNow();
+        }
+        Product reserved = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reserved.getStock()).isEqualTo(5);
+        assertThat(reserved.getReservedStock()).isEqualTo(5);
+    }
+
+    private <T> T inTransaction(Callable<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Product product(UUID storeId, String name, long stock) {
+        return Product.builder()
+                .storeId(storeId)
+                .name(name)
+                .sku(name)
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .status(ProductStatus.ACTIVE)
+                .isPublished(true)
+                .build();
+    }
+}
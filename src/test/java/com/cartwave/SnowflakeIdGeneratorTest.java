@@ -0,0 +1,42 @@
+package com.cartwave;
+
+import com.cartwave.common.id.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void codesAreFixedWidthAndSortInCreationOrder() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        String previous = generator.nextCode();
+        for (int i = 0; i < 50_000; i++) {
+            String next = generator.nextCode();
+            assertThat(next).hasSize(13).matches("[0-9A-HJKMNP-TV-Z]+");
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nodesNeverCollideEvenInTheSameMillisecond() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+        assertThat(ids).hasSize(100_000);
+    }
+
+    @Test
+    void rejectsNodeIdsOutsideTenBits() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
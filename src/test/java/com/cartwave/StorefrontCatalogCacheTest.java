@@ -0,0 +1,64 @@
+package com.cartwave;
+
+import com.cartwave.product.dto.ProductDTO;
+import com.cartwave.product.service.StorefrontCatalogCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorefrontCatalogCacheTest {
+
+    StorefrontCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new StorefrontCatalogCache();
+        ReflectionTestUtils.setField(cache, "snapshotTtlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxStores", 10);
+    }
+
+    @Test
+    void snapshotIsBuiltOnceAndRebuiltAfterInvalidation() {
+        UUID storeId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(storeId, id -> { loads.incrementAndGet(); return List.of(product(true), product(false)); });
+        StorefrontCatalogCache.CatalogSnapshot snapshot =
+                cache.get(storeId, id -> { loads.incrementAndGet(); return List.of(); });
+
+        assertThat(loads).hasValue(1);
+        assertThat(snapshot.activeProducts()).hasSize(2);
+        assertThat(snapshot.publishedProducts()).hasSize(1);
+
+        cache.invalidate(storeId);
+        cache.get(storeId, id -> { loads.incrementAndGet(); return List.of(); });
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void snapshotLoadedDuringInvalidationIsNotInstalled() {
+        UUID storeId = UUID.randomUUID();
+
+        cache.get(storeId, id -> {
+            cache.invalidate(storeId);
+            return List.of(product(true));
+        });
+        StorefrontCatalogCache.CatalogSnapshot next = cache.get(storeId, id -> List.of());
+
+        assertThat(next.activeProducts()).isEmpty();
+    }
+
+    private ProductDTO product(boolean published) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setStatus("ACTIVE");
+        dto.setIsPublished(published);
+        return dto;
+    }
+}
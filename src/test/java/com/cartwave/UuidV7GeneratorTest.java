@@ -0,0 +1,128 @@
+package com.cartwave;
+
+import com.cartwave.common.id.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidV7GeneratorTest.class);
+
+    @Test
+    void idsCarryVersionSevenAndTheCurrentMillisecond() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // Millis may run ahead when the sequence overflowed in an earlier test
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1_000);
+    }
+
+    @Test
+    void idsFromOneNodeAreStrictlyIncreasingEvenWithinAMillisecond() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.next();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverShareAnId() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 25_000; i++) {
+                        ids.add(UuidV7Generator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(ids).hasSize(100_000);
+    }
+
+    /**
+     * Insert benchmark against Postgres:
+     * {@code mvn test -Dtest=UuidV7GeneratorTest -Dcartwave.load-tests=true} (needs Docker).
+     */
+    @Test
+    @EnabledIf("com.cartwave.TestDockerSupport#isDockerAvailable")
+    @EnabledIfSystemProperty(named = "cartwave.load-tests", matches = "true")
+    void timeOrderedIdsKeepThePrimaryKeyIndexCompact() throws Exception {
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            try (Connection connection = DriverManager.getConnection(
+                    postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+                InsertRun random = insert(connection, "ids_v4", UUID::randomUUID);
+                InsertRun ordered = insert(connection, "ids_v7", UuidV7Generator::next);
+                log.info("Primary key inserts: v4 {} rows/s, pkey {} kB; v7 {} rows/s, pkey {} kB",
+                        random.rowsPerSecond(), random.indexBytes() / 1024,
+                        ordered.rowsPerSecond(), ordered.indexBytes() / 1024);
+
+                assertThat(ordered.indexBytes()).isLessThan(random.indexBytes());
+            }
+        }
+    }
+
+    private record InsertRun(long rowsPerSecond, long indexBytes) {
+    }
+
+    private static InsertRun insert(Connection connection, String table, Supplier<UUID> ids) throws Exception {
+        int rows = 1_000_000;
+        int batch = 1_000;
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, created_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+        }
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (id) VALUES (?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.addBatch();
+                if (i % batch == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        connection.setAutoCommit(true);
+        try (Statement query = connection.createStatement();
+             ResultSet size = query.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+            size.next();
+            return new InsertRun(rows * 1_000_000_000L / elapsedNanos, size.getLong(1));
+        }
+    }
+}